@@ -39,7 +39,7 @@ abstract class BaseDriver implements Driver
     private final DriverContract contract;
     private final SecurityPlan securityPlan;
     protected final Logger log;
-    private final static String DRIVER_LOG_NAME = "Driver";
+    final static String DRIVER_LOG_NAME = "Driver";
 
     BaseDriver( DriverContract contract, SecurityPlan securityPlan, Logging logging )
     {
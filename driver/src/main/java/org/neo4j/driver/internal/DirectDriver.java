@@ -26,6 +26,7 @@ import org.neo4j.driver.v1.Logging;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
 import org.neo4j.driver.v1.exceptions.SessionExpiredException;
+import org.neo4j.driver.v1.metrics.Metrics;
 import org.neo4j.driver.v1.util.Function;
 
 import static java.lang.String.format;
@@ -59,6 +60,12 @@ public class DirectDriver extends BaseDriver
         return session();
     }
 
+    @Override
+    public Metrics metrics()
+    {
+        return connections.metrics();
+    }
+
     @Override
     public void close()
     {
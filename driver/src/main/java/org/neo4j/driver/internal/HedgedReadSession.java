@@ -0,0 +1,458 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.v1.AccessMode;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.types.TypeSystem;
+
+import static org.neo4j.driver.v1.Values.value;
+
+/**
+ * A read session that also sends a statement to a second read server when its own server is slow to respond, and
+ * returns the result of whichever server responds first.
+ * <p>
+ * Only statements run outside of transactions are hedged. Such a statement waits for its first record, or for the
+ * end of its result, on a pooled thread, while the caller waits for as long as the {@link ReadHedger} says. After
+ * that the statement is sent to another server as well, over a connection of its own, and the server that responds
+ * last is reset. If that is the server of this session, the session waits for it to answer the reset before it is
+ * used again. Errors of the server that lost are not reported to the {@link RoutingErrorHandler}, as they are caused
+ * by the reset. The connection of a hedge that won is kept until the session is used again, so that the rest of the
+ * result can still be received.
+ */
+public class HedgedReadSession implements Session
+{
+    private final RoutingNetworkSession primary;
+    private final ErrorFilter primaryErrors;
+    private final ReadHedger hedger;
+    private final RoutingErrorHandler onError;
+    private final Executor executor;
+
+    /** The statement the server of this session lost a race with, it has to be answered before the next one. */
+    private volatile Future<StatementResult> abandoned;
+    /** The session of the other server, when it won the last race. */
+    private volatile Session winner;
+
+    HedgedReadSession( Session delegate, BoltServerAddress address, ReadHedger hedger, RoutingErrorHandler onError,
+            Executor executor )
+    {
+        this.primaryErrors = new ErrorFilter( onError );
+        this.primary = new RoutingNetworkSession( delegate, AccessMode.READ, address, primaryErrors );
+        this.hedger = hedger;
+        this.onError = onError;
+        this.executor = executor;
+    }
+
+    @Override
+    public StatementResult run( String statementText )
+    {
+        return run( statementText, Values.EmptyMap );
+    }
+
+    @Override
+    public StatementResult run( String statementText, Map<String,Object> statementParameters )
+    {
+        Value params = statementParameters == null ? Values.EmptyMap : value( statementParameters );
+        return run( statementText, params );
+    }
+
+    @Override
+    public StatementResult run( String statementTemplate, Record statementParameters )
+    {
+        Value params = statementParameters == null ? Values.EmptyMap : value( statementParameters.asMap() );
+        return run( statementTemplate, params );
+    }
+
+    @Override
+    public StatementResult run( String statementText, Value statementParameters )
+    {
+        return run( new Statement( statementText, statementParameters ) );
+    }
+
+    @Override
+    public StatementResult run( Statement statement )
+    {
+        settle();
+        long delay = hedger.hedgeDelay( address() );
+        if ( delay <= 0 )
+        {
+            long start = System.nanoTime();
+            StatementResult result = firstResponse( primary, statement );
+            hedger.responded( address(), System.nanoTime() - start );
+            return result;
+        }
+        return race( statement, delay );
+    }
+
+    private StatementResult race( Statement statement, long delay )
+    {
+        CompletionService<StatementResult> attempts = new ExecutorCompletionService<>( executor );
+        long start = System.nanoTime();
+        Future<StatementResult> first = attempts.submit( attempt( primary, statement ) );
+        Future<StatementResult> second = null;
+        RoutingNetworkSession hedge = null;
+        ErrorFilter hedgeErrors = null;
+        long hedgeStart = 0;
+        Future<StatementResult> done;
+        try
+        {
+            done = attempts.poll( delay, TimeUnit.NANOSECONDS );
+            if ( done == null )
+            {
+                Connection connection = hedger.acquireHedgeConnection( address() );
+                if ( connection != null )
+                {
+                    hedgeErrors = new ErrorFilter( onError );
+                    hedge = new RoutingNetworkSession( new NetworkSession( connection ), AccessMode.READ,
+                            connection.address(), hedgeErrors );
+                    hedgeStart = System.nanoTime();
+                    second = attempts.submit( attempt( hedge, statement ) );
+                }
+                done = attempts.take();
+                if ( second != null && failed( done ) )
+                {
+                    // the other server may still respond
+                    done = attempts.take();
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            abandonAll( first, second, hedge, hedgeErrors );
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for a response", e );
+        }
+        catch ( RuntimeException | Error e )
+        {
+            // such as failing to acquire a connection for the hedge, the statements must not outlive the race
+            abandonAll( first, second, hedge, hedgeErrors );
+            throw e;
+        }
+        long end = System.nanoTime();
+        if ( done == first )
+        {
+            hedger.responded( address(), end - start );
+            if ( second != null )
+            {
+                abandon( second, hedge, hedgeErrors );
+            }
+        }
+        else
+        {
+            hedger.responded( hedge.address(), end - hedgeStart );
+            // the server of this session took at least this long, leaving it out would make it look faster
+            hedger.responded( address(), end - start );
+            abandonPrimary( first );
+            winner = hedge;
+        }
+        return result( done );
+    }
+
+    private void abandonAll( Future<StatementResult> first, Future<StatementResult> second,
+            RoutingNetworkSession hedge, ErrorFilter hedgeErrors )
+    {
+        abandonPrimary( first );
+        if ( second != null )
+        {
+            abandon( second, hedge, hedgeErrors );
+        }
+    }
+
+    private void abandonPrimary( Future<StatementResult> attempt )
+    {
+        if ( !attempt.isDone() )
+        {
+            primaryErrors.mute();
+            resetQuietly( primary );
+        }
+        abandoned = attempt;
+    }
+
+    private void abandon( final Future<StatementResult> attempt, final Session session, ErrorFilter errors )
+    {
+        errors.mute();
+        if ( !attempt.isDone() )
+        {
+            resetQuietly( session );
+        }
+        executor.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    awaitQuietly( attempt );
+                    session.close();
+                }
+                catch ( RuntimeException | InterruptedException e )
+                {
+                    // the connection is disposed of by the pool when it cannot be reused
+                }
+            }
+        } );
+    }
+
+    /**
+     * Wait for a statement this session lost a race with, and close the session that won it.
+     */
+    private void settle()
+    {
+        Future<StatementResult> abandoned = this.abandoned;
+        Session winner = this.winner;
+        this.winner = null;
+        try
+        {
+            if ( abandoned != null )
+            {
+                awaitQuietly( abandoned );
+                this.abandoned = null;
+                primaryErrors.unmute();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for the server to answer a reset", e );
+        }
+        finally
+        {
+            if ( winner != null )
+            {
+                // receives the rest of the result the session returned
+                winner.close();
+            }
+        }
+    }
+
+    @Override
+    public TypeSystem typeSystem()
+    {
+        return primary.typeSystem();
+    }
+
+    @Override
+    public Transaction beginTransaction()
+    {
+        settle();
+        return primary.beginTransaction();
+    }
+
+    @Override
+    public Transaction beginTransaction( String bookmark )
+    {
+        settle();
+        return primary.beginTransaction( bookmark );
+    }
+
+    @Override
+    public String lastBookmark()
+    {
+        return primary.lastBookmark();
+    }
+
+    @Override
+    public void reset()
+    {
+        Session winner = this.winner;
+        if ( winner != null )
+        {
+            winner.reset();
+        }
+        primary.reset();
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return primary.isOpen();
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            settle();
+        }
+        finally
+        {
+            primary.close();
+        }
+    }
+
+    @Override
+    public String server()
+    {
+        return primary.server();
+    }
+
+    public BoltServerAddress address()
+    {
+        return primary.address();
+    }
+
+    private static Callable<StatementResult> attempt( final Session session, final Statement statement )
+    {
+        return new Callable<StatementResult>()
+        {
+            @Override
+            public StatementResult call()
+            {
+                return firstResponse( session, statement );
+            }
+        };
+    }
+
+    private static StatementResult firstResponse( Session session, Statement statement )
+    {
+        StatementResult result = session.run( statement );
+        result.hasNext();
+        return result;
+    }
+
+    private static boolean failed( Future<StatementResult> attempt ) throws InterruptedException
+    {
+        try
+        {
+            attempt.get();
+            return false;
+        }
+        catch ( ExecutionException e )
+        {
+            return true;
+        }
+    }
+
+    private static StatementResult result( Future<StatementResult> attempt )
+    {
+        try
+        {
+            return attempt.get();
+        }
+        catch ( InterruptedException e )
+        {
+            // not expected, the attempt is done
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for a response", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    private static void awaitQuietly( Future<StatementResult> attempt ) throws InterruptedException
+    {
+        try
+        {
+            attempt.get();
+        }
+        catch ( ExecutionException e )
+        {
+            // failures of abandoned statements are expected after the reset
+        }
+    }
+
+    private static void resetQuietly( Session session )
+    {
+        try
+        {
+            session.reset();
+        }
+        catch ( RuntimeException e )
+        {
+            // the statement is abandoned either way, the session reports the error when it is used again
+        }
+    }
+
+    /**
+     * Passes errors on, except while muted.
+     */
+    private static class ErrorFilter implements RoutingErrorHandler
+    {
+        private final RoutingErrorHandler delegate;
+        private volatile boolean muted;
+
+        ErrorFilter( RoutingErrorHandler delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        void mute()
+        {
+            muted = true;
+        }
+
+        void unmute()
+        {
+            muted = false;
+        }
+
+        @Override
+        public void onConnectionFailure( BoltServerAddress address )
+        {
+            if ( !muted )
+            {
+                delegate.onConnectionFailure( address );
+            }
+        }
+
+        @Override
+        public void onWriteFailure( BoltServerAddress address )
+        {
+            if ( !muted )
+            {
+                delegate.onWriteFailure( address );
+            }
+        }
+
+        @Override
+        public void onServerFailure( BoltServerAddress address )
+        {
+            if ( !muted )
+            {
+                delegate.onServerFailure( address );
+            }
+        }
+    }
+}
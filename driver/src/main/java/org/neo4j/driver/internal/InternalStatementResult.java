@@ -18,12 +18,20 @@
  */
 package org.neo4j.driver.internal;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 
+import org.neo4j.driver.internal.messaging.EntityCache;
+import org.neo4j.driver.internal.messaging.JsonRecordWriter;
+import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.Collector;
 import org.neo4j.driver.internal.summary.SummaryBuilder;
@@ -53,6 +61,8 @@ public class InternalStatementResult implements StatementResult
 
     private List<String> keys = null;
     private ResultSummary summary = null;
+    private JsonRecordWriter jsonSink = null;
+    private EntityCache entityCache = null;
 
     private long position = -1;
     private boolean done = false;
@@ -71,7 +81,7 @@ public class InternalStatementResult implements StatementResult
             @Override
             public void keys( String[] names )
             {
-                keys = Arrays.asList( names );
+                keys = new RecordKeys( names );
             }
 
             @Override
@@ -101,6 +111,27 @@ public class InternalStatementResult implements StatementResult
             public void record( Value[] fields )
             {
                 recordBuffer.add( new InternalRecord( keys, fields ) );
+                if ( jsonSink != null )
+                {
+                    writeBufferedRecords( jsonSink );
+                }
+            }
+
+            @Override
+            public boolean record( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+            {
+                if ( jsonSink == null )
+                {
+                    return false;
+                }
+                jsonSink.write( unpacker, fieldCount );
+                return true;
+            }
+
+            @Override
+            public EntityCache entityCache()
+            {
+                return entityCache;
             }
 
             @Override
@@ -173,6 +204,16 @@ public class InternalStatementResult implements StatementResult
         return pullAllResponseCollector;
     }
 
+    @Override
+    public StatementResult deduplicateEntities()
+    {
+        if ( entityCache == null )
+        {
+            entityCache = new EntityCache();
+        }
+        return this;
+    }
+
     @Override
     public List<String> keys()
     {
@@ -274,6 +315,68 @@ public class InternalStatementResult implements StatementResult
         }
     }
 
+    @Override
+    public <T> List<T> list( Class<T> type )
+    {
+        return list( RecordMapper.mapperFor( type, keys() ) );
+    }
+
+    @Override
+    public ResultSummary writeJson( Writer out )
+    {
+        JsonRecordWriter json = new JsonRecordWriter( out, keys() );
+        try
+        {
+            json.writeStart();
+            writeBufferedRecords( json );
+
+            // Everything still on the wire is transcoded by the stream collector as it is received
+            jsonSink = json;
+            while ( !done )
+            {
+                connection.receiveOne();
+            }
+            json.writeEnd();
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to write result as JSON: " + e.getMessage(), e );
+        }
+        finally
+        {
+            jsonSink = null;
+        }
+
+        if ( json.failure() != null )
+        {
+            throw new ClientException( "Unable to write result as JSON: " + json.failure().getMessage(),
+                    json.failure() );
+        }
+        return summary;
+    }
+
+    private void writeBufferedRecords( JsonRecordWriter json )
+    {
+        try
+        {
+            while ( !recordBuffer.isEmpty() )
+            {
+                position += 1;
+                json.write( recordBuffer.poll() );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to write result as JSON: " + e.getMessage(), e );
+        }
+    }
+
+    @Override
+    public ResultSummary writeJson( OutputStream out )
+    {
+        return writeJson( new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8 ) ) );
+    }
+
     @Override
     public ResultSummary consume()
     {
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.Connection;
+
+/**
+ * Interface used for sending a slow read to a second server of a cluster as well.
+ */
+public interface ReadHedger
+{
+    /**
+     * Called when a read is about to be sent to the given server.
+     *
+     * @return the time in nanoseconds to wait for the server to respond before hedging the read, or {@code 0} to
+     * not hedge it
+     */
+    long hedgeDelay( BoltServerAddress address );
+
+    /**
+     * Called when the server responded to a read, or when it was abandoned after the given time.
+     */
+    void responded( BoltServerAddress address, long nanos );
+
+    /**
+     * @return a connection to a read server other than the given one, or {@code null} if the read may not be hedged
+     */
+    Connection acquireHedgeConnection( BoltServerAddress address );
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of the keys of a result, with constant time {@link #indexOf(Object)} and {@link #contains(Object)}.
+ *
+ * Built once per result when the keys arrive and shared by all of its records, so looking up a field by name
+ * does not scan the key list.
+ */
+public class RecordKeys extends AbstractList<String> implements RandomAccess
+{
+    private final String[] keys;
+    private final Map<String,Integer> indexes;
+
+    public RecordKeys( String[] keys )
+    {
+        this.keys = keys;
+        this.indexes = new HashMap<>( keys.length * 2 );
+        for ( int i = keys.length - 1; i >= 0; i-- )
+        {
+            // iterate backwards so duplicate keys resolve to their first occurrence, as with List#indexOf
+            indexes.put( keys[i], i );
+        }
+    }
+
+    @Override
+    public String get( int index )
+    {
+        return keys[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return keys.length;
+    }
+
+    @Override
+    public int indexOf( Object key )
+    {
+        Integer index = indexes.get( key );
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public boolean contains( Object key )
+    {
+        return indexes.containsKey( key );
+    }
+}
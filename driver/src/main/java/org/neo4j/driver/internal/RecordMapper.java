@@ -0,0 +1,305 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.types.Entity;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Path;
+import org.neo4j.driver.v1.types.Relationship;
+import org.neo4j.driver.v1.util.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Maps records with a fixed list of keys onto instances of a plain java class.
+ *
+ * Each key is bound to a public setter named {@code setKey} or, failing that, to a non-final field named
+ * {@code key} declared by the class or one of its superclasses. Keys without a matching property are ignored.
+ * Property lookup, value conversion and column index resolution all happen once, when the mapper is created;
+ * mapping a record afterwards only invokes pre-bound method handles.
+ *
+ * Mappers are cached per class and key list, use {@link #mapperFor(Class, List)} to obtain one.
+ *
+ * @param <T> the type records are mapped to
+ */
+public class RecordMapper<T> implements Function<Record,T>
+{
+    private static final MethodType SETTER_TYPE = MethodType.methodType( void.class, Object.class, Object.class );
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType( Object.class );
+
+    private static final ClassValue<ConcurrentMap<List<String>,RecordMapper<?>>> MAPPERS =
+            new ClassValue<ConcurrentMap<List<String>,RecordMapper<?>>>()
+            {
+                @Override
+                protected ConcurrentMap<List<String>,RecordMapper<?>> computeValue( Class<?> type )
+                {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final int[] indexes;
+    private final MethodHandle[] setters;
+    private final Function<Value,?>[] converters;
+
+    @SuppressWarnings( "unchecked" )
+    public static <T> RecordMapper<T> mapperFor( Class<T> type, List<String> keys )
+    {
+        ConcurrentMap<List<String>,RecordMapper<?>> mappers = MAPPERS.get( type );
+        RecordMapper<?> mapper = mappers.get( keys );
+        if ( mapper == null )
+        {
+            RecordMapper<T> newMapper = new RecordMapper<>( type, keys );
+            mapper = mappers.putIfAbsent( new ArrayList<>( keys ), newMapper );
+            if ( mapper == null )
+            {
+                mapper = newMapper;
+            }
+        }
+        return (RecordMapper<T>) mapper;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    RecordMapper( Class<T> type, List<String> keys )
+    {
+        this.type = type;
+        this.constructor = constructorOf( type );
+
+        List<Integer> boundIndexes = new ArrayList<>( keys.size() );
+        List<MethodHandle> boundSetters = new ArrayList<>( keys.size() );
+        List<Function<Value,?>> boundConverters = new ArrayList<>( keys.size() );
+        for ( int i = 0; i < keys.size(); i++ )
+        {
+            String key = keys.get( i );
+            Class<?> propertyType = propertyType( type, key );
+            if ( propertyType != null )
+            {
+                boundIndexes.add( i );
+                boundSetters.add( setterOf( type, key, propertyType ) );
+                boundConverters.add( converterFor( type, key, propertyType ) );
+            }
+        }
+
+        this.indexes = new int[boundIndexes.size()];
+        for ( int i = 0; i < indexes.length; i++ )
+        {
+            indexes[i] = boundIndexes.get( i );
+        }
+        this.setters = boundSetters.toArray( new MethodHandle[boundSetters.size()] );
+        this.converters = (Function<Value,?>[]) boundConverters.toArray( new Function<?,?>[boundConverters.size()] );
+    }
+
+    @Override
+    public T apply( Record record )
+    {
+        try
+        {
+            Object target = (Object) constructor.invokeExact();
+            for ( int i = 0; i < indexes.length; i++ )
+            {
+                Value value = record.get( indexes[i] );
+                if ( !value.isNull() )
+                {
+                    setters[i].invokeExact( target, (Object) converters[i].apply( value ) );
+                }
+            }
+            return type.cast( target );
+        }
+        catch ( RuntimeException | Error e )
+        {
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            throw new ClientException( format( "Unable to map record to %s", type.getName() ), e );
+        }
+    }
+
+    private static MethodHandle constructorOf( Class<?> type )
+    {
+        try
+        {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible( true );
+            return MethodHandles.lookup().unreflectConstructor( constructor ).asType( CONSTRUCTOR_TYPE );
+        }
+        catch ( NoSuchMethodException | IllegalAccessException | SecurityException e )
+        {
+            throw new ClientException( format(
+                    "Unable to map records to %s, a no-argument constructor is required", type.getName() ), e );
+        }
+    }
+
+    private static Class<?> propertyType( Class<?> type, String key )
+    {
+        Method setter = setterMethod( type, key );
+        if ( setter != null )
+        {
+            return setter.getParameterTypes()[0];
+        }
+        Field field = field( type, key );
+        if ( field != null )
+        {
+            return field.getType();
+        }
+        return null;
+    }
+
+    private static MethodHandle setterOf( Class<?> type, String key, Class<?> propertyType )
+    {
+        try
+        {
+            Method setter = setterMethod( type, key );
+            if ( setter != null )
+            {
+                setter.setAccessible( true );
+                return MethodHandles.lookup().unreflect( setter ).asType( SETTER_TYPE );
+            }
+            Field field = field( type, key );
+            field.setAccessible( true );
+            return MethodHandles.lookup().unreflectSetter( field ).asType( SETTER_TYPE );
+        }
+        catch ( IllegalAccessException | SecurityException e )
+        {
+            throw new ClientException( format( "Unable to map key `%s` to %s of type %s",
+                    key, type.getName(), propertyType.getName() ), e );
+        }
+    }
+
+    private static Method setterMethod( Class<?> type, String key )
+    {
+        if ( key.isEmpty() )
+        {
+            return null;
+        }
+        String name = "set" + Character.toUpperCase( key.charAt( 0 ) ) + key.substring( 1 );
+        for ( Method method : type.getMethods() )
+        {
+            if ( method.getName().equals( name ) && method.getParameterTypes().length == 1 &&
+                 !Modifier.isStatic( method.getModifiers() ) )
+            {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Field field( Class<?> type, String key )
+    {
+        for ( Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass() )
+        {
+            for ( Field field : current.getDeclaredFields() )
+            {
+                int modifiers = field.getModifiers();
+                if ( field.getName().equals( key ) && !Modifier.isStatic( modifiers ) && !Modifier.isFinal( modifiers ) )
+                {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Function<Value,?> converterFor( Class<?> type, String key, Class<?> propertyType )
+    {
+        if ( propertyType == Value.class )
+        {
+            return Values.ofValue();
+        }
+        else if ( propertyType == Object.class )
+        {
+            return Values.ofObject();
+        }
+        else if ( propertyType == String.class )
+        {
+            return Values.ofString();
+        }
+        else if ( propertyType == long.class || propertyType == Long.class )
+        {
+            return Values.ofLong();
+        }
+        else if ( propertyType == int.class || propertyType == Integer.class )
+        {
+            return Values.ofInteger();
+        }
+        else if ( propertyType == double.class || propertyType == Double.class )
+        {
+            return Values.ofDouble();
+        }
+        else if ( propertyType == float.class || propertyType == Float.class )
+        {
+            return Values.ofFloat();
+        }
+        else if ( propertyType == boolean.class || propertyType == Boolean.class )
+        {
+            return Values.ofBoolean();
+        }
+        else if ( propertyType == Number.class )
+        {
+            return Values.ofNumber();
+        }
+        else if ( propertyType == Node.class )
+        {
+            return Values.ofNode();
+        }
+        else if ( propertyType == Relationship.class )
+        {
+            return Values.ofRelationship();
+        }
+        else if ( propertyType == Path.class )
+        {
+            return Values.ofPath();
+        }
+        else if ( propertyType == Entity.class )
+        {
+            return Values.ofEntity();
+        }
+        else if ( propertyType.isAssignableFrom( List.class ) )
+        {
+            return Values.ofList();
+        }
+        else if ( propertyType.isAssignableFrom( Map.class ) )
+        {
+            return Values.ofMap();
+        }
+        else
+        {
+            throw new ClientException( format( "Unable to map key `%s` to %s, type %s is not supported",
+                    key, type.getName(), propertyType.getName() ) );
+        }
+    }
+}
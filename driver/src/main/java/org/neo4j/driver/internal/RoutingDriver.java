@@ -18,6 +18,12 @@
  */
 package org.neo4j.driver.internal;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.driver.internal.cluster.LoadBalancer;
 import org.neo4j.driver.internal.cluster.RoutingSettings;
 import org.neo4j.driver.internal.net.BoltServerAddress;
@@ -30,6 +36,7 @@ import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Logging;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.metrics.Metrics;
 
 import static java.lang.String.format;
 
@@ -46,6 +53,8 @@ public class RoutingDriver extends BaseDriver
     }
 
     private final LoadBalancer loadBalancer;
+    private final ConnectionPool connections;
+    private final Executor hedging;
 
     public RoutingDriver(
             RoutingSettings settings,
@@ -55,9 +64,24 @@ public class RoutingDriver extends BaseDriver
             SecurityPlan securityPlan,
             Clock clock,
             Logging logging )
+    {
+        // the security plan is verified before the load balancer is created, which connects to the seed address
+        this( contract, verifiedSecurityPlan( securityPlan ), connections,
+                new LoadBalancer( settings, clock, logging.getLog( DRIVER_LOG_NAME ), connections, seedAddress ),
+                logging );
+    }
+
+    RoutingDriver(
+            DriverContract contract,
+            SecurityPlan securityPlan,
+            ConnectionPool connections,
+            LoadBalancer loadBalancer,
+            Logging logging )
     {
         super( contract, verifiedSecurityPlan( securityPlan ), logging );
-        this.loadBalancer = new LoadBalancer( settings, clock, log, connections, seedAddress );
+        this.loadBalancer = loadBalancer;
+        this.connections = connections;
+        this.hedging = loadBalancer.hedgesReads() ? hedging() : null;
     }
 
     @Override
@@ -70,6 +94,11 @@ public class RoutingDriver extends BaseDriver
     public Session session( final AccessMode mode )
     {
         Connection connection = acquireConnection( mode );
+        if ( mode == AccessMode.READ && hedging != null )
+        {
+            return new HedgedReadSession( new NetworkSession( connection ), connection.address(), loadBalancer,
+                    loadBalancer, hedging );
+        }
         return new RoutingNetworkSession( new NetworkSession( connection ), mode, connection.address(), loadBalancer );
     }
 
@@ -86,6 +115,28 @@ public class RoutingDriver extends BaseDriver
         }
     }
 
+    private static Executor hedging()
+    {
+        // not bounded, every read that may be hedged uses a thread while it waits for a response
+        return new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new SynchronousQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread( Runnable runnable )
+                    {
+                        Thread thread = new Thread( runnable, "neo4j-hedged-reads" );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return connections.metrics();
+    }
+
     @Override
     public void close()
     {
@@ -28,4 +28,9 @@ public interface RoutingErrorHandler
     void onConnectionFailure( BoltServerAddress address );
 
     void onWriteFailure( BoltServerAddress address );
+
+    /**
+     * Called when the server failed a statement with a transient or database error.
+     */
+    void onServerFailure( BoltServerAddress address );
 }
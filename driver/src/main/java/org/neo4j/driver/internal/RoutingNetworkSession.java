@@ -31,9 +31,11 @@ import org.neo4j.driver.v1.Transaction;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.DatabaseException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
 import org.neo4j.driver.v1.exceptions.SessionExpiredException;
+import org.neo4j.driver.v1.exceptions.TransientException;
 import org.neo4j.driver.v1.types.TypeSystem;
 
 import static java.lang.String.format;
@@ -99,6 +101,10 @@ public class RoutingNetworkSession implements Session
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -152,6 +158,10 @@ public class RoutingNetworkSession implements Session
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -196,6 +206,12 @@ public class RoutingNetworkSession implements Session
         return new SessionExpiredException( format( "Server at %s is no longer available", address.toString() ), e );
     }
 
+    static Neo4jException serverFailure( Neo4jException e, RoutingErrorHandler onError, BoltServerAddress address )
+    {
+        onError.onServerFailure( address );
+        return e;
+    }
+
     private static boolean isFailedToWrite( ClientException e )
     {
         return e.code().equals( "Neo.ClientError.Cluster.NotALeader" ) ||
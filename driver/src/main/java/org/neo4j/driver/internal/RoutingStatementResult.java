@@ -18,6 +18,8 @@
  */
 package org.neo4j.driver.internal;
 
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.List;
 
 import org.neo4j.driver.internal.net.BoltServerAddress;
@@ -25,12 +27,15 @@ import org.neo4j.driver.v1.AccessMode;
 import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.DatabaseException;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.exceptions.TransientException;
 import org.neo4j.driver.v1.exceptions.NoSuchRecordException;
 import org.neo4j.driver.v1.summary.ResultSummary;
 import org.neo4j.driver.v1.util.Function;
 
 import static org.neo4j.driver.internal.RoutingNetworkSession.filterFailureToWrite;
+import static org.neo4j.driver.internal.RoutingNetworkSession.serverFailure;
 import static org.neo4j.driver.internal.RoutingNetworkSession.sessionExpired;
 
 public class RoutingStatementResult implements StatementResult
@@ -49,6 +54,13 @@ public class RoutingStatementResult implements StatementResult
         this.onError = onError;
     }
 
+    @Override
+    public StatementResult deduplicateEntities()
+    {
+        delegate.deduplicateEntities();
+        return this;
+    }
+
     @Override
     public List<String> keys()
     {
@@ -64,6 +76,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -81,6 +97,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -98,6 +118,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
 
@@ -116,6 +140,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -133,6 +161,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -150,6 +182,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -167,6 +203,73 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
+    }
+
+    @Override
+    public <T> List<T> list( Class<T> type )
+    {
+        try
+        {
+            return delegate.list( type );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            throw sessionExpired( e, onError, address );
+        }
+        catch ( ClientException e )
+        {
+            throw filterFailureToWrite( e, mode, onError, address );
+        }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
+    }
+
+    @Override
+    public ResultSummary writeJson( Writer out )
+    {
+        try
+        {
+            return delegate.writeJson( out );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            throw sessionExpired( e, onError, address );
+        }
+        catch ( ClientException e )
+        {
+            throw filterFailureToWrite( e, mode, onError, address );
+        }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
+    }
+
+    @Override
+    public ResultSummary writeJson( OutputStream out )
+    {
+        try
+        {
+            return delegate.writeJson( out );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            throw sessionExpired( e, onError, address );
+        }
+        catch ( ClientException e )
+        {
+            throw filterFailureToWrite( e, mode, onError, address );
+        }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -190,6 +293,10 @@ public class RoutingStatementResult implements StatementResult
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     public BoltServerAddress address()
@@ -30,10 +30,13 @@ import org.neo4j.driver.v1.Transaction;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.DatabaseException;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.exceptions.TransientException;
 import org.neo4j.driver.v1.types.TypeSystem;
 
 import static org.neo4j.driver.internal.RoutingNetworkSession.filterFailureToWrite;
+import static org.neo4j.driver.internal.RoutingNetworkSession.serverFailure;
 import static org.neo4j.driver.internal.RoutingNetworkSession.sessionExpired;
 import static org.neo4j.driver.v1.Values.value;
 
@@ -97,6 +100,10 @@ public class RoutingTransaction implements Transaction
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 
     @Override
@@ -139,5 +146,9 @@ public class RoutingTransaction implements Transaction
         {
             throw filterFailureToWrite( e, mode, onError, address );
         }
+        catch ( TransientException | DatabaseException e )
+        {
+            throw serverFailure( e, onError, address );
+        }
     }
 }
@@ -103,7 +103,6 @@ final class ClusterComposition
         this.expirationTimestamp = expirationTimestamp;
     }
 
-    /** For testing */
     ClusterComposition(
             long expirationTimestamp,
             Set<BoltServerAddress> readers,
@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.metrics.InternalHistogram;
+import org.neo4j.driver.internal.metrics.SlidingWindowCounter;
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+/**
+ * Decides how long a read waits for its server before it is also sent to a second server, and how many reads
+ * may be hedged that way.
+ * <p>
+ * The delay is a percentile of the times the server took to respond to reads over the last minute or two, so a
+ * read is only hedged when its server is slower than it usually is. Until a server has responded to enough reads
+ * its reads are not hedged. The number of hedged reads over the last ten seconds is kept within the budget, a share
+ * of all reads, so a cluster that slows down as a whole does not get a burst of extra reads on top.
+ */
+class HedgingPolicy
+{
+    private static final long BUDGET_WINDOW = TimeUnit.SECONDS.toMillis( 10 );
+    private static final int BUDGET_BUCKETS = 10;
+    private static final long LATENCY_WINDOW = TimeUnit.MINUTES.toMillis( 1 );
+    private static final int MIN_RESPONSES = 20;
+
+    private final double percentile;
+    private final double budget;
+    private final SlidingWindowCounter reads =
+            new SlidingWindowCounter( BUDGET_WINDOW, TimeUnit.MILLISECONDS, BUDGET_BUCKETS );
+    private final SlidingWindowCounter hedges =
+            new SlidingWindowCounter( BUDGET_WINDOW, TimeUnit.MILLISECONDS, BUDGET_BUCKETS );
+    private final ConcurrentMap<BoltServerAddress,Latencies> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * @param percentile the percentile of the response times of a server to wait for before hedging a read
+     * @param budget the largest share of the reads to hedge
+     */
+    HedgingPolicy( double percentile, double budget )
+    {
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * Called when a read is about to be sent to the given server.
+     *
+     * @return the time in nanoseconds to wait for the server to respond before hedging the read, or {@code 0} to
+     * not hedge it
+     */
+    long delay( BoltServerAddress address, long now )
+    {
+        reads.increment( now );
+        Latencies latencies = this.latencies.get( address );
+        return latencies == null ? 0 : latencies.percentile( percentile, now );
+    }
+
+    void responded( BoltServerAddress address, long nanos, long now )
+    {
+        Latencies latencies = this.latencies.get( address );
+        if ( latencies == null )
+        {
+            Latencies existing = this.latencies.putIfAbsent( address, latencies = new Latencies( now ) );
+            if ( existing != null )
+            {
+                latencies = existing;
+            }
+        }
+        latencies.record( nanos, now );
+    }
+
+    /**
+     * @return {@code true} if the budget allows another read to be hedged, which then counts against the budget
+     */
+    boolean tryHedge( long now )
+    {
+        // not atomic, concurrent reads may go over the budget by as many reads as there are threads
+        if ( hedges.sum( now ) + 1 > budget * reads.sum( now ) )
+        {
+            return false;
+        }
+        hedges.increment( now );
+        return true;
+    }
+
+    /**
+     * Stop keeping track of a server that is no longer part of the cluster.
+     */
+    void remove( BoltServerAddress address )
+    {
+        latencies.remove( address );
+    }
+
+    /**
+     * Response times of a server, in a histogram that is replaced every window. The last full window is used once
+     * it has enough responses, so percentiles follow changes in the server within two windows.
+     */
+    private static class Latencies
+    {
+        private volatile InternalHistogram current = new InternalHistogram();
+        private volatile InternalHistogram previous = new InternalHistogram();
+        private volatile long rotateAt;
+
+        Latencies( long now )
+        {
+            this.rotateAt = now + LATENCY_WINDOW;
+        }
+
+        void record( long nanos, long now )
+        {
+            rotate( now );
+            current.record( nanos );
+        }
+
+        long percentile( double percentile, long now )
+        {
+            rotate( now );
+            InternalHistogram histogram = previous;
+            if ( histogram.count() < MIN_RESPONSES )
+            {
+                histogram = current;
+            }
+            return histogram.count() < MIN_RESPONSES ? 0 : histogram.percentile( percentile );
+        }
+
+        private void rotate( long now )
+        {
+            if ( now < rotateAt )
+            {
+                return;
+            }
+            synchronized ( this )
+            {
+                if ( now >= rotateAt )
+                {
+                    // responses from before the last window are too old to go by
+                    previous = now < rotateAt + LATENCY_WINDOW ? current : new InternalHistogram();
+                    current = new InternalHistogram();
+                    rotateAt = now + LATENCY_WINDOW;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+
+/**
+ * Uses the server with the fewest connections in use, so that a server that is slow to respond, and therefore
+ * holds on to its connections for longer, gets fewer new sessions.
+ * <p>
+ * Servers are compared starting from the next one in round robin order, so that ties, such as when the driver is
+ * idle, are broken differently each time rather than always in favour of the same server.
+ */
+class LeastConnectedLoadBalancingStrategy implements LoadBalancingStrategy
+{
+    private final ConnectionPool connections;
+
+    LeastConnectedLoadBalancingStrategy( ConnectionPool connections )
+    {
+        this.connections = connections;
+    }
+
+    @Override
+    public BoltServerAddress select( BoltServerAddress[] addresses, RoundRobinArrayIndex index )
+    {
+        int size = addresses.length;
+        if ( size == 0 )
+        {
+            return null;
+        }
+        int start = index.next( size );
+        BoltServerAddress leastConnected = null;
+        int leastInUse = Integer.MAX_VALUE;
+        for ( int i = 0; i < size; i++ )
+        {
+            BoltServerAddress address = addresses[(start + i) % size];
+            int inUse = connections.activeConnections( address );
+            if ( inUse < leastInUse )
+            {
+                leastConnected = address;
+                leastInUse = inUse;
+            }
+        }
+        return leastConnected;
+    }
+}
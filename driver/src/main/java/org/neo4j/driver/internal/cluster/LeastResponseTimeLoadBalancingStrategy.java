@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+
+/**
+ * Picks two servers at random and uses the one expected to respond sooner. The expected time is the moving average
+ * of the time the server recently took to respond, multiplied by the number of connections to it in use plus one,
+ * so that a server gets fewer sessions both when it is slow and when it is busy.
+ * <p>
+ * Choosing between two random servers, rather than always using the best of all servers, keeps sessions from
+ * piling onto a single server between the time its response times are recorded. Servers that have not responded
+ * yet are expected to respond immediately, so that they are tried soon.
+ */
+class LeastResponseTimeLoadBalancingStrategy implements LoadBalancingStrategy
+{
+    private final ConnectionPool connections;
+
+    LeastResponseTimeLoadBalancingStrategy( ConnectionPool connections )
+    {
+        this.connections = connections;
+    }
+
+    @Override
+    public BoltServerAddress select( BoltServerAddress[] addresses, RoundRobinArrayIndex index )
+    {
+        int size = addresses.length;
+        if ( size == 0 )
+        {
+            return null;
+        }
+        if ( size == 1 )
+        {
+            return addresses[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt( size );
+        int second = random.nextInt( size - 1 );
+        if ( second >= first )
+        {
+            second++;
+        }
+        BoltServerAddress a = addresses[first];
+        BoltServerAddress b = addresses[second];
+        return cost( b ) < cost( a ) ? b : a;
+    }
+
+    private double cost( BoltServerAddress address )
+    {
+        return connections.responseTime( address ) * (connections.activeConnections( address ) + 1);
+    }
+}
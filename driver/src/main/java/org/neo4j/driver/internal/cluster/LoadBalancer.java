@@ -18,21 +18,55 @@
  */
 package org.neo4j.driver.internal.cluster;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.neo4j.driver.internal.ReadHedger;
 import org.neo4j.driver.internal.RoutingErrorHandler;
 import org.neo4j.driver.internal.net.BoltServerAddress;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.ConnectionPool;
 import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.AccessMode;
+import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
 
 import static java.util.Arrays.asList;
 
-public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
+/**
+ * Chooses servers for sessions from a routing table, which it keeps up to date by asking the routing servers.
+ * <p>
+ * The routing table is refreshed in the background once most of its time to live has passed, or when it lacks
+ * servers for some role. Sessions keep being served from the current table while that happens, even if it has
+ * expired meanwhile. Only a session that needs a server for a role that has none left waits for a new table.
+ * <p>
+ * The routing table is an immutable {@link RoutingTable} that is replaced as a whole, so choosing a server takes
+ * no locks: it reads the current table and indexes into the servers for the role. Forgetting a server swaps in a
+ * new table with compare-and-set, refreshing swaps it in while holding the lock that serializes refreshes.
+ */
+public final class LoadBalancer implements RoutingErrorHandler, ReadHedger, AutoCloseable
 {
-    private static final int MIN_ROUTERS = 1;
+    /** Fraction of the time to live of a routing table after which it is refreshed. */
+    private static final double REFRESH_AFTER = 0.8;
     private static final String NO_ROUTERS_AVAILABLE = "Could not perform discovery. No routing servers available.";
     // dependencies
     private final RoutingSettings settings;
@@ -40,9 +74,22 @@ public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
     private final Logger log;
     private final ConnectionPool connections;
     private final ClusterComposition.Provider provider;
+    private final LoadBalancingStrategy loadBalancingStrategy;
+    private final Executor refresher;
+    private final Executor prober;
+    private final ExecutorService discoverer;
+    private final RoutingTableCache cache;
+    private final ServerRecovery recovery;
+    private final OutlierDetector outliers;
+    private final LocalityFilter locality;
+    private final HedgingPolicy hedging;
     // state
-    private long expirationTimeout;
-    private final RoundRobinAddressSet readers, writers, routers;
+    private volatile boolean closed;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicReference<RoutingTable> routingTable;
+    private final RoundRobinArrayIndex readers = new RoundRobinArrayIndex();
+    private final RoundRobinArrayIndex writers = new RoundRobinArrayIndex();
+    private final RoundRobinArrayIndex routers = new RoundRobinArrayIndex();
 
     public LoadBalancer(
             RoutingSettings settings,
@@ -51,7 +98,8 @@ public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
             ConnectionPool connections,
             BoltServerAddress... routingAddresses ) throws ServiceUnavailableException
     {
-        this( settings, clock, log, connections, new ClusterComposition.Provider.Default( clock ), routingAddresses );
+        this( settings, clock, log, connections, new ClusterComposition.Provider.Default( clock ), refresher(),
+                prober(), routingAddresses );
     }
 
     LoadBalancer(
@@ -60,61 +108,175 @@ public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
             Logger log,
             ConnectionPool connections,
             ClusterComposition.Provider provider,
+            Executor refresher,
+            Executor prober,
             BoltServerAddress... routingAddresses ) throws ServiceUnavailableException
     {
         this.clock = clock;
         this.log = log;
         this.connections = connections;
-        this.expirationTimeout = clock.millis() - 1;
         this.provider = provider;
+        this.refresher = refresher;
+        this.prober = prober;
+        this.discoverer = discoverer( settings.discoveryParallelism );
         this.settings = settings;
-        this.readers = new RoundRobinAddressSet();
-        this.writers = new RoundRobinAddressSet();
-        this.routers = new RoundRobinAddressSet();
-        routers.update( new HashSet<>( asList( routingAddresses ) ), new HashSet<BoltServerAddress>() );
-        // initialize the routing table
-        ensureRouting();
+        this.loadBalancingStrategy = loadBalancingStrategy( settings.loadBalancingStrategy, connections );
+        this.routingTable = new AtomicReference<>(
+                RoutingTable.seed( new HashSet<>( asList( routingAddresses ) ), clock.millis() - 1 ) );
+        this.recovery = new ServerRecovery( settings.initialProbeDelay, settings.maxProbeDelay, settings.slowStart );
+        this.outliers = new OutlierDetector( settings.maxEjectedShare, settings.ejectionTime, log );
+        this.locality = new LocalityFilter( settings.localZone, settings.zoneResolver, connections );
+        this.hedging = settings.hedgePercentile <= 0 ? null :
+                new HedgingPolicy( settings.hedgePercentile, settings.hedgeBudget );
+        this.cache = settings.routingTableCache == null ? null :
+                new RoutingTableCache( settings.routingTableCache, routingAddresses, clock, log );
+        ClusterComposition cached = cache == null ? null : cache.load();
+        if ( cached == null )
+        {
+            // initialize the routing table
+            refresh();
+        }
+        else
+        {
+            // serve sessions from the cached routing table right away, and have the routing servers confirm it
+            RoutingTable seed = routingTable.get();
+            routingTable.set( seed.update( cached, clock.millis() - 1, new HashSet<BoltServerAddress>() ) );
+            refreshInBackground();
+        }
     }
 
     public Connection acquireReadConnection() throws ServiceUnavailableException
     {
-        return acquireConnection( readers );
+        return acquireConnection( AccessMode.READ );
     }
 
     public Connection acquireWriteConnection() throws ServiceUnavailableException
     {
-        return acquireConnection( writers );
+        return acquireConnection( AccessMode.WRITE );
     }
 
     @Override
     public void onConnectionFailure( BoltServerAddress address )
     {
+        failed( address );
         forget( address );
     }
 
     @Override
     public void onWriteFailure( BoltServerAddress address )
     {
-        writers.remove( address );
+        failed( address );
+        for ( RoutingTable table; ; )
+        {
+            table = routingTable.get();
+            if ( routingTable.compareAndSet( table, table.forgetWriter( address ) ) )
+            {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onServerFailure( BoltServerAddress address )
+    {
+        failed( address );
+    }
+
+    /**
+     * @return {@code true} if reads to slow servers should be sent to a second server as well
+     */
+    public boolean hedgesReads()
+    {
+        return hedging != null;
+    }
+
+    @Override
+    public long hedgeDelay( BoltServerAddress address )
+    {
+        return hedging == null ? 0 : hedging.delay( address, clock.millis() );
+    }
+
+    @Override
+    public void responded( BoltServerAddress address, long nanos )
+    {
+        if ( hedging != null )
+        {
+            hedging.responded( address, nanos, clock.millis() );
+        }
+    }
+
+    @Override
+    public Connection acquireHedgeConnection( BoltServerAddress address )
+    {
+        if ( hedging == null )
+        {
+            return null;
+        }
+        for ( int attempts = routingTable.get().readers().length; attempts > 0; attempts-- )
+        {
+            BoltServerAddress other = select( AccessMode.READ, readers );
+            if ( other == null )
+            {
+                return null;
+            }
+            // a hedge should not have to wait for a connection
+            if ( !other.equals( address ) && connections.hasCapacity( other ) )
+            {
+                if ( !hedging.tryHedge( clock.millis() ) )
+                {
+                    return null;
+                }
+                try
+                {
+                    Connection connection = connections.acquire( other );
+                    outliers.sessionStarted( other, clock.millis() );
+                    return connection;
+                }
+                catch ( ServiceUnavailableException e )
+                {
+                    forget( other );
+                    return null;
+                }
+            }
+        }
+        return null;
     }
 
     @Override
     public void close() throws Exception
     {
+        closed = true;
+        shutdown( refresher );
+        shutdown( prober );
+        shutdown( discoverer );
         connections.close();
     }
 
-    private Connection acquireConnection( RoundRobinAddressSet servers ) throws ServiceUnavailableException
+    private static void shutdown( Executor executor )
+    {
+        // executors that cannot be shut down are run by the caller, there are no threads to stop
+        if ( executor instanceof ExecutorService )
+        {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    private Connection acquireConnection( AccessMode mode ) throws ServiceUnavailableException
     {
+        RoundRobinArrayIndex index = mode == AccessMode.READ ? readers : writers;
         for ( ; ; )
         {
             // refresh the routing table if needed
-            ensureRouting();
-            for ( BoltServerAddress address; (address = servers.next()) != null; )
+            ensureRouting( mode );
+            probeForgottenServers();
+            BoltServerAddress address;
+            while ( (address = select( mode, index )) != null )
             {
                 try
                 {
-                    return connections.acquire( address );
+                    Connection connection = connections.acquire( address );
+                    outliers.sessionStarted( address, clock.millis() );
+                    return connection;
                 }
                 catch ( ServiceUnavailableException e )
                 {
@@ -125,35 +287,163 @@ public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
         }
     }
 
-    private synchronized void ensureRouting() throws ServiceUnavailableException
+    private BoltServerAddress select( AccessMode mode, RoundRobinArrayIndex index )
     {
-        if ( stale() )
+        // forgetting a server replaces the routing table, so read the current one on every attempt
+        BoltServerAddress[] servers = servers( routingTable.get(), mode );
+        if ( mode == AccessMode.READ )
         {
-            try
+            // split by zone the table's own readers, which stay the same until the table changes
+            servers = locality.filter( servers, outliers.filter( servers, clock.millis() ) );
+        }
+        BoltServerAddress address = loadBalancingStrategy.select( servers, index );
+        if ( address != null && !recovery.admit( address, clock.millis() ) )
+        {
+            // the server is warming up after being re-admitted, so prefer another one this time; it has to be left
+            // out, since strategies that prefer idle servers would pick it again
+            BoltServerAddress other = loadBalancingStrategy.select( without( servers, address ), index );
+            if ( other != null )
+            {
+                address = other;
+            }
+        }
+        return address;
+    }
+
+    private static BoltServerAddress[] without( BoltServerAddress[] servers, BoltServerAddress address )
+    {
+        List<BoltServerAddress> others = new ArrayList<>( servers.length );
+        for ( BoltServerAddress server : servers )
+        {
+            if ( !server.equals( address ) )
+            {
+                others.add( server );
+            }
+        }
+        return others.toArray( new BoltServerAddress[others.size()] );
+    }
+
+    private static BoltServerAddress[] servers( RoutingTable table, AccessMode mode )
+    {
+        return mode == AccessMode.READ ? table.readers() : table.writers();
+    }
+
+    private static LoadBalancingStrategy loadBalancingStrategy( Config.LoadBalancingStrategy strategy,
+            ConnectionPool connections )
+    {
+        switch ( strategy )
+        {
+        case LEAST_CONNECTED:
+            return new LeastConnectedLoadBalancingStrategy( connections );
+        case LEAST_RESPONSE_TIME:
+            return new LeastResponseTimeLoadBalancingStrategy( connections );
+        case ROUND_ROBIN:
+            return new RoundRobinLoadBalancingStrategy();
+        default:
+            throw new IllegalArgumentException( "Unknown load balancing strategy: " + strategy );
+        }
+    }
+
+    private void ensureRouting( AccessMode mode ) throws ServiceUnavailableException
+    {
+        if ( servers( routingTable.get(), mode ).length == 0 )
+        {
+            // nothing to serve this session from, wait for a new routing table
+            synchronized ( this )
             {
-                // get a new routing table
-                ClusterComposition cluster = lookupRoutingTable();
-                expirationTimeout = cluster.expirationTimestamp;
-                HashSet<BoltServerAddress> removed = new HashSet<>();
-                readers.update( cluster.readers(), removed );
-                writers.update( cluster.writers(), removed );
-                routers.update( cluster.routers(), removed );
-                // purge connections to removed addresses
-                for ( BoltServerAddress address : removed )
+                if ( servers( routingTable.get(), mode ).length == 0 )
                 {
-                    connections.purge( address );
+                    refresh();
                 }
             }
-            catch ( InterruptedException e )
+        }
+        else if ( stale() )
+        {
+            refreshInBackground();
+        }
+    }
+
+    private void refreshInBackground()
+    {
+        if ( refreshing.compareAndSet( false, true ) )
+        {
+            refresher.execute( new Runnable()
             {
-                throw new ServiceUnavailableException( "Thread was interrupted while establishing connection.", e );
+                @Override
+                public void run()
+                {
+                    backgroundRefresh();
+                }
+            } );
+        }
+    }
+
+    private void backgroundRefresh()
+    {
+        try
+        {
+            synchronized ( this )
+            {
+                if ( !closed && stale() )
+                {
+                    refresh();
+                }
             }
         }
+        catch ( Exception e )
+        {
+            log.warn( "Failed to refresh the routing table, continuing to use the current one: %s",
+                    e.getMessage() );
+        }
+        finally
+        {
+            refreshing.set( false );
+        }
+    }
+
+    private synchronized void refresh() throws ServiceUnavailableException
+    {
+        try
+        {
+            // get a new routing table
+            ClusterComposition cluster = lookupRoutingTable();
+            long now = clock.millis();
+            long refreshTimeout = now + (long) ((cluster.expirationTimestamp - now) * REFRESH_AFTER);
+            HashSet<BoltServerAddress> removed = new HashSet<>();
+            for ( RoutingTable table, updated; ; removed.clear() )
+            {
+                table = routingTable.get();
+                updated = table.update( cluster, refreshTimeout, removed );
+                if ( routingTable.compareAndSet( table, updated ) )
+                {
+                    recovery.refreshed( updated, now );
+                    break;
+                }
+            }
+            // purge connections to removed addresses
+            for ( BoltServerAddress address : removed )
+            {
+                outliers.remove( address );
+                if ( hedging != null )
+                {
+                    hedging.remove( address );
+                }
+                connections.purge( address );
+            }
+            if ( cache != null )
+            {
+                cache.save( cluster );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            throw new ServiceUnavailableException( "Thread was interrupted while establishing connection.", e );
+        }
     }
 
     private ClusterComposition lookupRoutingTable() throws InterruptedException, ServiceUnavailableException
     {
-        int size = routers.size(), failures = 0;
+        int size = routingTable.get().routers().length, failures = 0;
         if ( size == 0 )
         {
             throw new ServiceUnavailableException( NO_ROUTERS_AVAILABLE );
@@ -166,63 +456,298 @@ public final class LoadBalancer implements RoutingErrorHandler, AutoCloseable
                 clock.sleep( waitTime );
             }
             start = clock.millis();
-            for ( int i = 0; i < size; i++ )
+            ClusterComposition cluster = discoverer == null ? lookupInTurn( size ) : lookupConcurrently( size );
+            if ( cluster != null )
+            {
+                return cluster;
+            }
+            // routers that could not perform routing have been dropped
+            size = routingTable.get().routers().length;
+            if ( size == 0 || ++failures > settings.maxRoutingFailures )
+            {
+                throw new ServiceUnavailableException( NO_ROUTERS_AVAILABLE );
+            }
+        }
+    }
+
+    private ClusterComposition lookupInTurn( int size )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            BoltServerAddress address = nextRouter();
+            if ( address == null )
+            {
+                return null;
+            }
+            ClusterComposition cluster;
+            try
+            {
+                cluster = lookup( address ).call();
+            }
+            catch ( Exception e )
+            {
+                log.error( String.format( "Failed to connect to routing server '%s'.", address ), e );
+                continue;
+            }
+            if ( isValid( address, cluster ) )
+            {
+                return cluster;
+            }
+            size--;
+        }
+        return null;
+    }
+
+    /**
+     * Ask up to {@link RoutingSettings#discoveryParallelism} routers at a time, moving on to the next router
+     * whenever one fails, and abandon the outstanding requests once some router provides a valid routing table.
+     */
+    private ClusterComposition lookupConcurrently( int size ) throws InterruptedException
+    {
+        CompletionService<ClusterComposition> lookups = new ExecutorCompletionService<>( discoverer );
+        Map<Future<ClusterComposition>,BoltServerAddress> pending = new HashMap<>();
+        try
+        {
+            int asked = 0;
+            for ( ; asked < size && pending.size() < settings.discoveryParallelism; asked++ )
             {
-                BoltServerAddress address = routers.next();
-                if ( address == null )
+                if ( !ask( lookups, pending ) )
                 {
-                    throw new ServiceUnavailableException( NO_ROUTERS_AVAILABLE );
+                    break;
                 }
-                ClusterComposition cluster;
-                try ( Connection connection = connections.acquire( address ) )
+            }
+            while ( !pending.isEmpty() )
+            {
+                Future<ClusterComposition> done = lookups.take();
+                BoltServerAddress address = pending.remove( done );
+                try
                 {
-                    cluster = provider.getClusterComposition( connection );
+                    ClusterComposition cluster = done.get();
+                    if ( isValid( address, cluster ) )
+                    {
+                        return cluster;
+                    }
                 }
-                catch ( Exception e )
+                catch ( ExecutionException e )
                 {
-                    log.error( String.format( "Failed to connect to routing server '%s'.", address ), e );
-                    continue;
+                    log.error( String.format( "Failed to connect to routing server '%s'.", address ), e.getCause() );
                 }
-                if ( cluster == null || !cluster.isValid() )
+                if ( asked < size && ask( lookups, pending ) )
                 {
-                    log.info(
-                            "Server <%s> unable to perform routing capability, dropping from list of routers.",
-                            address );
-                    routers.remove( address );
-                    if ( --size == 0 )
-                    {
-                        throw new ServiceUnavailableException( NO_ROUTERS_AVAILABLE );
-                    }
+                    asked++;
                 }
-                else
+            }
+            return null;
+        }
+        finally
+        {
+            // the abandoned requests close their connections when they complete
+            for ( Future<ClusterComposition> lookup : pending.keySet() )
+            {
+                lookup.cancel( true );
+            }
+        }
+    }
+
+    private boolean ask( CompletionService<ClusterComposition> lookups,
+            Map<Future<ClusterComposition>,BoltServerAddress> pending )
+    {
+        BoltServerAddress address = nextRouter();
+        if ( address == null )
+        {
+            return false;
+        }
+        pending.put( lookups.submit( lookup( address ) ), address );
+        return true;
+    }
+
+    private Callable<ClusterComposition> lookup( final BoltServerAddress address )
+    {
+        return new Callable<ClusterComposition>()
+        {
+            @Override
+            public ClusterComposition call() throws Exception
+            {
+                try ( Connection connection = connections.acquire( address ) )
                 {
-                    return cluster;
+                    return provider.getClusterComposition( connection );
                 }
             }
-            if ( ++failures > settings.maxRoutingFailures )
+        };
+    }
+
+    private boolean isValid( BoltServerAddress address, ClusterComposition cluster )
+    {
+        if ( cluster == null || !cluster.isValid() )
+        {
+            log.info( "Server <%s> unable to perform routing capability, dropping from list of routers.", address );
+            forgetRouter( address );
+            return false;
+        }
+        return true;
+    }
+
+    private void failed( BoltServerAddress address )
+    {
+        outliers.failed( address, routingTable.get().readers(), clock.millis() );
+    }
+
+    private void probeForgottenServers()
+    {
+        for ( final BoltServerAddress address : recovery.dueProbes( clock.millis() ) )
+        {
+            try
+            {
+                prober.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        probe( address );
+                    }
+                } );
+            }
+            catch ( RejectedExecutionException e )
             {
-                throw new ServiceUnavailableException( NO_ROUTERS_AVAILABLE );
+                // the probe is marked as in progress, so it has to be failed to be tried again later
+                recovery.probeFailed( address, clock.millis() );
+            }
+        }
+    }
+
+    private void probe( BoltServerAddress address )
+    {
+        if ( closed )
+        {
+            return;
+        }
+        try
+        {
+            connections.acquire( address ).close();
+            log.debug( "Server <%s> can be connected to again.", address );
+        }
+        catch ( Exception e )
+        {
+            recovery.probeFailed( address, clock.millis() );
+            return;
+        }
+        ServerRecovery.Probe probe = recovery.probeSucceeded( address, clock.millis() );
+        if ( probe == null )
+        {
+            // the routing table has been refreshed meanwhile
+            return;
+        }
+        for ( RoutingTable table; ; )
+        {
+            table = routingTable.get();
+            if ( table.generation() != probe.generation )
+            {
+                // the routing servers have been asked since the server was forgotten, their answer stands
+                return;
+            }
+            if ( routingTable.compareAndSet( table, table.readmit( address ) ) )
+            {
+                log.info( "Server <%s> is available again, re-admitting it for reading.", address );
+                return;
             }
         }
     }
 
-    private synchronized void forget( BoltServerAddress address )
+    private BoltServerAddress nextRouter()
+    {
+        BoltServerAddress[] addresses = routingTable.get().routers();
+        return addresses.length == 0 ? null : addresses[routers.next( addresses.length )];
+    }
+
+    private void forgetRouter( BoltServerAddress address )
+    {
+        for ( RoutingTable table; ; )
+        {
+            table = routingTable.get();
+            if ( routingTable.compareAndSet( table, table.forgetRouter( address ) ) )
+            {
+                return;
+            }
+        }
+    }
+
+    private void forget( BoltServerAddress address )
     {
         // First remove from the load balancer, to prevent concurrent threads from making connections to them.
-        // Don't remove it from the set of routers, since that might mean we lose our ability to re-discover,
-        // just remove it from the set of readers and writers, so that we don't use it for actual work without
-        // performing discovery first.
-        readers.remove( address );
-        writers.remove( address );
+        for ( RoutingTable table, forgotten; ; )
+        {
+            table = routingTable.get();
+            forgotten = table.forget( address );
+            if ( routingTable.compareAndSet( table, forgotten ) )
+            {
+                if ( forgotten.readers().length < table.readers().length )
+                {
+                    // only readers are probed, a writer that is back has usually lost its leadership meanwhile
+                    recovery.forgotten( address, forgotten.generation(), clock.millis() );
+                }
+                break;
+            }
+        }
         // drop all current connections to the address
         connections.purge( address );
     }
 
+    private static ExecutorService discoverer( int parallelism )
+    {
+        if ( parallelism <= 1 )
+        {
+            return null;
+        }
+        // not bounded by the parallelism, since abandoned requests may still be waiting for a connection
+        return new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new SynchronousQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread( Runnable runnable )
+                    {
+                        Thread thread = new Thread( runnable, "neo4j-routing-discovery" );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+    }
+
+    private static Executor prober()
+    {
+        // separate from the refresher, so that probing unreachable servers does not hold up refreshing the routing
+        // table; there is at most one probe per forgotten server at a time
+        return new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new SynchronousQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread( Runnable runnable )
+                    {
+                        Thread thread = new Thread( runnable, "neo4j-routing-probe" );
+                        thread.setDaemon( true );
+                        return thread;
+                    }
+                } );
+    }
+
+    private static Executor refresher()
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( 1, 1, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "neo4j-routing-refresh" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
     private boolean stale()
     {
-        return expirationTimeout < clock.millis() || // the expiration timeout has been reached
-                routers.size() <= MIN_ROUTERS || // we need to discover more routing servers
-                readers.size() == 0 || // we need to discover more read servers
-                writers.size() == 0; // we need to discover more write servers
+        return routingTable.get().isStale( clock.millis() );
     }
 }
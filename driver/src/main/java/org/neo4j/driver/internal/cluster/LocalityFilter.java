@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.v1.ZoneResolver;
+
+/**
+ * Narrows the read servers down to those in the local zone, as long as one of them has connections to spare.
+ * <p>
+ * Servers that cannot be connected to have already been left out of the routing table, and the ones that fail far
+ * more often than the others are left out of the available servers. So when no local server is available, or every
+ * local server has all the connections it may have in use, the servers in other zones are used instead.
+ */
+class LocalityFilter
+{
+    private final String localZone;
+    private final ZoneResolver resolver;
+    private final ConnectionPool connections;
+    private final ConcurrentMap<BoltServerAddress,Boolean> local = new ConcurrentHashMap<>();
+    /**
+     * The last read servers of the routing table split by zone, routing tables are immutable so the split can be
+     * reused while they last.
+     */
+    private volatile Split split = new Split( new BoltServerAddress[0], new BoltServerAddress[0],
+            new BoltServerAddress[0] );
+
+    /**
+     * @param localZone the zone of this driver, or {@code null} to not prefer any servers
+     */
+    LocalityFilter( String localZone, ZoneResolver resolver, ConnectionPool connections )
+    {
+        this.localZone = localZone;
+        this.resolver = resolver;
+        this.connections = connections;
+    }
+
+    /**
+     * @param readers the read servers of the routing table
+     * @param available the read servers that are not ejected, the read servers themselves if none are
+     * @return the available local servers if one has connections to spare, otherwise the available remote servers,
+     * otherwise all available servers
+     */
+    BoltServerAddress[] filter( BoltServerAddress[] readers, BoltServerAddress[] available )
+    {
+        if ( localZone == null || available.length == 0 )
+        {
+            return available;
+        }
+        Split split = this.split;
+        if ( split.readers != readers )
+        {
+            this.split = split = split( readers );
+        }
+        BoltServerAddress[] local = split.local;
+        BoltServerAddress[] remote = split.remote;
+        if ( available != readers )
+        {
+            local = retain( local, available );
+            remote = retain( remote, available );
+        }
+        if ( local.length == 0 || remote.length == 0 )
+        {
+            return available;
+        }
+        for ( BoltServerAddress address : local )
+        {
+            if ( connections.hasCapacity( address ) )
+            {
+                return local;
+            }
+        }
+        // every local server is busy
+        return remote;
+    }
+
+    private static BoltServerAddress[] retain( BoltServerAddress[] servers, BoltServerAddress[] available )
+    {
+        List<BoltServerAddress> retained = new ArrayList<>( servers.length );
+        for ( BoltServerAddress server : servers )
+        {
+            for ( BoltServerAddress address : available )
+            {
+                if ( server.equals( address ) )
+                {
+                    retained.add( server );
+                    break;
+                }
+            }
+        }
+        return retained.size() == servers.length ? servers : retained.toArray( new BoltServerAddress[retained.size()] );
+    }
+
+    private Split split( BoltServerAddress[] readers )
+    {
+        List<BoltServerAddress> local = new ArrayList<>();
+        List<BoltServerAddress> remote = new ArrayList<>();
+        for ( BoltServerAddress address : readers )
+        {
+            (isLocal( address ) ? local : remote).add( address );
+        }
+        return new Split( readers,
+                local.toArray( new BoltServerAddress[local.size()] ),
+                remote.toArray( new BoltServerAddress[remote.size()] ) );
+    }
+
+    private boolean isLocal( BoltServerAddress address )
+    {
+        Boolean isLocal = local.get( address );
+        if ( isLocal == null )
+        {
+            isLocal = localZone.equals( resolver.zoneOf( address.host(), address.port() ) );
+            local.put( address, isLocal );
+        }
+        return isLocal;
+    }
+
+    private static class Split
+    {
+        final BoltServerAddress[] readers;
+        final BoltServerAddress[] local;
+        final BoltServerAddress[] remote;
+
+        Split( BoltServerAddress[] readers, BoltServerAddress[] local, BoltServerAddress[] remote )
+        {
+            this.readers = readers;
+            this.local = local;
+            this.remote = remote;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.metrics.SlidingWindowCounter;
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.v1.Logger;
+
+/**
+ * Stops using a read server for a while when its error rate is well above that of the other read servers.
+ * <p>
+ * Sessions and errors are counted per server over a sliding window of a minute, and the error rate is the number of
+ * errors per session. When an error is reported for a server that has served enough sessions in the window, its
+ * error rate is compared to the median of the read servers. If it is both at least twice the median and at least
+ * ten percentage points above it, the server is ejected from the read servers for the ejection time, unless that
+ * would eject more than the maximum share of the read servers at once. At least one server may always be ejected,
+ * but never the last one.
+ */
+class OutlierDetector
+{
+    private static final long WINDOW = TimeUnit.MINUTES.toMillis( 1 );
+    private static final int BUCKETS = 6;
+    private static final int MIN_SESSIONS = 10;
+    private static final double MIN_RATIO_TO_MEDIAN = 2.0;
+    private static final double MIN_EXCESS_OVER_MEDIAN = 0.1;
+
+    private final double maxEjectedShare;
+    private final long ejectionTime;
+    private final Logger log;
+    private final ConcurrentMap<BoltServerAddress,Counts> counts = new ConcurrentHashMap<>();
+    /** Copied on write, maps the ejected servers to the time their ejection ends. */
+    private volatile Map<BoltServerAddress,Long> ejected = Collections.emptyMap();
+
+    /**
+     * @param maxEjectedShare the largest share of the read servers to eject at once, or {@code 0} to never eject
+     * @param ejectionTime the time in milliseconds an ejected server is not used for reading
+     */
+    OutlierDetector( double maxEjectedShare, long ejectionTime, Logger log )
+    {
+        this.maxEjectedShare = maxEjectedShare;
+        this.ejectionTime = ejectionTime;
+        this.log = log;
+    }
+
+    void sessionStarted( BoltServerAddress address, long now )
+    {
+        if ( maxEjectedShare > 0 )
+        {
+            counts( address ).sessions.increment( now );
+        }
+    }
+
+    /**
+     * Count an error for the server, and eject it if its error rate makes it an outlier among the read servers.
+     */
+    void failed( BoltServerAddress address, BoltServerAddress[] readers, long now )
+    {
+        if ( maxEjectedShare <= 0 )
+        {
+            return;
+        }
+        counts( address ).errors.increment( now );
+        synchronized ( this )
+        {
+            if ( isOutlier( address, readers, now ) && mayEject( readers, now ) )
+            {
+                Map<BoltServerAddress,Long> ejected = new HashMap<>( this.ejected );
+                ejected.put( address, now + ejectionTime );
+                this.ejected = ejected;
+                log.warn( "Server <%s> fails far more often than the other read servers, " +
+                          "not reading from it for %dms.", address, ejectionTime );
+            }
+        }
+    }
+
+    /**
+     * Ejections only ever leave one read server, but that one may be forgotten afterwards. Rather than leave no server
+     * to read from until the ejections end, the ejected servers are used again then.
+     *
+     * @return the read servers that are not ejected, the given array itself if none or all of them are
+     */
+    BoltServerAddress[] filter( BoltServerAddress[] readers, long now )
+    {
+        Map<BoltServerAddress,Long> ejected = this.ejected;
+        if ( ejected.isEmpty() )
+        {
+            return readers;
+        }
+        List<BoltServerAddress> result = new ArrayList<>( readers.length );
+        boolean expired = false;
+        for ( BoltServerAddress address : readers )
+        {
+            Long until = ejected.get( address );
+            if ( until == null || until <= now )
+            {
+                result.add( address );
+                expired |= until != null;
+            }
+        }
+        if ( expired )
+        {
+            expire( now );
+        }
+        if ( result.isEmpty() || result.size() == readers.length )
+        {
+            return readers;
+        }
+        return result.toArray( new BoltServerAddress[result.size()] );
+    }
+
+    /**
+     * Stop keeping track of a server that is no longer part of the cluster.
+     */
+    synchronized void remove( BoltServerAddress address )
+    {
+        counts.remove( address );
+        if ( ejected.containsKey( address ) )
+        {
+            Map<BoltServerAddress,Long> ejected = new HashMap<>( this.ejected );
+            ejected.remove( address );
+            this.ejected = ejected;
+        }
+    }
+
+    private synchronized void expire( long now )
+    {
+        Map<BoltServerAddress,Long> ejected = new HashMap<>( this.ejected );
+        for ( Map.Entry<BoltServerAddress,Long> entry : this.ejected.entrySet() )
+        {
+            if ( entry.getValue() <= now )
+            {
+                ejected.remove( entry.getKey() );
+                log.info( "Reading from server <%s> again.", entry.getKey() );
+            }
+        }
+        this.ejected = ejected;
+    }
+
+    private boolean isOutlier( BoltServerAddress address, BoltServerAddress[] readers, long now )
+    {
+        double rate = errorRate( address, now );
+        if ( Double.isNaN( rate ) || ejected.containsKey( address ) )
+        {
+            return false;
+        }
+        List<Double> rates = new ArrayList<>( readers.length );
+        for ( BoltServerAddress reader : readers )
+        {
+            double readerRate = errorRate( reader, now );
+            if ( !Double.isNaN( readerRate ) )
+            {
+                rates.add( readerRate );
+            }
+        }
+        if ( rates.size() < 2 )
+        {
+            // nothing to compare with
+            return false;
+        }
+        Collections.sort( rates );
+        int middle = rates.size() / 2;
+        double median = rates.size() % 2 == 1 ? rates.get( middle )
+                                              : (rates.get( middle - 1 ) + rates.get( middle )) / 2;
+        return rate >= median * MIN_RATIO_TO_MEDIAN && rate - median >= MIN_EXCESS_OVER_MEDIAN;
+    }
+
+    private boolean mayEject( BoltServerAddress[] readers, long now )
+    {
+        int ejectedReaders = 0;
+        for ( BoltServerAddress reader : readers )
+        {
+            Long until = ejected.get( reader );
+            if ( until != null && until > now )
+            {
+                ejectedReaders++;
+            }
+        }
+        int allowed = Math.min( readers.length - 1, Math.max( 1, (int) (readers.length * maxEjectedShare) ) );
+        return ejectedReaders < allowed;
+    }
+
+    /**
+     * @return the errors per session within the window, or {@code NaN} if the server served too few sessions
+     */
+    private double errorRate( BoltServerAddress address, long now )
+    {
+        Counts counts = this.counts.get( address );
+        if ( counts == null )
+        {
+            return Double.NaN;
+        }
+        long sessions = counts.sessions.sum( now );
+        if ( sessions < MIN_SESSIONS )
+        {
+            return Double.NaN;
+        }
+        return (double) counts.errors.sum( now ) / sessions;
+    }
+
+    private Counts counts( BoltServerAddress address )
+    {
+        Counts counts = this.counts.get( address );
+        if ( counts == null )
+        {
+            counts = new Counts();
+            Counts existing = this.counts.putIfAbsent( address, counts );
+            if ( existing != null )
+            {
+                counts = existing;
+            }
+        }
+        return counts;
+    }
+
+    private static class Counts
+    {
+        final SlidingWindowCounter sessions = new SlidingWindowCounter( WINDOW, TimeUnit.MILLISECONDS, BUCKETS );
+        final SlidingWindowCounter errors = new SlidingWindowCounter( WINDOW, TimeUnit.MILLISECONDS, BUCKETS );
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out indexes into an array of servers in turn. The array itself is kept elsewhere, so that it can be
+ * replaced without coordinating with the index.
+ */
+class RoundRobinArrayIndex
+{
+    private final AtomicInteger offset = new AtomicInteger();
+
+    /**
+     * @param length the length of the array to index, must be positive
+     * @return the next index into an array of the given length
+     */
+    int next( int length )
+    {
+        int index = offset.getAndIncrement();
+        for ( ; index == Integer.MAX_VALUE; index = offset.getAndIncrement() )
+        {
+            offset.compareAndSet( Integer.MIN_VALUE, index % length );
+        }
+        return index % length;
+    }
+
+    /** breaking encapsulation in order to perform white-box testing of boundary case */
+    void setOffset( int target )
+    {
+        offset.set( target );
+    }
+}
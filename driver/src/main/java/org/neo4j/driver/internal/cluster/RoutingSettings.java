@@ -18,14 +18,125 @@
  */
 package org.neo4j.driver.internal.cluster;
 
+import java.io.File;
+
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.ZoneResolver;
+
 public class RoutingSettings
 {
+    public static final int DEFAULT_DISCOVERY_PARALLELISM = 3;
+    public static final long DEFAULT_INITIAL_PROBE_DELAY = 1_000;
+    public static final long DEFAULT_MAX_PROBE_DELAY = 30_000;
+    public static final long DEFAULT_SLOW_START = 30_000;
+    public static final double DEFAULT_MAX_EJECTED_SHARE = 0.3;
+    public static final long DEFAULT_EJECTION_TIME = 30_000;
+
     final int maxRoutingFailures;
     final long retryTimeoutDelay;
+    final Config.LoadBalancingStrategy loadBalancingStrategy;
+    final int discoveryParallelism;
+    final File routingTableCache;
+    final long initialProbeDelay;
+    final long maxProbeDelay;
+    final long slowStart;
+    final double maxEjectedShare;
+    final long ejectionTime;
+    final String localZone;
+    final ZoneResolver zoneResolver;
+    final double hedgePercentile;
+    final double hedgeBudget;
 
     public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, Config.LoadBalancingStrategy.ROUND_ROBIN );
+    }
+
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, 1 );
+    }
+
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, discoveryParallelism, null );
+    }
+
+    /**
+     * @param routingTableCache the file to keep the last routing table in, or {@code null} to not keep it
+     */
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism, File routingTableCache )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, discoveryParallelism, routingTableCache,
+                DEFAULT_INITIAL_PROBE_DELAY, DEFAULT_MAX_PROBE_DELAY, DEFAULT_SLOW_START );
+    }
+
+    /**
+     * @param initialProbeDelay the time to wait before probing a forgotten server, or {@code 0} to not probe
+     * @param maxProbeDelay the longest time to wait between probes of a forgotten server
+     * @param slowStart the time over which a re-admitted server gets an increasing share of the sessions
+     */
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism, File routingTableCache,
+            long initialProbeDelay, long maxProbeDelay, long slowStart )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, discoveryParallelism, routingTableCache,
+                initialProbeDelay, maxProbeDelay, slowStart, DEFAULT_MAX_EJECTED_SHARE, DEFAULT_EJECTION_TIME );
+    }
+
+    /**
+     * @param maxEjectedShare the largest share of the read servers to stop using at once for failing more often than
+     * the others, or {@code 0} to not stop using servers for that
+     * @param ejectionTime the time to stop using such a server for
+     */
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism, File routingTableCache,
+            long initialProbeDelay, long maxProbeDelay, long slowStart, double maxEjectedShare, long ejectionTime )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, discoveryParallelism, routingTableCache,
+                initialProbeDelay, maxProbeDelay, slowStart, maxEjectedShare, ejectionTime, null, null );
+    }
+
+    /**
+     * @param localZone the zone to prefer read servers in, or {@code null} to not prefer any zone
+     * @param zoneResolver tells which zone a server is in, only used when a local zone is given
+     */
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism, File routingTableCache,
+            long initialProbeDelay, long maxProbeDelay, long slowStart, double maxEjectedShare, long ejectionTime,
+            String localZone, ZoneResolver zoneResolver )
+    {
+        this( maxRoutingFailures, retryTimeoutDelay, loadBalancingStrategy, discoveryParallelism, routingTableCache,
+                initialProbeDelay, maxProbeDelay, slowStart, maxEjectedShare, ejectionTime, localZone, zoneResolver,
+                0, 0 );
+    }
+
+    /**
+     * @param hedgePercentile the percentile of the response times of a server after which a read is sent to
+     * another read server as well, or {@code 0} to not hedge reads
+     * @param hedgeBudget the largest share of the reads to hedge
+     */
+    public RoutingSettings( int maxRoutingFailures, long retryTimeoutDelay,
+            Config.LoadBalancingStrategy loadBalancingStrategy, int discoveryParallelism, File routingTableCache,
+            long initialProbeDelay, long maxProbeDelay, long slowStart, double maxEjectedShare, long ejectionTime,
+            String localZone, ZoneResolver zoneResolver, double hedgePercentile, double hedgeBudget )
     {
         this.maxRoutingFailures = maxRoutingFailures;
         this.retryTimeoutDelay = retryTimeoutDelay;
+        this.loadBalancingStrategy = loadBalancingStrategy;
+        this.discoveryParallelism = discoveryParallelism;
+        this.routingTableCache = routingTableCache;
+        this.initialProbeDelay = initialProbeDelay;
+        this.maxProbeDelay = maxProbeDelay;
+        this.slowStart = slowStart;
+        this.maxEjectedShare = maxEjectedShare;
+        this.ejectionTime = ejectionTime;
+        this.localZone = localZone;
+        this.zoneResolver = zoneResolver;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeBudget = hedgeBudget;
     }
 }
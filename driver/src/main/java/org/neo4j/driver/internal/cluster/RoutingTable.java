@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+/**
+ * An immutable snapshot of the servers known for each role, along with the time after which it should be refreshed.
+ * <p>
+ * Every change creates a new table, so that a table can be read without locking while it is being replaced. The
+ * order of the servers that remain is preserved across changes, so that round robin selection carries on where it
+ * left off.
+ */
+final class RoutingTable
+{
+    private static final BoltServerAddress[] NONE = {};
+    private static final int MIN_ROUTERS = 1;
+
+    private final BoltServerAddress[] readers;
+    private final BoltServerAddress[] writers;
+    private final BoltServerAddress[] routers;
+    private final long refreshTimeout;
+    /** Counts the updates from the routing servers, forgetting or re-admitting a server keeps the generation. */
+    private final long generation;
+
+    private RoutingTable( BoltServerAddress[] readers, BoltServerAddress[] writers, BoltServerAddress[] routers,
+            long refreshTimeout, long generation )
+    {
+        this.readers = readers;
+        this.writers = writers;
+        this.routers = routers;
+        this.refreshTimeout = refreshTimeout;
+        this.generation = generation;
+    }
+
+    /**
+     * @param routers the servers to ask for the first routing table
+     * @param refreshTimeout the time after which the table is stale
+     * @return a table with the given routers and no other servers
+     */
+    static RoutingTable seed( Set<BoltServerAddress> routers, long refreshTimeout )
+    {
+        return new RoutingTable( NONE, NONE, routers.toArray( NONE ), refreshTimeout, 0 );
+    }
+
+    /**
+     * The returned arrays must not be modified.
+     */
+    BoltServerAddress[] readers()
+    {
+        return readers;
+    }
+
+    BoltServerAddress[] writers()
+    {
+        return writers;
+    }
+
+    BoltServerAddress[] routers()
+    {
+        return routers;
+    }
+
+    long generation()
+    {
+        return generation;
+    }
+
+    /**
+     * @return {@code true} if the server is used for reading or writing
+     */
+    boolean contains( BoltServerAddress address )
+    {
+        return indexOf( readers, address ) >= 0 || indexOf( writers, address ) >= 0;
+    }
+
+    boolean isStale( long now )
+    {
+        return refreshTimeout < now || // most of the time to live has passed
+                routers.length <= MIN_ROUTERS || // we need to discover more routing servers
+                readers.length == 0 || // we need to discover more read servers
+                writers.length == 0; // we need to discover more write servers
+    }
+
+    /**
+     * @param cluster the servers to use from now on
+     * @param refreshTimeout the time after which the new table is stale
+     * @param removed collects the servers that are no longer in any role
+     * @return the new table
+     */
+    RoutingTable update( ClusterComposition cluster, long refreshTimeout, Set<BoltServerAddress> removed )
+    {
+        return new RoutingTable(
+                update( readers, cluster.readers(), removed ),
+                update( writers, cluster.writers(), removed ),
+                update( routers, cluster.routers(), removed ),
+                refreshTimeout,
+                generation + 1 );
+    }
+
+    /**
+     * Forget a server that could not be connected to. It is kept as a router, since that might otherwise mean we
+     * lose our ability to re-discover, but it will not be used for actual work without performing discovery first.
+     *
+     * @return the new table, or this table if it did not use the server for reading or writing
+     */
+    RoutingTable forget( BoltServerAddress address )
+    {
+        BoltServerAddress[] readers = remove( this.readers, address );
+        BoltServerAddress[] writers = remove( this.writers, address );
+        if ( readers == this.readers && writers == this.writers )
+        {
+            return this;
+        }
+        return new RoutingTable( readers, writers, routers, refreshTimeout, generation );
+    }
+
+    /**
+     * Read from a forgotten server again.
+     *
+     * @return the new table, or this table if it already used the server for reading
+     */
+    RoutingTable readmit( BoltServerAddress address )
+    {
+        BoltServerAddress[] readers = add( this.readers, address );
+        return readers == this.readers ? this : new RoutingTable( readers, writers, routers, refreshTimeout,
+                generation );
+    }
+
+    /**
+     * @return the new table, or this table if it did not use the server for writing
+     */
+    RoutingTable forgetWriter( BoltServerAddress address )
+    {
+        BoltServerAddress[] writers = remove( this.writers, address );
+        return writers == this.writers ? this : new RoutingTable( readers, writers, routers, refreshTimeout,
+                generation );
+    }
+
+    /**
+     * @return the new table, or this table if it did not use the server for routing
+     */
+    RoutingTable forgetRouter( BoltServerAddress address )
+    {
+        BoltServerAddress[] routers = remove( this.routers, address );
+        return routers == this.routers ? this : new RoutingTable( readers, writers, routers, refreshTimeout,
+                generation );
+    }
+
+    private static BoltServerAddress[] update( BoltServerAddress[] prev, Set<BoltServerAddress> addresses,
+            Set<BoltServerAddress> removed )
+    {
+        if ( addresses.isEmpty() )
+        {
+            return NONE;
+        }
+        if ( prev.length == 0 )
+        {
+            return addresses.toArray( NONE );
+        }
+        BoltServerAddress[] copy = null;
+        if ( addresses.size() != prev.length )
+        {
+            copy = new BoltServerAddress[addresses.size()];
+        }
+        int j = 0;
+        for ( int i = 0; i < prev.length; i++ )
+        {
+            if ( addresses.remove( prev[i] ) )
+            {
+                if ( copy != null )
+                {
+                    copy[j++] = prev[i];
+                }
+            }
+            else
+            {
+                removed.add( prev[i] );
+                if ( copy == null )
+                {
+                    copy = new BoltServerAddress[prev.length];
+                    System.arraycopy( prev, 0, copy, 0, i );
+                    j = i;
+                }
+            }
+        }
+        if ( copy == null )
+        {
+            return prev;
+        }
+        for ( BoltServerAddress address : addresses )
+        {
+            copy[j++] = address;
+        }
+        return copy;
+    }
+
+    private static BoltServerAddress[] remove( BoltServerAddress[] addresses, BoltServerAddress address )
+    {
+        int i = indexOf( addresses, address );
+        if ( i < 0 )
+        {
+            return addresses;
+        }
+        if ( addresses.length == 1 )
+        {
+            return NONE;
+        }
+        BoltServerAddress[] copy = new BoltServerAddress[addresses.length - 1];
+        System.arraycopy( addresses, 0, copy, 0, i );
+        System.arraycopy( addresses, i + 1, copy, i, addresses.length - i - 1 );
+        return copy;
+    }
+
+    private static BoltServerAddress[] add( BoltServerAddress[] addresses, BoltServerAddress address )
+    {
+        if ( indexOf( addresses, address ) >= 0 )
+        {
+            return addresses;
+        }
+        BoltServerAddress[] copy = Arrays.copyOf( addresses, addresses.length + 1 );
+        copy[addresses.length] = address;
+        return copy;
+    }
+
+    private static int indexOf( BoltServerAddress[] addresses, BoltServerAddress address )
+    {
+        for ( int i = 0; i < addresses.length; i++ )
+        {
+            if ( addresses[i].equals( address ) )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Logger;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Keeps the last routing table in a file, so that a new driver for the same cluster can start serving sessions
+ * without waiting for the routing servers to respond.
+ * <p>
+ * The cached table is only used when it was written for the same routing addresses and has not expired. Failing to
+ * read or write the file is logged and otherwise ignored, since the routing servers can always be asked instead.
+ */
+class RoutingTableCache
+{
+    private static final String SEED = "seed";
+    private static final String EXPIRES = "expires";
+    private static final String READ = "READ";
+    private static final String WRITE = "WRITE";
+    private static final String ROUTE = "ROUTE";
+
+    private final File file;
+    private final BoltServerAddress[] routingAddresses;
+    private final String seed;
+    private final Clock clock;
+    private final Logger log;
+
+    RoutingTableCache( File file, BoltServerAddress[] routingAddresses, Clock clock, Logger log )
+    {
+        this.file = file;
+        this.routingAddresses = routingAddresses;
+        this.seed = join( new HashSet<>( asList( routingAddresses ) ) );
+        this.clock = clock;
+        this.log = log;
+    }
+
+    /**
+     * @return the cached routing table, or {@code null} if there is none that can be used
+     */
+    ClusterComposition load()
+    {
+        if ( !file.exists() )
+        {
+            return null;
+        }
+        Properties properties = new Properties();
+        try ( InputStream in = new FileInputStream( file ) )
+        {
+            properties.load( in );
+            if ( !seed.equals( properties.getProperty( SEED ) ) )
+            {
+                log.debug( "Not using cached routing table in %s, it is for other routing servers.", file );
+                return null;
+            }
+            long expirationTimestamp = Long.parseLong( properties.getProperty( EXPIRES ) );
+            if ( expirationTimestamp <= clock.millis() )
+            {
+                log.debug( "Not using cached routing table in %s, it has expired.", file );
+                return null;
+            }
+            // keep the given routing addresses as routers, in case the cached ones have all gone away since
+            Set<BoltServerAddress> routers = split( properties.getProperty( ROUTE ) );
+            routers.addAll( asList( routingAddresses ) );
+            ClusterComposition cluster = new ClusterComposition( expirationTimestamp,
+                    split( properties.getProperty( READ ) ),
+                    split( properties.getProperty( WRITE ) ),
+                    routers );
+            return cluster.isValid() ? cluster : null;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            log.warn( "Failed to read cached routing table from %s: %s", file, e.getMessage() );
+            return null;
+        }
+    }
+
+    void save( ClusterComposition cluster )
+    {
+        Properties properties = new Properties();
+        properties.setProperty( SEED, seed );
+        properties.setProperty( EXPIRES, Long.toString( cluster.expirationTimestamp ) );
+        properties.setProperty( READ, join( cluster.readers() ) );
+        properties.setProperty( WRITE, join( cluster.writers() ) );
+        properties.setProperty( ROUTE, join( cluster.routers() ) );
+        try
+        {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if ( !parent.isDirectory() && !parent.mkdirs() )
+            {
+                throw new IOException( format( "Failed to create directory %s", parent ) );
+            }
+            // write to a temporary file first, so that a driver starting up never reads a partially written table
+            File temp = File.createTempFile( file.getName(), ".tmp", parent );
+            try
+            {
+                try ( OutputStream out = new FileOutputStream( temp ) )
+                {
+                    properties.store( out, "Neo4j routing table" );
+                }
+                Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE );
+            }
+            finally
+            {
+                Files.deleteIfExists( temp.toPath() );
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to cache routing table in %s: %s", file, e.getMessage() );
+        }
+    }
+
+    private static String join( Set<BoltServerAddress> addresses )
+    {
+        // sorted, so that the same addresses are always written the same way
+        List<String> sorted = new ArrayList<>();
+        for ( BoltServerAddress address : addresses )
+        {
+            sorted.add( address.toString() );
+        }
+        Collections.sort( sorted );
+        StringBuilder result = new StringBuilder();
+        for ( String address : sorted )
+        {
+            if ( result.length() > 0 )
+            {
+                result.append( ',' );
+            }
+            result.append( address );
+        }
+        return result.toString();
+    }
+
+    private static Set<BoltServerAddress> split( String addresses )
+    {
+        Set<BoltServerAddress> result = new HashSet<>();
+        if ( addresses != null )
+        {
+            for ( String address : addresses.split( "," ) )
+            {
+                if ( !address.isEmpty() )
+                {
+                    result.add( new BoltServerAddress( address ) );
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+/**
+ * Keeps track of read servers that were forgotten because they could not be connected to, so that they can be
+ * probed and re-admitted for reading before the next refresh of the routing table if they recover.
+ * <p>
+ * A forgotten server is probed after the initial probe delay, and after twice as long as the previous delay, up to
+ * the maximum delay, every time probing fails. A server that has been re-admitted gets a share of the sessions that
+ * grows linearly over the slow start period, so that it is not flooded with new connections the moment it is back.
+ */
+class ServerRecovery
+{
+    private final long initialProbeDelay;
+    private final long maxProbeDelay;
+    private final long slowStart;
+    private final Map<BoltServerAddress,Probe> probes = new ConcurrentHashMap<>();
+    private final Map<BoltServerAddress,Long> warmingUp = new ConcurrentHashMap<>();
+
+    ServerRecovery( long initialProbeDelay, long maxProbeDelay, long slowStart )
+    {
+        this.initialProbeDelay = initialProbeDelay;
+        this.maxProbeDelay = maxProbeDelay;
+        this.slowStart = slowStart;
+    }
+
+    /**
+     * Start probing a read server that was forgotten.
+     *
+     * @param generation the generation of the routing table the server was forgotten from
+     */
+    synchronized void forgotten( BoltServerAddress address, long generation, long now )
+    {
+        warmingUp.remove( address );
+        if ( initialProbeDelay > 0 && !probes.containsKey( address ) )
+        {
+            probes.put( address, new Probe( generation, initialProbeDelay, now ) );
+        }
+    }
+
+    /**
+     * @return the servers that are due to be probed, which are not returned again until the probe completes
+     */
+    List<BoltServerAddress> dueProbes( long now )
+    {
+        if ( probes.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+        List<BoltServerAddress> due = new ArrayList<>();
+        synchronized ( this )
+        {
+            for ( Map.Entry<BoltServerAddress,Probe> entry : probes.entrySet() )
+            {
+                Probe probe = entry.getValue();
+                if ( !probe.inProgress && probe.dueAt <= now )
+                {
+                    probe.inProgress = true;
+                    due.add( entry.getKey() );
+                }
+            }
+        }
+        return due;
+    }
+
+    synchronized void probeFailed( BoltServerAddress address, long now )
+    {
+        Probe probe = probes.get( address );
+        if ( probe != null )
+        {
+            probe.delay = Math.min( maxProbeDelay, probe.delay * 2 );
+            probe.dueAt = now + probe.delay;
+            probe.inProgress = false;
+        }
+    }
+
+    /**
+     * @return the probe of the server, telling the routing table it may be re-admitted to, or {@code null} if the
+     * server is no longer being probed
+     */
+    synchronized Probe probeSucceeded( BoltServerAddress address, long now )
+    {
+        Probe probe = probes.remove( address );
+        if ( probe != null )
+        {
+            warmUp( address, now );
+        }
+        return probe;
+    }
+
+    /**
+     * Stop probing, since the routing table has been refreshed. Forgotten servers that are in the new routing
+     * table are warmed up.
+     */
+    synchronized void refreshed( RoutingTable table, long now )
+    {
+        for ( Iterator<BoltServerAddress> addresses = probes.keySet().iterator(); addresses.hasNext(); )
+        {
+            BoltServerAddress address = addresses.next();
+            if ( table.contains( address ) )
+            {
+                warmUp( address, now );
+            }
+            addresses.remove();
+        }
+    }
+
+    /**
+     * @return {@code true} if a session may use the server, which is always the case unless it is warming up
+     */
+    boolean admit( BoltServerAddress address, long now )
+    {
+        if ( warmingUp.isEmpty() )
+        {
+            return true;
+        }
+        Long admittedAt = warmingUp.get( address );
+        if ( admittedAt == null )
+        {
+            return true;
+        }
+        long elapsed = now - admittedAt;
+        if ( elapsed >= slowStart )
+        {
+            warmingUp.remove( address, admittedAt );
+            return true;
+        }
+        return ThreadLocalRandom.current().nextDouble() * slowStart < elapsed;
+    }
+
+    private void warmUp( BoltServerAddress address, long now )
+    {
+        if ( slowStart > 0 )
+        {
+            warmingUp.put( address, now );
+        }
+    }
+
+    static final class Probe
+    {
+        final long generation;
+        private long delay;
+        private long dueAt;
+        private boolean inProgress;
+
+        private Probe( long generation, long delay, long now )
+        {
+            this.generation = generation;
+            this.delay = delay;
+            this.dueAt = now + delay;
+        }
+    }
+}
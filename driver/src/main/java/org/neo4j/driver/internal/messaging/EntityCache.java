@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRelationship;
+
+/**
+ * Identity map of the nodes and relationships decoded so far, keyed by id. When decoding against a cache, an
+ * entity that has been seen before is resolved to the existing instance and its labels, type and properties are
+ * skipped rather than decoded again.
+ *
+ * Not thread safe, a cache is meant to be used for the records of a single result.
+ */
+public class EntityCache
+{
+    private final Map<Long,InternalNode> nodes = new HashMap<>();
+    private final Map<Long,InternalRelationship> relationships = new HashMap<>();
+
+    public InternalNode node( long id )
+    {
+        return nodes.get( id );
+    }
+
+    public void add( InternalNode node )
+    {
+        nodes.put( node.id(), node );
+    }
+
+    public InternalRelationship relationship( long id )
+    {
+        return relationships.get( id );
+    }
+
+    public void add( InternalRelationship relationship )
+    {
+        relationships.put( relationship.id(), relationship );
+    }
+}
@@ -0,0 +1,604 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.neo4j.driver.internal.packstream.PackStream;
+import org.neo4j.driver.internal.packstream.PackType;
+import org.neo4j.driver.internal.value.InternalValue;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.Entity;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Path;
+import org.neo4j.driver.v1.types.Relationship;
+
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.NODE;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.NODE_FIELDS;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.PATH;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.RELATIONSHIP;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.Reader.ensureCorrectStructSignature;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.Reader.ensureCorrectStructSize;
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.UNBOUND_RELATIONSHIP;
+
+/**
+ * Writes records as a JSON array of objects, one object per record with a member per key.
+ *
+ * Records can either be transcoded straight from the fields of a RECORD message, without decoding them into
+ * {@link Value values} first, or be written from records that have already been decoded. Both produce the same
+ * output. Nodes are written as {@code {"id", "labels", "properties"}}, relationships as
+ * {@code {"id", "start", "end", "type", "properties"}} and paths as {@code {"nodes", "relationships"}} in path
+ * order. Floats that JSON can not represent are written as strings.
+ *
+ * Failures of the target writer do not interrupt transcoding, the remaining fields are still consumed so that the
+ * message stream stays intact. The first such failure is available from {@link #failure()}.
+ */
+public class JsonRecordWriter
+{
+    private final Output output;
+    private final List<String> keys;
+    private Appendable out;
+    private boolean firstRecord = true;
+
+    public JsonRecordWriter( Writer writer, List<String> keys )
+    {
+        this.output = new Output( writer );
+        this.keys = keys;
+        this.out = output;
+    }
+
+    public void writeStart() throws IOException
+    {
+        out.append( '[' );
+    }
+
+    public void writeEnd() throws IOException
+    {
+        out.append( ']' );
+        output.flush();
+    }
+
+    public IOException failure()
+    {
+        return output.failure;
+    }
+
+    /**
+     * Transcode the fields of a RECORD message, the unpacker is expected to be positioned right after the list
+     * header of the fields.
+     */
+    public void write( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+    {
+        startRecord();
+        for ( int i = 0; i < fieldCount; i++ )
+        {
+            writeKey( i );
+            transcodeValue( unpacker );
+        }
+        out.append( '}' );
+    }
+
+    public void write( Record record ) throws IOException
+    {
+        startRecord();
+        for ( int i = 0; i < record.size(); i++ )
+        {
+            writeKey( i );
+            writeValue( record.get( i ) );
+        }
+        out.append( '}' );
+    }
+
+    private void startRecord() throws IOException
+    {
+        if ( firstRecord )
+        {
+            firstRecord = false;
+        }
+        else
+        {
+            out.append( ',' );
+        }
+        out.append( '{' );
+    }
+
+    private void writeKey( int index ) throws IOException
+    {
+        if ( index > 0 )
+        {
+            out.append( ',' );
+        }
+        writeString( index < keys.size() ? keys.get( index ) : String.valueOf( index ) );
+        out.append( ':' );
+    }
+
+    private void transcodeValue( PackStream.Unpacker unpacker ) throws IOException
+    {
+        PackType type = unpacker.peekNextType();
+        switch ( type )
+        {
+        case NULL:
+            unpacker.unpackNull();
+            out.append( "null" );
+            return;
+        case BOOLEAN:
+            out.append( unpacker.unpackBoolean() ? "true" : "false" );
+            return;
+        case INTEGER:
+            out.append( Long.toString( unpacker.unpackLong() ) );
+            return;
+        case FLOAT:
+            writeDouble( unpacker.unpackDouble() );
+            return;
+        case STRING:
+            writeString( unpacker.unpackString() );
+            return;
+        case MAP:
+            transcodeMap( unpacker );
+            return;
+        case LIST:
+        {
+            int size = (int) unpacker.unpackListHeader();
+            out.append( '[' );
+            for ( int i = 0; i < size; i++ )
+            {
+                if ( i > 0 )
+                {
+                    out.append( ',' );
+                }
+                transcodeValue( unpacker );
+            }
+            out.append( ']' );
+            return;
+        }
+        case STRUCT:
+        {
+            long size = unpacker.unpackStructHeader();
+            switch ( unpacker.unpackStructSignature() )
+            {
+            case NODE:
+                ensureCorrectStructSize( "NODE", NODE_FIELDS, size );
+                transcodeNode( unpacker );
+                return;
+            case RELATIONSHIP:
+                ensureCorrectStructSize( "RELATIONSHIP", 5, size );
+                transcodeRelationship( unpacker );
+                return;
+            case PATH:
+                ensureCorrectStructSize( "PATH", 3, size );
+                transcodePath( unpacker );
+                return;
+            }
+        }
+        }
+        throw new IOException( "Unknown value type: " + type );
+    }
+
+    private void transcodeMap( PackStream.Unpacker unpacker ) throws IOException
+    {
+        int size = (int) unpacker.unpackMapHeader();
+        out.append( '{' );
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( i > 0 )
+            {
+                out.append( ',' );
+            }
+            writeString( unpacker.unpackString() );
+            out.append( ':' );
+            transcodeValue( unpacker );
+        }
+        out.append( '}' );
+    }
+
+    private long transcodeNode( PackStream.Unpacker unpacker ) throws IOException
+    {
+        long id = unpacker.unpackLong();
+        out.append( "{\"id\":" ).append( Long.toString( id ) );
+        out.append( ",\"labels\":[" );
+        int numLabels = (int) unpacker.unpackListHeader();
+        for ( int i = 0; i < numLabels; i++ )
+        {
+            if ( i > 0 )
+            {
+                out.append( ',' );
+            }
+            writeString( unpacker.unpackString() );
+        }
+        out.append( "],\"properties\":" );
+        transcodeMap( unpacker );
+        out.append( '}' );
+        return id;
+    }
+
+    private void transcodeRelationship( PackStream.Unpacker unpacker ) throws IOException
+    {
+        out.append( "{\"id\":" ).append( Long.toString( unpacker.unpackLong() ) );
+        out.append( ",\"start\":" ).append( Long.toString( unpacker.unpackLong() ) );
+        out.append( ",\"end\":" ).append( Long.toString( unpacker.unpackLong() ) );
+        out.append( ",\"type\":" );
+        writeString( unpacker.unpackString() );
+        out.append( ",\"properties\":" );
+        transcodeMap( unpacker );
+        out.append( '}' );
+    }
+
+    private void transcodePath( PackStream.Unpacker unpacker ) throws IOException
+    {
+        // Nodes and relationships are sent once each and referenced by index from the path sequence,
+        // so they are rendered into memory first and emitted in path order once the sequence is known.
+        // This bounds memory by the size of a single path.
+        Appendable target = out;
+        try
+        {
+            int nodeCount = (int) unpacker.unpackListHeader();
+            long[] nodeIds = new long[nodeCount];
+            String[] nodes = new String[nodeCount];
+            for ( int i = 0; i < nodeCount; i++ )
+            {
+                ensureCorrectStructSize( "NODE", NODE_FIELDS, unpacker.unpackStructHeader() );
+                ensureCorrectStructSignature( "NODE", NODE, unpacker.unpackStructSignature() );
+                StringBuilder node = new StringBuilder();
+                out = node;
+                nodeIds[i] = transcodeNode( unpacker );
+                nodes[i] = node.toString();
+            }
+
+            int relCount = (int) unpacker.unpackListHeader();
+            long[] relIds = new long[relCount];
+            String[] relTypes = new String[relCount];
+            String[] relProperties = new String[relCount];
+            for ( int i = 0; i < relCount; i++ )
+            {
+                ensureCorrectStructSize( "RELATIONSHIP", 3, unpacker.unpackStructHeader() );
+                ensureCorrectStructSignature( "UNBOUND_RELATIONSHIP", UNBOUND_RELATIONSHIP,
+                        unpacker.unpackStructSignature() );
+                relIds[i] = unpacker.unpackLong();
+                StringBuilder relType = new StringBuilder();
+                out = relType;
+                writeString( unpacker.unpackString() );
+                relTypes[i] = relType.toString();
+                StringBuilder properties = new StringBuilder();
+                out = properties;
+                transcodeMap( unpacker );
+                relProperties[i] = properties.toString();
+            }
+            out = target;
+
+            int length = (int) unpacker.unpackListHeader() / 2;
+            StringBuilder rels = new StringBuilder();
+            out.append( "{\"nodes\":[" ).append( nodes.length == 0 ? "" : nodes[0] );
+            int prevNode = 0;
+            for ( int i = 0; i < length; i++ )
+            {
+                int relIdx = (int) unpacker.unpackLong();
+                int nextNode = (int) unpacker.unpackLong();
+                int rel = Math.abs( relIdx ) - 1;
+                long start = relIdx < 0 ? nodeIds[nextNode] : nodeIds[prevNode];
+                long end = relIdx < 0 ? nodeIds[prevNode] : nodeIds[nextNode];
+
+                out.append( ',' ).append( nodes[nextNode] );
+                if ( i > 0 )
+                {
+                    rels.append( ',' );
+                }
+                rels.append( "{\"id\":" ).append( relIds[rel] )
+                        .append( ",\"start\":" ).append( start )
+                        .append( ",\"end\":" ).append( end )
+                        .append( ",\"type\":" ).append( relTypes[rel] )
+                        .append( ",\"properties\":" ).append( relProperties[rel] ).append( '}' );
+                prevNode = nextNode;
+            }
+            out.append( "],\"relationships\":[" ).append( rels ).append( "]}" );
+        }
+        finally
+        {
+            out = target;
+        }
+    }
+
+    private void writeValue( Value value ) throws IOException
+    {
+        switch ( ((InternalValue) value).typeConstructor() )
+        {
+        case NULL_TyCon:
+            out.append( "null" );
+            break;
+        case BOOLEAN_TyCon:
+            out.append( value.asBoolean() ? "true" : "false" );
+            break;
+        case INTEGER_TyCon:
+            out.append( Long.toString( value.asLong() ) );
+            break;
+        case FLOAT_TyCon:
+            writeDouble( value.asDouble() );
+            break;
+        case STRING_TyCon:
+            writeString( value.asString() );
+            break;
+        case MAP_TyCon:
+            writeMap( value );
+            break;
+        case LIST_TyCon:
+        {
+            out.append( '[' );
+            boolean first = true;
+            for ( Value item : value.values() )
+            {
+                if ( !first )
+                {
+                    out.append( ',' );
+                }
+                first = false;
+                writeValue( item );
+            }
+            out.append( ']' );
+            break;
+        }
+        case NODE_TyCon:
+            writeNode( value.asNode() );
+            break;
+        case RELATIONSHIP_TyCon:
+            writeRelationship( value.asRelationship() );
+            break;
+        case PATH_TyCon:
+        {
+            Path path = value.asPath();
+            out.append( "{\"nodes\":[" );
+            boolean first = true;
+            for ( Node node : path.nodes() )
+            {
+                if ( !first )
+                {
+                    out.append( ',' );
+                }
+                first = false;
+                writeNode( node );
+            }
+            out.append( "],\"relationships\":[" );
+            first = true;
+            for ( Relationship rel : path.relationships() )
+            {
+                if ( !first )
+                {
+                    out.append( ',' );
+                }
+                first = false;
+                writeRelationship( rel );
+            }
+            out.append( "]}" );
+            break;
+        }
+        default:
+            throw new IOException( "Unknown type: " + value );
+        }
+    }
+
+    private void writeMap( Value map ) throws IOException
+    {
+        out.append( '{' );
+        boolean first = true;
+        for ( String key : map.keys() )
+        {
+            if ( !first )
+            {
+                out.append( ',' );
+            }
+            first = false;
+            writeString( key );
+            out.append( ':' );
+            writeValue( map.get( key ) );
+        }
+        out.append( '}' );
+    }
+
+    private void writeNode( Node node ) throws IOException
+    {
+        out.append( "{\"id\":" ).append( Long.toString( node.id() ) );
+        out.append( ",\"labels\":[" );
+        boolean first = true;
+        for ( String label : node.labels() )
+        {
+            if ( !first )
+            {
+                out.append( ',' );
+            }
+            first = false;
+            writeString( label );
+        }
+        out.append( "],\"properties\":" );
+        writeProperties( node );
+        out.append( '}' );
+    }
+
+    private void writeRelationship( Relationship rel ) throws IOException
+    {
+        out.append( "{\"id\":" ).append( Long.toString( rel.id() ) );
+        out.append( ",\"start\":" ).append( Long.toString( rel.startNodeId() ) );
+        out.append( ",\"end\":" ).append( Long.toString( rel.endNodeId() ) );
+        out.append( ",\"type\":" );
+        writeString( rel.type() );
+        out.append( ",\"properties\":" );
+        writeProperties( rel );
+        out.append( '}' );
+    }
+
+    private void writeProperties( Entity entity ) throws IOException
+    {
+        out.append( '{' );
+        boolean first = true;
+        for ( String key : entity.keys() )
+        {
+            if ( !first )
+            {
+                out.append( ',' );
+            }
+            first = false;
+            writeString( key );
+            out.append( ':' );
+            writeValue( entity.get( key ) );
+        }
+        out.append( '}' );
+    }
+
+    private void writeDouble( double value ) throws IOException
+    {
+        if ( Double.isNaN( value ) || Double.isInfinite( value ) )
+        {
+            writeString( Double.toString( value ) );
+        }
+        else
+        {
+            out.append( Double.toString( value ) );
+        }
+    }
+
+    private void writeString( String value ) throws IOException
+    {
+        out.append( '"' );
+        int start = 0;
+        int length = value.length();
+        for ( int i = 0; i < length; i++ )
+        {
+            char c = value.charAt( i );
+            String escaped;
+            switch ( c )
+            {
+            case '"':
+                escaped = "\\\"";
+                break;
+            case '\\':
+                escaped = "\\\\";
+                break;
+            case '\n':
+                escaped = "\\n";
+                break;
+            case '\r':
+                escaped = "\\r";
+                break;
+            case '\t':
+                escaped = "\\t";
+                break;
+            case '\b':
+                escaped = "\\b";
+                break;
+            case '\f':
+                escaped = "\\f";
+                break;
+            default:
+                if ( c < 0x20 || c == 0x2028 || c == 0x2029 )
+                {
+                    escaped = String.format( "\\u%04x", (int) c );
+                }
+                else
+                {
+                    continue;
+                }
+            }
+            out.append( value, start, i ).append( escaped );
+            start = i + 1;
+        }
+        out.append( value, start, length );
+        out.append( '"' );
+    }
+
+    /**
+     * Swallows failures of the target writer after remembering the first one, so that transcoding can always
+     * consume a message completely.
+     */
+    private static class Output implements Appendable
+    {
+        private final Writer writer;
+        private IOException failure;
+
+        Output( Writer writer )
+        {
+            this.writer = writer;
+        }
+
+        @Override
+        public Appendable append( CharSequence csq )
+        {
+            if ( failure == null )
+            {
+                try
+                {
+                    writer.append( csq );
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append( CharSequence csq, int start, int end )
+        {
+            if ( failure == null )
+            {
+                try
+                {
+                    writer.append( csq, start, end );
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append( char c )
+        {
+            if ( failure == null )
+            {
+                try
+                {
+                    writer.append( c );
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                }
+            }
+            return this;
+        }
+
+        void flush()
+        {
+            if ( failure == null )
+            {
+                try
+                {
+                    writer.flush();
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                }
+            }
+        }
+    }
+}
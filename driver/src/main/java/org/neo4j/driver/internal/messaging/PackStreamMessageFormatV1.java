@@ -23,7 +23,6 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +36,7 @@ import org.neo4j.driver.internal.packstream.PackInput;
 import org.neo4j.driver.internal.packstream.PackOutput;
 import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.packstream.PackType;
+import org.neo4j.driver.internal.util.ArrayMap;
 import org.neo4j.driver.internal.util.Iterables;
 import org.neo4j.driver.internal.value.InternalValue;
 import org.neo4j.driver.internal.value.ListValue;
@@ -76,8 +76,6 @@ public class PackStreamMessageFormatV1 implements MessageFormat
 
     public static final int NODE_FIELDS = 3;
 
-    private static final Map<String,Value> EMPTY_STRING_VALUE_MAP = new HashMap<>( 0 );
-
     @Override
     public MessageFormat.Writer newWriter( WritableByteChannel ch )
     {
@@ -383,6 +381,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     {
         private final PackStream.Unpacker unpacker;
         private final Runnable onMessageComplete;
+        private EntityCache entityCache;
 
         public Reader( PackInput input, Runnable onMessageComplete )
         {
@@ -495,10 +494,27 @@ public class PackStreamMessageFormatV1 implements MessageFormat
         private void unpackRecordMessage(MessageHandler output) throws IOException
         {
             int fieldCount = (int) unpacker.unpackListHeader();
+            if ( output instanceof RawRecordHandler )
+            {
+                RawRecordHandler rawRecordHandler = (RawRecordHandler) output;
+                if ( rawRecordHandler.handleRawRecord( unpacker, fieldCount ) )
+                {
+                    onMessageComplete.run();
+                    return;
+                }
+                entityCache = rawRecordHandler.entityCache();
+            }
             Value[] fields = new Value[fieldCount];
-            for ( int i = 0; i < fieldCount; i++ )
+            try
+            {
+                for ( int i = 0; i < fieldCount; i++ )
+                {
+                    fields[i] = unpackValue();
+                }
+            }
+            finally
             {
-                fields[i] = unpackValue();
+                entityCache = null;
             }
             output.handleRecordMessage( fields );
             onMessageComplete.run();
@@ -561,10 +577,23 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             long urn = unpacker.unpackLong();
             long startUrn = unpacker.unpackLong();
             long endUrn = unpacker.unpackLong();
+
+            InternalRelationship cached = entityCache == null ? null : entityCache.relationship( urn );
+            if ( cached != null )
+            {
+                unpacker.skip(); // type
+                unpacker.skip(); // properties
+                return new RelationshipValue( cached );
+            }
+
             String relType = unpacker.unpackString();
             Map<String,Value> props = unpackMap();
 
             InternalRelationship adapted = new InternalRelationship( urn, startUrn, endUrn, relType, props );
+            if ( entityCache != null )
+            {
+                entityCache.add( adapted );
+            }
             return new RelationshipValue( adapted );
         }
 
@@ -572,21 +601,28 @@ public class PackStreamMessageFormatV1 implements MessageFormat
         {
             long urn = unpacker.unpackLong();
 
+            InternalNode cached = entityCache == null ? null : entityCache.node( urn );
+            if ( cached != null )
+            {
+                unpacker.skip(); // labels
+                unpacker.skip(); // properties
+                return cached;
+            }
+
             int numLabels = (int) unpacker.unpackListHeader();
             List<String> labels = new ArrayList<>( numLabels );
             for ( int i = 0; i < numLabels; i++ )
             {
                 labels.add( unpacker.unpackString() );
             }
-            int numProps = (int) unpacker.unpackMapHeader();
-            Map<String,Value> props = new HashMap<>();
-            for ( int j = 0; j < numProps; j++ )
+            Map<String,Value> props = unpackMap();
+
+            InternalNode node = new InternalNode( urn, labels, props );
+            if ( entityCache != null )
             {
-                String key = unpacker.unpackString();
-                props.put( key, unpackValue() );
+                entityCache.add( node );
             }
-
-            return new InternalNode( urn, labels, props );
+            return node;
         }
 
         private Value unpackPath() throws IOException
@@ -607,9 +643,21 @@ public class PackStreamMessageFormatV1 implements MessageFormat
                 ensureCorrectStructSize( "RELATIONSHIP", 3, unpacker.unpackStructHeader() );
                 ensureCorrectStructSignature( "UNBOUND_RELATIONSHIP", UNBOUND_RELATIONSHIP, unpacker.unpackStructSignature() );
                 long id = unpacker.unpackLong();
+                InternalRelationship cached = entityCache == null ? null : entityCache.relationship( id );
+                if ( cached != null )
+                {
+                    unpacker.skip(); // type
+                    unpacker.skip(); // properties
+                    uniqRels[i] = cached;
+                    continue;
+                }
                 String relType = unpacker.unpackString();
                 Map<String,Value> props = unpackMap();
                 uniqRels[i] = new InternalRelationship( id, -1, -1, relType, props );
+                if ( entityCache != null )
+                {
+                    entityCache.add( uniqRels[i] );
+                }
             }
 
             // Path sequence
@@ -647,7 +695,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             return new PathValue( new InternalPath( Arrays.asList( segments ), Arrays.asList( nodes ), Arrays.asList( rels ) ) );
         }
 
-        private void ensureCorrectStructSize( String structName, int expected, long actual )
+        static void ensureCorrectStructSize( String structName, int expected, long actual )
         {
             if ( expected != actual )
             {
@@ -657,7 +705,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             }
         }
 
-        private void ensureCorrectStructSignature( String structName, byte expected, byte actual )
+        static void ensureCorrectStructSignature( String structName, byte expected, byte actual )
         {
             if ( expected != actual )
             {
@@ -670,17 +718,14 @@ public class PackStreamMessageFormatV1 implements MessageFormat
         private Map<String,Value> unpackMap() throws IOException
         {
             int size = (int) unpacker.unpackMapHeader();
-            if ( size == 0 )
-            {
-                return EMPTY_STRING_VALUE_MAP;
-            }
-            Map<String,Value> map = new HashMap<>( size );
+            String[] keys = new String[size];
+            Value[] values = new Value[size];
             for ( int i = 0; i < size; i++ )
             {
-                String key = unpacker.unpackString();
-                map.put( key, unpackValue() );
+                keys[i] = unpacker.unpackString();
+                values[i] = unpackValue();
             }
-            return map;
+            return ArrayMap.of( keys, values );
         }
     }
 
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.io.IOException;
+
+import org.neo4j.driver.internal.packstream.PackStream;
+
+/**
+ * Implemented by {@link MessageHandler message handlers} that take part in decoding RECORD messages, either by
+ * consuming the fields directly from the unpacker instead of having them decoded into values first, or by
+ * supplying an {@link EntityCache} to decode graph entities against.
+ */
+public interface RawRecordHandler
+{
+    /**
+     * Offer the fields of a RECORD message.
+     *
+     * @param unpacker the unpacker, positioned right after the list header of the record fields
+     * @param fieldCount the number of fields in the record
+     * @return true if all fields have been consumed, false if nothing has been read and the record should be
+     * decoded and handed to {@link MessageHandler#handleRecordMessage(org.neo4j.driver.v1.Value[])} instead
+     */
+    boolean handleRawRecord( PackStream.Unpacker unpacker, int fieldCount ) throws IOException;
+
+    /**
+     * @return the cache to resolve the nodes and relationships of the next decoded record against, or null to
+     * decode every entity into a new instance
+     */
+    EntityCache entityCache();
+}
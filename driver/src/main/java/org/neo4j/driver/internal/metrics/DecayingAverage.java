@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exponentially weighted moving average, where the weight of a value decays with the time since it was recorded
+ * rather than with the number of values recorded after it. After the decay time a value counts for about a third
+ * of what it did when it was recorded, however many values were recorded in the meantime.
+ */
+public class DecayingAverage
+{
+    private final double decayNanos;
+    private double average;
+    private long lastRecorded;
+    private boolean empty = true;
+
+    public DecayingAverage( long decay, TimeUnit unit )
+    {
+        this.decayNanos = unit.toNanos( decay );
+    }
+
+    public void record( long value )
+    {
+        record( value, System.nanoTime() );
+    }
+
+    synchronized void record( long value, long now )
+    {
+        if ( empty )
+        {
+            average = value;
+            empty = false;
+        }
+        else
+        {
+            double weight = Math.exp( -Math.max( 0, now - lastRecorded ) / decayNanos );
+            average = average * weight + value * (1 - weight);
+        }
+        lastRecorded = now;
+    }
+
+    /**
+     * @return the average, or zero when nothing has been recorded
+     */
+    public synchronized double value()
+    {
+        return average;
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.driver.v1.metrics.Histogram;
+
+/**
+ * Lock-free histogram of durations with logarithmic buckets, recording a value takes a handful of atomic
+ * increments and no allocation.
+ * <p>
+ * Every power of two range is split into {@value #SUB_BUCKETS} equally wide buckets, so a bucket is at most an
+ * eighth as wide as the values it holds. Values below {@value #SUB_BUCKETS} have a bucket each.
+ */
+public class InternalHistogram implements Histogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = bucket( Long.MAX_VALUE ) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record( long value )
+    {
+        if ( value < 0 )
+        {
+            value = 0;
+        }
+        buckets.incrementAndGet( bucket( value ) );
+        count.incrementAndGet();
+        total.addAndGet( value );
+        long currentMax;
+        while ( value > (currentMax = max.get()) && !max.compareAndSet( currentMax, value ) )
+        {
+            // retry
+        }
+    }
+
+    @Override
+    public long count()
+    {
+        return count.get();
+    }
+
+    @Override
+    public long total()
+    {
+        return total.get();
+    }
+
+    @Override
+    public long max()
+    {
+        return max.get();
+    }
+
+    @Override
+    public double mean()
+    {
+        long count = this.count.get();
+        return count == 0 ? 0 : (double) total.get() / count;
+    }
+
+    @Override
+    public long percentile( double percentile )
+    {
+        if ( percentile < 0 || percentile > 100 )
+        {
+            throw new IllegalArgumentException( "Percentile must be between 0 and 100, but was " + percentile );
+        }
+        long count = this.count.get();
+        if ( count == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( count * percentile / 100 ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += buckets.get( i );
+            if ( seen >= rank )
+            {
+                return Math.min( upperBound( i ), max.get() );
+            }
+        }
+        // buckets are read after the count, more values may have been counted than found in buckets
+        return max.get();
+    }
+
+    static int bucket( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros( value );
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS )
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
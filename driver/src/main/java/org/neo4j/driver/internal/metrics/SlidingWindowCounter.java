@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events over a window of time that slides forward in steps of a fraction of the window, by keeping a count
+ * per step in a ring of buckets.
+ * <p>
+ * Counting does not lock. The count of an event that races with its bucket being reused for a new step may be
+ * lost, which is accepted for counts that feed heuristics rather than reports.
+ */
+public class SlidingWindowCounter
+{
+    private final long bucketMillis;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray steps;
+
+    public SlidingWindowCounter( long window, TimeUnit unit, int buckets )
+    {
+        this.bucketMillis = Math.max( 1, unit.toMillis( window ) / buckets );
+        this.counts = new AtomicLongArray( buckets );
+        this.steps = new AtomicLongArray( buckets );
+        for ( int i = 0; i < buckets; i++ )
+        {
+            steps.set( i, Long.MIN_VALUE );
+        }
+    }
+
+    /**
+     * @param now the current time in milliseconds
+     */
+    public void increment( long now )
+    {
+        long step = now / bucketMillis;
+        int bucket = (int) (((step % counts.length()) + counts.length()) % counts.length());
+        long current = steps.get( bucket );
+        if ( current != step && steps.compareAndSet( bucket, current, step ) )
+        {
+            counts.set( bucket, 0 );
+        }
+        counts.incrementAndGet( bucket );
+    }
+
+    /**
+     * @param now the current time in milliseconds
+     * @return the number of events counted within the window ending now
+     */
+    public long sum( long now )
+    {
+        long step = now / bucketMillis;
+        long sum = 0;
+        for ( int i = 0; i < counts.length(); i++ )
+        {
+            long age = step - steps.get( i );
+            if ( age >= 0 && age < counts.length() )
+            {
+                sum += counts.get( i );
+            }
+        }
+        return sum;
+    }
+}
@@ -18,9 +18,11 @@
  */
 package org.neo4j.driver.internal.net;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
 
+import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.Value;
 
@@ -96,6 +98,17 @@ public class LoggingResponseHandler extends SocketResponseHandler
         super.handleRecordMessage( fields );
     }
 
+    @Override
+    public boolean handleRawRecord( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+    {
+        boolean handled = super.handleRawRecord( unpacker, fieldCount );
+        if ( handled )
+        {
+            logger.debug( "S: RECORD [%s fields, not decoded]", fieldCount );
+        }
+        return handled;
+    }
+
     @Override
     public void handleFailureMessage( String code, String message )
     {
@@ -18,11 +18,15 @@
  */
 package org.neo4j.driver.internal.net;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.neo4j.driver.internal.messaging.EntityCache;
 import org.neo4j.driver.internal.messaging.MessageHandler;
+import org.neo4j.driver.internal.messaging.RawRecordHandler;
+import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.spi.Collector;
 import org.neo4j.driver.internal.summary.InternalNotification;
 import org.neo4j.driver.internal.summary.InternalPlan;
@@ -37,7 +41,7 @@ import org.neo4j.driver.v1.summary.Notification;
 import org.neo4j.driver.v1.summary.StatementType;
 import org.neo4j.driver.v1.util.Function;
 
-public class SocketResponseHandler implements MessageHandler
+public class SocketResponseHandler implements MessageHandler, RawRecordHandler
 {
     private final Queue<Collector> collectors = new ConcurrentLinkedQueue<>();
 
@@ -56,6 +60,20 @@ public class SocketResponseHandler implements MessageHandler
         collector.record( fields );
     }
 
+    @Override
+    public boolean handleRawRecord( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+    {
+        Collector collector = collectors.element();
+        return collector.record( unpacker, fieldCount );
+    }
+
+    @Override
+    public EntityCache entityCache()
+    {
+        Collector collector = collectors.element();
+        return collector.entityCache();
+    }
+
     @Override
     public void handleFailureMessage( String code, String message )
     {
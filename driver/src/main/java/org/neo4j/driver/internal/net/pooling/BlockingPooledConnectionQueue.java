@@ -20,33 +20,119 @@ package org.neo4j.driver.internal.net.pooling;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.neo4j.driver.internal.util.Supplier;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.util.Function;
+
+import static java.lang.String.format;
 
 /**
- * A blocking queue that also keeps track of connections that are acquired in order
+ * A queue of idle connections that also keeps track of connections that are acquired in order
  * to facilitate termination of all connections.
+ * <p>
+ * The total number of connections, idle and acquired, is capped. Callers that find the cap reached wait for
+ * a connection to be released, in the order they arrived, for at most the acquisition timeout.
+ * <p>
+ * Acquiring and releasing a connection does not take any locks: idle connections are kept in a lock-free deque,
+ * and whether a connection is idle or acquired is tracked by a field of the connection itself, changed with
+ * compare-and-set. The set of all connections is only updated when a connection is created or disposed of.
+ * <p>
+ * With thread affinity enabled, a thread that releases a connection remembers it, and gets it back on its next
+ * acquire if no other thread took it in the meantime. Such a connection is claimed by its state alone and left in
+ * the deque, whoever polls the deque next skips it.
+ * <p>
+ * Released connections are added to the tail of the deque. Acquiring takes the least recently used idle connection
+ * from the head, which spreads load over all idle connections, or with LIFO selection the most recently used one
+ * from the tail, which keeps a small set of connections busy and leaves the rest idle long enough for maintenance
+ * to close them. Maintenance always looks at idle connections from the head.
+ * <p>
+ * Only a limited number of connections are opened at the same time. Callers that find no idle connection while
+ * that many are being opened already wait for one of them to finish, so they can open their own, or for a connection
+ * to be released, instead of all opening connections to a server that just came back at once. A connection that is
+ * opened goes to the caller that opened it, waiting callers only get connections that are released.
  */
 public class BlockingPooledConnectionQueue
 {
+    private static final int NEW = 0;
+    private static final int IDLE = 1;
+    private static final int ACQUIRED = 2;
+    private static final int DISPOSED = 3;
+    /** Acquired through thread affinity, while still in the deque */
+    private static final int ACQUIRED_IN_QUEUE = 4;
+
+    private static final AtomicIntegerFieldUpdater<PooledConnection> STATE =
+            AtomicIntegerFieldUpdater.newUpdater( PooledConnection.class, "poolState" );
+
     /** The backing queue, keeps track of connections currently in queue */
-    private final BlockingQueue<PooledConnection> queue;
+    private final ConcurrentLinkedDeque<PooledConnection> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final int capacity;
 
     private final AtomicBoolean isTerminating = new AtomicBoolean( false );
 
-    /** Keeps track of acquired connections */
-    private final Set<PooledConnection> acquiredConnections =
-            Collections.newSetFromMap(new ConcurrentHashMap<PooledConnection, Boolean>());
+    /** Keeps track of all connections, idle and acquired */
+    private final Set<PooledConnection> connections =
+            Collections.newSetFromMap( new ConcurrentHashMap<PooledConnection,Boolean>() );
+
+    /** One permit per acquired connection, fair so that waiting callers are served first come first served */
+    private final Semaphore permits;
+    private final int maxSize;
+    private final long acquisitionTimeoutMillis;
+
+    /** The connection last released by each thread, <code>null</code> when thread affinity is disabled */
+    private final ThreadLocal<PooledConnection> lastReleased;
+    private final boolean lifo;
+
+    /** One permit per connection being opened */
+    private final Semaphore connects;
+    /** Signalled when a connection is released or has been opened, for callers waiting on {@link #connects} */
+    private final Object connectionAvailable = new Object();
+    private final AtomicInteger connectionWaiters = new AtomicInteger();
+
+    private final InternalConnectionPoolMetrics metrics;
 
     public BlockingPooledConnectionQueue( int capacity )
     {
-        this.queue = new LinkedBlockingQueue<>( capacity );
+        this( capacity, Integer.MAX_VALUE, Long.MAX_VALUE );
+    }
+
+    public BlockingPooledConnectionQueue( int capacity, int maxSize, long acquisitionTimeoutMillis )
+    {
+        this( capacity, maxSize, acquisitionTimeoutMillis, false, false, Integer.MAX_VALUE,
+                new InternalConnectionPoolMetrics( null ) );
+    }
+
+    /**
+     * @param capacity the max number of idle connections
+     * @param maxSize the max number of connections, idle and acquired
+     * @param acquisitionTimeoutMillis how long to wait for a connection when there are max size connections already
+     * @param threadAffinity whether a thread gets back the connection it released last, if still idle
+     * @param lifo whether the most rather than the least recently used idle connection is acquired
+     * @param maxConcurrentConnects the max number of connections being opened at the same time
+     * @param metrics to record acquisitions, closed connections, validation failures and evictions to
+     */
+    public BlockingPooledConnectionQueue( int capacity, int maxSize, long acquisitionTimeoutMillis,
+            boolean threadAffinity, boolean lifo, int maxConcurrentConnects, InternalConnectionPoolMetrics metrics )
+    {
+        this.capacity = capacity;
+        this.permits = new Semaphore( maxSize, true );
+        this.maxSize = maxSize;
+        this.acquisitionTimeoutMillis = acquisitionTimeoutMillis;
+        this.lastReleased = threadAffinity ? new ThreadLocal<PooledConnection>() : null;
+        this.lifo = lifo;
+        this.connects = new Semaphore( maxConcurrentConnects );
+        this.metrics = metrics;
     }
 
     /**
@@ -57,63 +143,529 @@ public class BlockingPooledConnectionQueue
      */
     public boolean offer( PooledConnection pooledConnection )
     {
-        acquiredConnections.remove( pooledConnection );
-        boolean offer = queue.offer( pooledConnection );
-        // not added back to the queue, dispose of the connection
-        if (!offer) {
-            pooledConnection.dispose();
+        boolean offer = queueSize.incrementAndGet() <= capacity;
+        int previous = release( pooledConnection, offer ? IDLE : DISPOSED );
+        if ( previous == IDLE || previous == DISPOSED )
+        {
+            // offered twice
+            queueSize.decrementAndGet();
+            return false;
+        }
+
+        if ( offer )
+        {
+            connections.add( pooledConnection );
+            if ( previous != ACQUIRED_IN_QUEUE )
+            {
+                queue.offerLast( pooledConnection );
+            }
+            signalConnectionAvailable();
+            if ( lastReleased != null )
+            {
+                lastReleased.set( pooledConnection );
+            }
+        }
+        else
+        {
+            // not added back to the queue, dispose of the connection
+            queueSize.decrementAndGet();
+            disposeOf( pooledConnection );
+        }
+        if ( previous != NEW )
+        {
+            permits.release();
         }
         if (isTerminating.get()) {
-            PooledConnection poll = queue.poll();
+            PooledConnection poll = pollIdle( false );
             if (poll != null)
             {
-                poll.dispose();
+                disposeOf( poll );
             }
         }
         return offer;
     }
 
     /**
-     * Acquire connection or create a new one if the queue is empty
+     * Dispose of an acquired connection that should not be returned to the queue, making room for a new one.
+     *
+     * @param pooledConnection the connection to dispose of
+     */
+    public void dispose( PooledConnection pooledConnection )
+    {
+        int previous = release( pooledConnection, DISPOSED );
+        disposeOf( pooledConnection );
+        if ( previous == ACQUIRED || previous == ACQUIRED_IN_QUEUE )
+        {
+            permits.release();
+        }
+    }
+
+    /**
+     * Acquire connection or create a new one if the queue is empty. Waits for a connection to be released when
+     * the maximum number of connections has been reached, or when the maximum number of connections are being
+     * opened already.
      * @param supplier used to create a new connection if queue is empty
      * @return a PooledConnection instance
+     * @throws ClientException when no connection became available within the acquisition timeout
      */
     public PooledConnection acquire( Supplier<PooledConnection> supplier )
     {
+        long start = System.nanoTime();
+        acquirePermit();
+        if ( isTerminating.get() )
+        {
+            // pass the permit on, so that any other waiting caller also wakes up to find the pool closed
+            permits.release();
+            throw new IllegalStateException( "Pool has been closed, cannot acquire new values." );
+        }
 
-        PooledConnection poll = queue.poll();
-        if ( poll == null )
+        PooledConnection poll;
+        try
+        {
+            poll = pollLastReleased();
+            if ( poll == null )
+            {
+                poll = pollIdle( lifo );
+            }
+            if ( poll == null )
+            {
+                poll = create( supplier, start );
+            }
+        }
+        catch ( Throwable e )
         {
-            poll = supplier.get();
+            permits.release();
+            throw e;
         }
-        acquiredConnections.add( poll );
 
         if (isTerminating.get()) {
-            acquiredConnections.remove( poll );
-            poll.dispose();
+            dispose( poll );
             throw new IllegalStateException( "Pool has been closed, cannot acquire new values." );
         }
+        metrics.acquired( System.nanoTime() - start );
         return poll;
     }
 
+    private PooledConnection create( Supplier<PooledConnection> supplier, long start )
+    {
+        for ( ; ; )
+        {
+            if ( connects.tryAcquire() )
+            {
+                PooledConnection created;
+                try
+                {
+                    created = supplier.get();
+                }
+                finally
+                {
+                    connects.release();
+                    signalConnectionAvailable();
+                }
+                STATE.set( created, ACQUIRED );
+                connections.add( created );
+                return created;
+            }
+
+            awaitConnectionAvailable( start );
+            PooledConnection poll = pollIdle( lifo );
+            if ( poll != null )
+            {
+                return poll;
+            }
+        }
+    }
+
+    /**
+     * Wait until a connection is released or a connection being opened is done, or the acquisition timeout passes.
+     */
+    private void awaitConnectionAvailable( long start )
+    {
+        connectionWaiters.incrementAndGet();
+        try
+        {
+            synchronized ( connectionAvailable )
+            {
+                // checked after registering as a waiter and while holding the monitor, so no signal is missed
+                if ( queueSize.get() > 0 || connects.availablePermits() > 0 || isTerminating.get() )
+                {
+                    return;
+                }
+                long remaining = TimeUnit.MILLISECONDS.toNanos( acquisitionTimeoutMillis ) -
+                                 (System.nanoTime() - start);
+                if ( remaining <= 0 )
+                {
+                    metrics.acquisitionTimedOut();
+                    throw acquisitionTimeout();
+                }
+                TimeUnit.NANOSECONDS.timedWait( connectionAvailable, remaining );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for a connection from the pool", e );
+        }
+        finally
+        {
+            connectionWaiters.decrementAndGet();
+        }
+        if ( isTerminating.get() )
+        {
+            throw new IllegalStateException( "Pool has been closed, cannot acquire new values." );
+        }
+    }
+
+    private void signalConnectionAvailable()
+    {
+        if ( connectionWaiters.get() > 0 )
+        {
+            synchronized ( connectionAvailable )
+            {
+                connectionAvailable.notifyAll();
+            }
+        }
+    }
+
+    private ClientException acquisitionTimeout()
+    {
+        return new ClientException( format(
+                "Unable to acquire connection from the pool within configured maximum time of %dms",
+                acquisitionTimeoutMillis ) );
+    }
+
+    private void acquirePermit()
+    {
+        try
+        {
+            // a timed acquire with zero timeout, unlike tryAcquire(), does not barge ahead of waiting callers
+            if ( permits.tryAcquire( 0, TimeUnit.MILLISECONDS ) )
+            {
+                return;
+            }
+            boolean acquired = permits.tryAcquire( acquisitionTimeoutMillis, TimeUnit.MILLISECONDS );
+            metrics.acquisitionWaited();
+            if ( !acquired )
+            {
+                metrics.acquisitionTimedOut();
+                throw acquisitionTimeout();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for a connection from the pool", e );
+        }
+    }
+
+    /**
+     * Move a connection that is not idle to the given state.
+     *
+     * @return the state the connection was in, if it was idle or disposed of already it is left as is
+     */
+    private static int release( PooledConnection pooledConnection, int state )
+    {
+        for ( ; ; )
+        {
+            int previous = STATE.get( pooledConnection );
+            if ( previous == IDLE || previous == DISPOSED ||
+                 STATE.compareAndSet( pooledConnection, previous, state ) )
+            {
+                return previous;
+            }
+        }
+    }
+
+    private PooledConnection pollLastReleased()
+    {
+        if ( lastReleased == null )
+        {
+            return null;
+        }
+        PooledConnection last = lastReleased.get();
+        if ( last == null )
+        {
+            return null;
+        }
+        if ( STATE.compareAndSet( last, IDLE, ACQUIRED_IN_QUEUE ) )
+        {
+            queueSize.decrementAndGet();
+            metrics.affinityHit();
+            return last;
+        }
+        // taken by another thread, don't hold on to it
+        lastReleased.remove();
+        return null;
+    }
+
+    private PooledConnection pollIdle( boolean mostRecentlyUsed )
+    {
+        PooledConnection poll;
+        while ( (poll = mostRecentlyUsed ? queue.pollLast() : queue.pollFirst()) != null )
+        {
+            if ( claim( poll ) )
+            {
+                queueSize.decrementAndGet();
+                return poll;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a connection just polled from the deque.
+     *
+     * @return <code>false</code> if the connection was no longer idle, and has been dropped from the deque
+     */
+    private static boolean claim( PooledConnection pooledConnection )
+    {
+        for ( ; ; )
+        {
+            int state = STATE.get( pooledConnection );
+            if ( state == IDLE )
+            {
+                if ( STATE.compareAndSet( pooledConnection, IDLE, ACQUIRED ) )
+                {
+                    return true;
+                }
+            }
+            else if ( state == ACQUIRED_IN_QUEUE )
+            {
+                // acquired through thread affinity, once released it needs to be added to the deque again
+                if ( STATE.compareAndSet( pooledConnection, ACQUIRED_IN_QUEUE, ACQUIRED ) )
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                return false;
+            }
+        }
+    }
+
+    private void disposeOf( PooledConnection pooledConnection )
+    {
+        STATE.set( pooledConnection, DISPOSED );
+        if ( connections.remove( pooledConnection ) )
+        {
+            metrics.connectionClosed();
+        }
+        pooledConnection.dispose();
+    }
+
+    /**
+     * Run one round of maintenance over the idle connections: close the ones idle longer than the max idle time,
+     * replace the ones that reach their max lifetime before the next round, test the ones idle longer than the
+     * liveness check threshold, and open new ones until the min number of idle connections is reached.
+     * <p>
+     * Connections are left in the queue while they are looked at, so acquiring never waits for maintenance and
+     * finds them where they were. Only a connection that is closed or tested is claimed, a tested connection holds
+     * a permit like an acquired one while its test runs, and is handed back as soon as it passes.
+     *
+     * @param settings the pool settings to maintain the queue by
+     * @param liveness used to test a connection, returns <code>true</code> if the connection is live
+     * @param supplier used to create new idle connections
+     */
+    public void maintain( PoolSettings settings, Function<PooledConnection,Boolean> liveness,
+            Supplier<PooledConnection> supplier )
+    {
+        int idle = queueSize.get();
+        Iterator<PooledConnection> iterator = queue.iterator();
+        for ( int i = 0; i < idle && !isTerminating.get() && iterator.hasNext(); i++ )
+        {
+            PooledConnection conn = iterator.next();
+            if ( STATE.get( conn ) != IDLE )
+            {
+                // acquired or disposed of in the meantime
+                continue;
+            }
+
+            long idleTime = conn.idleTime();
+            if ( idleTime > settings.maxIdleTime() && queueSize.get() > settings.minIdleConnectionPoolSize() )
+            {
+                if ( claimInQueue( conn ) )
+                {
+                    iterator.remove();
+                    metrics.evicted();
+                    disposeOf( conn );
+                }
+            }
+            else if ( conn.lifetimeRemaining() <= settings.maintenanceInterval() )
+            {
+                if ( claimInQueue( conn ) )
+                {
+                    // retire it now rather than let an acquirer find it expired, and open a replacement in its place
+                    iterator.remove();
+                    metrics.evicted();
+                    disposeOf( conn );
+                    replace( supplier );
+                }
+            }
+            else if ( conn.untestedTime() > settings.idleTimeBeforeConnectionTest() && permits.tryAcquire() )
+            {
+                if ( !claimInQueue( conn ) )
+                {
+                    permits.release();
+                    continue;
+                }
+                boolean live = false;
+                try
+                {
+                    live = liveness.apply( conn );
+                }
+                finally
+                {
+                    if ( live )
+                    {
+                        conn.markTested();
+                        if ( !returnTested( conn ) )
+                        {
+                            iterator.remove();
+                        }
+                    }
+                    else
+                    {
+                        iterator.remove();
+                        metrics.evicted();
+                        metrics.validationFailed();
+                        dispose( conn );
+                    }
+                }
+            }
+        }
+        if ( isTerminating.get() )
+        {
+            PooledConnection conn;
+            while ( (conn = pollIdle( false )) != null )
+            {
+                disposeOf( conn );
+            }
+        }
+
+        while ( !isTerminating.get() && queueSize.get() < settings.minIdleConnectionPoolSize() &&
+                connections.size() < maxSize && permits.tryAcquire() )
+        {
+            try
+            {
+                if ( !offer( supplier.get() ) )
+                {
+                    break;
+                }
+            }
+            finally
+            {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Claim an idle connection while leaving it in the deque, as thread affinity does.
+     *
+     * @return <code>false</code> if the connection was no longer idle
+     */
+    private boolean claimInQueue( PooledConnection pooledConnection )
+    {
+        if ( STATE.compareAndSet( pooledConnection, IDLE, ACQUIRED_IN_QUEUE ) )
+        {
+            queueSize.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Make a connection claimed by maintenance for a test idle again, and release the permit held for the test.
+     *
+     * @return <code>false</code> if the connection was disposed of because the queue is full
+     */
+    private boolean returnTested( PooledConnection pooledConnection )
+    {
+        try
+        {
+            if ( queueSize.incrementAndGet() > capacity )
+            {
+                queueSize.decrementAndGet();
+                disposeOf( pooledConnection );
+                return false;
+            }
+            if ( release( pooledConnection, IDLE ) == ACQUIRED )
+            {
+                // polled from the deque while being tested, put it back where it was
+                queue.offerFirst( pooledConnection );
+            }
+            signalConnectionAvailable();
+            return true;
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    private void replace( Supplier<PooledConnection> supplier )
+    {
+        if ( permits.tryAcquire() )
+        {
+            try
+            {
+                offer( supplier.get() );
+            }
+            finally
+            {
+                permits.release();
+            }
+        }
+    }
+
     public List<PooledConnection> toList()
     {
-        return new ArrayList<>( queue );
+        List<PooledConnection> idle = new ArrayList<>( queueSize.get() );
+        for ( PooledConnection pooledConnection : queue )
+        {
+            if ( STATE.get( pooledConnection ) == IDLE )
+            {
+                idle.add( pooledConnection );
+            }
+        }
+        return idle;
     }
 
     public boolean isEmpty()
     {
-        return queue.isEmpty();
+        return queueSize.get() == 0;
     }
 
     public int size()
     {
-        return queue.size();
+        return queueSize.get();
+    }
+
+    /**
+     * @return the number of connections currently acquired from this queue
+     */
+    public int activeSize()
+    {
+        return Math.max( connections.size() - queueSize.get(), 0 );
+    }
+
+    /**
+     * @return {@code true} if as many connections as this queue may hold are currently acquired
+     */
+    public boolean isExhausted()
+    {
+        return activeSize() >= maxSize;
+    }
+
+    public InternalConnectionPoolMetrics metrics()
+    {
+        return metrics;
     }
 
     public boolean contains( PooledConnection pooledConnection )
     {
-        return queue.contains( pooledConnection );
+        return STATE.get( pooledConnection ) == IDLE && connections.contains( pooledConnection );
     }
 
     /**
@@ -122,21 +674,50 @@ public class BlockingPooledConnectionQueue
      */
     public void terminate()
     {
+        for ( PooledConnection pooledConnection : terminateAndDrain() )
+        {
+            pooledConnection.dispose();
+        }
+    }
+
+    /**
+     * Terminates the queue like {@link #terminate()}, but leaves closing the connections to the caller.
+     *
+     * @return the connections to close, empty if the queue was terminated already
+     */
+    public List<PooledConnection> terminateAndDrain()
+    {
+        List<PooledConnection> drained = new ArrayList<>();
         if (isTerminating.compareAndSet( false, true ))
         {
-            while ( !queue.isEmpty() )
+            PooledConnection conn;
+            while ( (conn = pollIdle( false )) != null )
             {
-                PooledConnection conn = queue.poll();
-                if ( conn != null )
-                {
-                    //close the underlying connection without adding it back to the queue
-                    conn.dispose();
-                }
+                drain( conn, drained );
             }
-            for ( PooledConnection pooledConnection : acquiredConnections )
+            for ( PooledConnection pooledConnection : connections )
             {
-                pooledConnection.dispose();
+                // acquired connections are disposed of now, and ignored when released
+                release( pooledConnection, DISPOSED );
+                drain( pooledConnection, drained );
             }
+            if ( permits.hasQueuedThreads() )
+            {
+                // wake up callers waiting for a connection, they will find the pool closed
+                permits.release();
+            }
+            signalConnectionAvailable();
+        }
+        return drained;
+    }
+
+    private void drain( PooledConnection pooledConnection, List<PooledConnection> drained )
+    {
+        STATE.set( pooledConnection, DISPOSED );
+        if ( connections.remove( pooledConnection ) )
+        {
+            metrics.connectionClosed();
+            drained.add( pooledConnection );
         }
     }
 }
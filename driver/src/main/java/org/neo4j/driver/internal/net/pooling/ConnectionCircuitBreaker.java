@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+
+import static java.lang.String.format;
+
+/**
+ * Stops connecting to a server for a cool-down period once a number of attempts in a row failed because the server
+ * was unavailable, so that callers fail fast instead of each waiting for a connect to time out.
+ * <p>
+ * After the cool-down a single attempt is let through. If it succeeds connecting is allowed again, otherwise
+ * another cool-down period starts.
+ */
+public class ConnectionCircuitBreaker
+{
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final BoltServerAddress address;
+    private final int failureThreshold;
+    private final long coolDown;
+    private final Clock clock;
+
+    private final AtomicInteger state = new AtomicInteger( CLOSED );
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public ConnectionCircuitBreaker( BoltServerAddress address, int failureThreshold, long coolDown, Clock clock )
+    {
+        this.address = address;
+        this.failureThreshold = failureThreshold;
+        this.coolDown = coolDown;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if a connection may be attempted, every call that does not throw must be followed by a call to either
+     * {@link #connectSucceeded()} or {@link #connectFailed()}.
+     *
+     * @throws ServiceUnavailableException when connecting has been stopped and the cool-down has not yet passed
+     */
+    public void beforeConnect()
+    {
+        int current = state.get();
+        if ( current == CLOSED )
+        {
+            return;
+        }
+        if ( current == OPEN && clock.millis() - openedAt >= coolDown && state.compareAndSet( OPEN, HALF_OPEN ) )
+        {
+            // this caller gets to try
+            return;
+        }
+        throw new ServiceUnavailableException( format(
+                "Not connecting to %s, as the last %d attempts failed because it was unavailable. " +
+                "Connecting will be tried again at most %dms after the last failure.",
+                address, consecutiveFailures.get(), coolDown ) );
+    }
+
+    /**
+     * Record that the server could be reached.
+     */
+    public void connectSucceeded()
+    {
+        consecutiveFailures.set( 0 );
+        state.set( CLOSED );
+    }
+
+    /**
+     * Record that the server was unavailable.
+     */
+    public void connectFailed()
+    {
+        int failures = consecutiveFailures.incrementAndGet();
+        if ( failures >= failureThreshold || state.get() == HALF_OPEN )
+        {
+            openedAt = clock.millis();
+            state.set( OPEN );
+        }
+    }
+
+    public boolean isOpen()
+    {
+        return state.get() != CLOSED;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.driver.v1.Logger;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Closes connections on a bounded number of threads, so that closing many connections takes about as long as the
+ * slowest of them, rather than all of them one after another. Closing a connection to a server that has gone away
+ * can block for a long time, so waiting is capped by a timeout. Connections that are not closed by then are
+ * abandoned and reported.
+ * <p>
+ * Threads are only started while there are connections to close.
+ */
+class ConnectionDisposer
+{
+    private final ThreadPoolExecutor executor;
+    private final long timeout;
+    private final Logger log;
+
+    /**
+     * @param parallelism the max number of connections to close at the same time
+     * @param timeout the max time, in milliseconds, to wait for connections to be closed
+     * @param log to report connections that were abandoned to
+     */
+    ConnectionDisposer( int parallelism, long timeout, Logger log )
+    {
+        this.executor = new ThreadPoolExecutor( parallelism, parallelism, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "neo4j-pool-disposer" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        this.executor.allowCoreThreadTimeOut( true );
+        this.timeout = timeout;
+        this.log = log;
+    }
+
+    /**
+     * Close the given connections, waiting at most the timeout for all of them to be closed.
+     *
+     * @param connections the connections to close
+     * @return the connections that were abandoned, because they were not closed within the timeout
+     */
+    List<PooledConnection> dispose( Collection<PooledConnection> connections )
+    {
+        if ( connections.isEmpty() )
+        {
+            return emptyList();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout );
+        List<PooledConnection> submitted = new ArrayList<>( connections );
+        List<Future<?>> closes = new ArrayList<>( submitted.size() );
+        for ( PooledConnection connection : submitted )
+        {
+            closes.add( submit( connection ) );
+        }
+
+        List<PooledConnection> abandoned = new ArrayList<>();
+        boolean interrupted = false;
+        for ( int i = 0; i < closes.size(); i++ )
+        {
+            Future<?> close = closes.get( i );
+            PooledConnection connection = submitted.get( i );
+            try
+            {
+                if ( interrupted )
+                {
+                    throw new TimeoutException();
+                }
+                close.get( Math.max( 0, deadline - System.nanoTime() ), TimeUnit.NANOSECONDS );
+            }
+            catch ( TimeoutException e )
+            {
+                close.cancel( true );
+                abandoned.add( connection );
+            }
+            catch ( InterruptedException e )
+            {
+                // stop waiting, but still hand out the remaining connections to be closed
+                interrupted = true;
+                close.cancel( true );
+                abandoned.add( connection );
+            }
+            catch ( ExecutionException e )
+            {
+                log.warn( "Failed to close connection to %s: %s", connection.address(),
+                        e.getCause().getMessage() );
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( !abandoned.isEmpty() )
+        {
+            report( abandoned, submitted.size() );
+        }
+        return abandoned;
+    }
+
+    /**
+     * Stop the threads once the connections handed out so far have been closed.
+     */
+    void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    private Future<?> submit( final PooledConnection connection )
+    {
+        Runnable close = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                connection.dispose();
+            }
+        };
+        try
+        {
+            return executor.submit( close );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // shut down already, close the connection on this thread instead
+            FutureTask<Void> task = new FutureTask<>( close, null );
+            task.run();
+            return task;
+        }
+    }
+
+    private void report( List<PooledConnection> abandoned, int total )
+    {
+        Set<String> addresses = new TreeSet<>();
+        for ( PooledConnection connection : abandoned )
+        {
+            addresses.add( String.valueOf( connection.address() ) );
+        }
+        log.warn( "Abandoned closing %d of %d connections, as they were not closed within %dms. " +
+                  "Connections to: %s", abandoned.size(), total, timeout, addresses );
+    }
+}
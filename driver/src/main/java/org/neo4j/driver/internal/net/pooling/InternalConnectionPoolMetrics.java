@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.internal.metrics.DecayingAverage;
+import org.neo4j.driver.internal.metrics.InternalHistogram;
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+import org.neo4j.driver.v1.metrics.Histogram;
+
+/**
+ * Metrics of the connections to a single server, recorded by the {@link BlockingPooledConnectionQueue} and the
+ * {@link SocketConnectionPool}. Outlives the queue, which is replaced when the address is purged, so that counts
+ * keep adding up.
+ */
+public class InternalConnectionPoolMetrics implements ConnectionPoolMetrics
+{
+    /**
+     * Time, in seconds, after which a response time counts for about a third of what it did when it was recorded.
+     */
+    private static final long RESPONSE_TIME_DECAY = 10;
+
+    private final BoltServerAddress address;
+    private volatile BlockingPooledConnectionQueue queue;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong failedToCreate = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong acquisitionWaits = new AtomicLong();
+    private final AtomicLong acquisitionTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong affinityHits = new AtomicLong();
+    private final InternalHistogram acquisitionTime = new InternalHistogram();
+    private final InternalHistogram creationTime = new InternalHistogram();
+    private final DecayingAverage responseTime = new DecayingAverage( RESPONSE_TIME_DECAY, TimeUnit.SECONDS );
+
+    public InternalConnectionPoolMetrics( BoltServerAddress address )
+    {
+        this.address = address;
+    }
+
+    /**
+     * Read idle and in use counts from the given queue from now on.
+     */
+    void attach( BlockingPooledConnectionQueue queue )
+    {
+        this.queue = queue;
+    }
+
+    @Override
+    public String address()
+    {
+        return address == null ? null : address.toString();
+    }
+
+    @Override
+    public int idle()
+    {
+        BlockingPooledConnectionQueue queue = this.queue;
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public int inUse()
+    {
+        BlockingPooledConnectionQueue queue = this.queue;
+        return queue == null ? 0 : queue.activeSize();
+    }
+
+    @Override
+    public long created()
+    {
+        return created.get();
+    }
+
+    @Override
+    public long failedToCreate()
+    {
+        return failedToCreate.get();
+    }
+
+    @Override
+    public long closed()
+    {
+        return closed.get();
+    }
+
+    @Override
+    public long acquisitionTimeouts()
+    {
+        return acquisitionTimeouts.get();
+    }
+
+    @Override
+    public long validationFailures()
+    {
+        return validationFailures.get();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.get();
+    }
+
+    @Override
+    public Histogram acquisitionTime()
+    {
+        return acquisitionTime;
+    }
+
+    @Override
+    public Histogram creationTime()
+    {
+        return creationTime;
+    }
+
+    /**
+     * @return the number of acquisitions that had to wait for a connection to be released
+     */
+    public long acquisitionWaits()
+    {
+        return acquisitionWaits.get();
+    }
+
+    /**
+     * @return the number of acquisitions served with the connection the acquiring thread released last
+     */
+    public long affinityHits()
+    {
+        return affinityHits.get();
+    }
+
+    /**
+     * @return the moving average, in nanoseconds, of the time from sending messages to the server until all their
+     * responses were received, or zero when the server has not responded yet
+     */
+    public double responseTime()
+    {
+        return responseTime.value();
+    }
+
+    void responded( long nanos )
+    {
+        responseTime.record( nanos );
+    }
+
+    void connectionCreated( long nanos )
+    {
+        created.incrementAndGet();
+        creationTime.record( nanos );
+    }
+
+    void connectionFailedToCreate()
+    {
+        failedToCreate.incrementAndGet();
+    }
+
+    void connectionClosed()
+    {
+        closed.incrementAndGet();
+    }
+
+    void acquired( long nanos )
+    {
+        acquisitionTime.record( nanos );
+    }
+
+    void acquisitionWaited()
+    {
+        acquisitionWaits.incrementAndGet();
+    }
+
+    void acquisitionTimedOut()
+    {
+        acquisitionTimeouts.incrementAndGet();
+    }
+
+    void validationFailed()
+    {
+        validationFailures.incrementAndGet();
+    }
+
+    void evicted()
+    {
+        evictions.incrementAndGet();
+    }
+
+    void affinityHit()
+    {
+        affinityHits.incrementAndGet();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectionPoolMetrics{address=" + address + ", idle=" + idle() + ", inUse=" + inUse() +
+               ", created=" + created() + ", closed=" + closed() + ", acquisitionTimeouts=" +
+               acquisitionTimeouts() + ", validationFailures=" + validationFailures() + ", evictions=" +
+               evictions() + "}";
+    }
+}
@@ -19,6 +19,10 @@
 
 package org.neo4j.driver.internal.net.pooling;
 
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.driver.v1.Config.IdleConnectionSelection;
+
 public class PoolSettings
 {
     public static PoolSettings defaultSettings()
@@ -28,6 +32,25 @@ public class PoolSettings
 
     public static final int DEFAULT_MAX_IDLE_CONNECTION_POOL_SIZE = 10;
     public static final long DEFAULT_IDLE_TIME_BEFORE_CONNECTION_TEST = 200;
+    public static final int DEFAULT_MAX_CONNECTION_POOL_SIZE = 100;
+    public static final long DEFAULT_CONNECTION_ACQUISITION_TIMEOUT = 60_000;
+    public static final long DEFAULT_MAX_IDLE_TIME = 30 * 60_000;
+    public static final int DEFAULT_MIN_IDLE_CONNECTION_POOL_SIZE = 0;
+    public static final long DEFAULT_MAINTENANCE_INTERVAL = 5_000;
+    public static final long DEFAULT_MAX_CONNECTION_LIFETIME = 60 * 60_000;
+    public static final boolean DEFAULT_CONNECTION_THREAD_AFFINITY = false;
+    public static final IdleConnectionSelection DEFAULT_IDLE_CONNECTION_SELECTION = IdleConnectionSelection.FIFO;
+    public static final int DEFAULT_MAX_CONCURRENT_CONNECTS = 8;
+    public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_CIRCUIT_BREAKER_COOL_DOWN = 5_000;
+    public static final int DEFAULT_CONNECTION_CLOSE_PARALLELISM = 16;
+    public static final long DEFAULT_CONNECTION_CLOSE_TIMEOUT = 10_000;
+
+    /**
+     * Connection lifetimes are shortened by a random amount of up to this fraction of the max lifetime, so that
+     * connections opened together are not all retired together.
+     */
+    public static final double MAX_CONNECTION_LIFETIME_JITTER = 0.1;
 
     /**
      * Maximum number of idle connections per pool.
@@ -39,10 +62,112 @@ public class PoolSettings
      */
     private final long idleTimeBeforeConnectionTest;
 
+    /**
+     * Maximum number of connections per pool, both idle and in use.
+     */
+    private final int maxConnectionPoolSize;
+
+    /**
+     * Maximum time, in milliseconds, to wait for a connection when the pool has reached its maximum size.
+     */
+    private final long connectionAcquisitionTimeout;
+
+    /**
+     * Idle connections that have been idle longer than this, in milliseconds, are closed by pool maintenance.
+     */
+    private final long maxIdleTime;
+
+    /**
+     * Number of idle connections per pool that pool maintenance keeps open, and opens if needed.
+     */
+    private final int minIdleConnectionPoolSize;
+
+    /**
+     * Time, in milliseconds, between rounds of pool maintenance.
+     */
+    private final long maintenanceInterval;
+
+    /**
+     * Time, in milliseconds, after which a connection is closed rather than reused, before jitter is applied.
+     */
+    private final long maxConnectionLifetime;
+
+    /**
+     * Whether a thread gets back the connection it released last, if that connection is still idle.
+     */
+    private final boolean connectionThreadAffinity;
+
+    /**
+     * Which idle connection to acquire, the least or the most recently used one.
+     */
+    private final IdleConnectionSelection idleConnectionSelection;
+
+    /**
+     * Maximum number of connections per pool that are being opened at the same time.
+     */
+    private final int maxConcurrentConnects;
+
+    /**
+     * Number of attempts in a row to connect to a server that has to fail before connecting is stopped.
+     */
+    private final int circuitBreakerFailureThreshold;
+
+    /**
+     * Time, in milliseconds, to stop connecting to a server for after repeated failures.
+     */
+    private final long circuitBreakerCoolDown;
+
+    /**
+     * Maximum number of connections that are closed at the same time when the pool is closed or purged.
+     */
+    private final int connectionCloseParallelism;
+
+    /**
+     * Maximum time, in milliseconds, to wait for connections to be closed when the pool is closed or purged.
+     */
+    private final long connectionCloseTimeout;
+
     public PoolSettings( int maxIdleConnectionPoolSize, long idleTimeBeforeConnectionTest )
+    {
+        this( maxIdleConnectionPoolSize, idleTimeBeforeConnectionTest, DEFAULT_MAX_CONNECTION_POOL_SIZE,
+                DEFAULT_CONNECTION_ACQUISITION_TIMEOUT, DEFAULT_MAX_IDLE_TIME, DEFAULT_MIN_IDLE_CONNECTION_POOL_SIZE,
+                DEFAULT_MAINTENANCE_INTERVAL, DEFAULT_MAX_CONNECTION_LIFETIME );
+    }
+
+    public PoolSettings( int maxIdleConnectionPoolSize, long idleTimeBeforeConnectionTest, int maxConnectionPoolSize,
+            long connectionAcquisitionTimeout, long maxIdleTime, int minIdleConnectionPoolSize,
+            long maintenanceInterval, long maxConnectionLifetime )
+    {
+        this( maxIdleConnectionPoolSize, idleTimeBeforeConnectionTest, maxConnectionPoolSize,
+                connectionAcquisitionTimeout, maxIdleTime, minIdleConnectionPoolSize, maintenanceInterval,
+                maxConnectionLifetime, DEFAULT_CONNECTION_THREAD_AFFINITY, DEFAULT_IDLE_CONNECTION_SELECTION,
+                DEFAULT_MAX_CONCURRENT_CONNECTS, DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                DEFAULT_CIRCUIT_BREAKER_COOL_DOWN, DEFAULT_CONNECTION_CLOSE_PARALLELISM,
+                DEFAULT_CONNECTION_CLOSE_TIMEOUT );
+    }
+
+    public PoolSettings( int maxIdleConnectionPoolSize, long idleTimeBeforeConnectionTest, int maxConnectionPoolSize,
+            long connectionAcquisitionTimeout, long maxIdleTime, int minIdleConnectionPoolSize,
+            long maintenanceInterval, long maxConnectionLifetime, boolean connectionThreadAffinity,
+            IdleConnectionSelection idleConnectionSelection, int maxConcurrentConnects,
+            int circuitBreakerFailureThreshold, long circuitBreakerCoolDown, int connectionCloseParallelism,
+            long connectionCloseTimeout )
     {
         this.maxIdleConnectionPoolSize = maxIdleConnectionPoolSize;
         this.idleTimeBeforeConnectionTest = idleTimeBeforeConnectionTest;
+        this.maxConnectionPoolSize = maxConnectionPoolSize;
+        this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+        this.maxIdleTime = maxIdleTime;
+        this.minIdleConnectionPoolSize = minIdleConnectionPoolSize;
+        this.maintenanceInterval = maintenanceInterval;
+        this.maxConnectionLifetime = maxConnectionLifetime;
+        this.connectionThreadAffinity = connectionThreadAffinity;
+        this.idleConnectionSelection = idleConnectionSelection;
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+        this.circuitBreakerCoolDown = circuitBreakerCoolDown;
+        this.connectionCloseParallelism = connectionCloseParallelism;
+        this.connectionCloseTimeout = connectionCloseTimeout;
     }
 
     public int maxIdleConnectionPoolSize()
@@ -55,4 +180,78 @@ public class PoolSettings
         return idleTimeBeforeConnectionTest;
     }
 
+    public int maxConnectionPoolSize()
+    {
+        return maxConnectionPoolSize;
+    }
+
+    public long connectionAcquisitionTimeout()
+    {
+        return connectionAcquisitionTimeout;
+    }
+
+    public long maxIdleTime()
+    {
+        return maxIdleTime;
+    }
+
+    public int minIdleConnectionPoolSize()
+    {
+        return minIdleConnectionPoolSize;
+    }
+
+    public long maintenanceInterval()
+    {
+        return maintenanceInterval;
+    }
+
+    public long maxConnectionLifetime()
+    {
+        return maxConnectionLifetime;
+    }
+
+    public boolean connectionThreadAffinity()
+    {
+        return connectionThreadAffinity;
+    }
+
+    public IdleConnectionSelection idleConnectionSelection()
+    {
+        return idleConnectionSelection;
+    }
+
+    public int maxConcurrentConnects()
+    {
+        return maxConcurrentConnects;
+    }
+
+    public int circuitBreakerFailureThreshold()
+    {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public long circuitBreakerCoolDown()
+    {
+        return circuitBreakerCoolDown;
+    }
+
+    public int connectionCloseParallelism()
+    {
+        return connectionCloseParallelism;
+    }
+
+    public long connectionCloseTimeout()
+    {
+        return connectionCloseTimeout;
+    }
+
+    /**
+     * @return the max lifetime for a new connection, shortened by a random amount of jitter
+     */
+    public long jitteredConnectionLifetime()
+    {
+        double jitter = ThreadLocalRandom.current().nextDouble() * MAX_CONNECTION_LIFETIME_JITTER;
+        return maxConnectionLifetime - (long) (maxConnectionLifetime * jitter);
+    }
+
 }
@@ -47,6 +47,10 @@ import org.neo4j.driver.v1.exceptions.Neo4jException;
  *                    ---- Available <-----                     |
  *                              |           pool.close          |
  *                              ---------------------------------
+ *
+ * A connection returned to the pool is not reset straight away. Instead it remembers whether the server might
+ * still hold state for it, an open transaction or an unacknowledged failure, and RESET is queued in front of the
+ * first message of whoever acquires it next, so that both are sent in the same flush.
  */
 public class PooledConnection implements Connection
 {
@@ -55,16 +59,43 @@ public class PooledConnection implements Connection
     private final Consumer<PooledConnection> release;
 
     private boolean unrecoverableErrorsOccurred = false;
+    private boolean resetNeeded = false;
     private Runnable onError = null;
     private final Clock clock;
     private long lastUsed;
+    private long lastTested;
+    private final long expiresAt;
+    private final InternalConnectionPoolMetrics metrics;
+
+    /** Whether this connection is idle or acquired, owned by {@link BlockingPooledConnectionQueue} */
+    volatile int poolState;
 
     public PooledConnection( Connection delegate, Consumer<PooledConnection> release, Clock clock )
+    {
+        this( delegate, release, clock, Long.MAX_VALUE );
+    }
+
+    /**
+     * @param lifetime time in milliseconds after which the connection should no longer be used
+     */
+    public PooledConnection( Connection delegate, Consumer<PooledConnection> release, Clock clock, long lifetime )
+    {
+        this( delegate, release, clock, lifetime, null );
+    }
+
+    /**
+     * @param lifetime time in milliseconds after which the connection should no longer be used
+     * @param metrics to record response times to, or null
+     */
+    public PooledConnection( Connection delegate, Consumer<PooledConnection> release, Clock clock, long lifetime,
+            InternalConnectionPoolMetrics metrics )
     {
         this.delegate = delegate;
+        this.metrics = metrics;
         this.release = release;
         this.clock = clock;
         this.lastUsed = clock.millis();
+        this.expiresAt = lifetime >= Long.MAX_VALUE - lastUsed ? Long.MAX_VALUE : lastUsed + lifetime;
     }
 
     public void updateTimestamp()
@@ -89,6 +120,7 @@ public class PooledConnection implements Connection
     public void run( String statement, Map<String,Value> parameters,
             Collector collector )
     {
+        trackTransaction( statement );
         try
         {
             delegate.run( statement, parameters, collector );
@@ -128,6 +160,7 @@ public class PooledConnection implements Connection
     @Override
     public void reset()
     {
+        resetNeeded = false;
         try
         {
             delegate.reset();
@@ -156,7 +189,16 @@ public class PooledConnection implements Connection
     {
         try
         {
-            delegate.sync();
+            if ( metrics == null )
+            {
+                delegate.sync();
+            }
+            else
+            {
+                long start = System.nanoTime();
+                delegate.sync();
+                metrics.responded( System.nanoTime() - start );
+            }
         }
         catch ( RuntimeException e )
         {
@@ -216,6 +258,7 @@ public class PooledConnection implements Connection
     @Override
     public void resetAsync()
     {
+        resetNeeded = true;
         try
         {
             delegate.resetAsync();
@@ -255,6 +298,35 @@ public class PooledConnection implements Connection
         delegate.close();
     }
 
+    /**
+     * Queue a RESET, without sending it, if the server might hold state left over from the previous user of this
+     * connection. It is sent together with the next message.
+     */
+    public void resetIfNeeded()
+    {
+        if ( resetNeeded )
+        {
+            reset();
+        }
+    }
+
+    public boolean isResetNeeded()
+    {
+        return resetNeeded;
+    }
+
+    private void trackTransaction( String statement )
+    {
+        if ( "BEGIN".equals( statement ) )
+        {
+            resetNeeded = true;
+        }
+        else if ( "COMMIT".equals( statement ) || "ROLLBACK".equals( statement ) )
+        {
+            resetNeeded = false;
+        }
+    }
+
     /**
      * If something goes wrong with the delegate, we want to figure out if this "wrong" is something that means
      * the connection is screwed (and thus should be evicted from the pool), or if it's something that we can
@@ -263,6 +335,7 @@ public class PooledConnection implements Connection
      */
     private void onDelegateException( RuntimeException e )
     {
+        resetNeeded = true;
         if ( !isClientOrTransientError( e ) || isProtocolViolationError( e ) )
         {
             unrecoverableErrorsOccurred = true;
@@ -302,4 +375,34 @@ public class PooledConnection implements Connection
     {
         return clock.millis() - lastUsed;
     }
+
+    /**
+     * Record a successful liveness test. Unlike {@link #updateTimestamp()} this does not make the connection any
+     * less idle, so that testing a connection does not keep it from being closed for being idle too long.
+     */
+    public void markTested()
+    {
+        lastTested = clock.millis();
+    }
+
+    /**
+     * @return time in milliseconds since this connection was last used or tested, whichever happened last
+     */
+    public long untestedTime()
+    {
+        return clock.millis() - Math.max( lastUsed, lastTested );
+    }
+
+    /**
+     * @return time in milliseconds until this connection reaches its max lifetime, zero or less once it has
+     */
+    public long lifetimeRemaining()
+    {
+        return expiresAt == Long.MAX_VALUE ? Long.MAX_VALUE : expiresAt - clock.millis();
+    }
+
+    public boolean hasExpired()
+    {
+        return lifetimeRemaining() <= 0;
+    }
 }
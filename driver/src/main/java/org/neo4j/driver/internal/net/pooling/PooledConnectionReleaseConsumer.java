@@ -44,11 +44,14 @@ class PooledConnectionReleaseConsumer implements Consumer<PooledConnection>
     {
         if ( validConnection.apply( pooledConnection ) )
         {
+            // idle time is measured from when the connection was returned
+            pooledConnection.updateTimestamp();
             connections.offer( pooledConnection );
         }
         else
         {
-            pooledConnection.dispose();
+            connections.metrics().validationFailed();
+            connections.dispose( pooledConnection );
         }
     }
 }
@@ -43,38 +43,33 @@ class PooledConnectionValidator implements Function<PooledConnection,Boolean>
     {
         // once the pooledConn has marked to have unrecoverable errors, there is no way to remove the error
         // and we should close the conn without bothering to reset the conn at all
+        // a connection that needs a RESET gets it when next acquired, sent together with the first statement
         return pool.hasAddress( pooledConnection.address() ) &&
                !pooledConnection.hasUnrecoverableErrors() &&
-               reset( pooledConnection ) &&
-               (pooledConnection.idleTime() <= poolSettings.idleTimeBeforeConnectionTest() ||
-                ping( pooledConnection ));
+               !pooledConnection.hasExpired();
     }
 
     /**
-     * In case this session has an open result or transaction or something,
-     * make sure it's reset to a nice state before we reuse it.
-     *
-     * @param conn the PooledConnection
-     * @return true if the connection is reset successfully without any error, otherwise false.
+     * Liveness test for idle connections, used by pool maintenance rather than on release so that releasing a
+     * connection never waits for a round-trip to the server.
      */
-    private boolean reset( PooledConnection conn )
+    Function<PooledConnection,Boolean> liveness()
     {
-        try
-        {
-            conn.reset();
-            conn.sync();
-            return true;
-        }
-        catch ( Throwable e )
+        return new Function<PooledConnection,Boolean>()
         {
-            return false;
-        }
+            @Override
+            public Boolean apply( PooledConnection pooledConnection )
+            {
+                return ping( pooledConnection );
+            }
+        };
     }
 
     private boolean ping( PooledConnection conn )
     {
         try
         {
+            conn.resetIfNeeded();
             conn.run( "RETURN 1 // JavaDriver poll to test connection", NO_PARAMETERS, Collector.NO_OP );
             conn.pullAll( Collector.NO_OP );
             conn.sync();
@@ -18,9 +18,16 @@
  */
 package org.neo4j.driver.internal.net.pooling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.driver.internal.ConnectionSettings;
@@ -35,9 +42,14 @@ import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Supplier;
 import org.neo4j.driver.v1.AuthToken;
 import org.neo4j.driver.v1.AuthTokens;
+import org.neo4j.driver.v1.Config.IdleConnectionSelection;
+import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.Logging;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+import org.neo4j.driver.v1.metrics.Metrics;
 
 import static java.util.Collections.emptyList;
 
@@ -52,6 +64,9 @@ import static java.util.Collections.emptyList;
  * <p>
  * The driver is thread safe. Each thread could try to get a session from the pool and then return it to the pool
  * at the same time.
+ * <p>
+ * Idle connections are maintained by a background thread, which tests, closes and opens them as configured in the
+ * {@link PoolSettings}, so that acquiring and releasing a connection never involves a liveness check.
  */
 public class SocketConnectionPool implements ConnectionPool
 {
@@ -61,12 +76,29 @@ public class SocketConnectionPool implements ConnectionPool
     private final ConcurrentHashMap<BoltServerAddress,BlockingPooledConnectionQueue> pools =
             new ConcurrentHashMap<>();
 
+    /**
+     * Circuit breakers, organized by server address. Unlike pools these are kept when an address is purged, as
+     * purging usually follows the very failures they count.
+     */
+    private final ConcurrentHashMap<BoltServerAddress,ConnectionCircuitBreaker> circuitBreakers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Metrics, organized by server address. Kept when an address is purged, so that counts keep adding up.
+     */
+    private final ConcurrentHashMap<BoltServerAddress,InternalConnectionPoolMetrics> metrics =
+            new ConcurrentHashMap<>();
+
     private final Clock clock = Clock.SYSTEM;
 
     private final ConnectionSettings connectionSettings;
     private final SecurityPlan securityPlan;
     private final PoolSettings poolSettings;
     private final Logging logging;
+    private final Logger log;
+    private final PooledConnectionValidator validator;
+    private final ScheduledExecutorService maintenance;
+    private final ConnectionDisposer disposer;
 
     /** Shutdown flag */
 
@@ -77,11 +109,51 @@ public class SocketConnectionPool implements ConnectionPool
         this.securityPlan = securityPlan;
         this.poolSettings = poolSettings;
         this.logging = logging;
+        this.log = logging.getLog( "pool" );
+        this.validator = new PooledConnectionValidator( this, poolSettings );
+        this.disposer = new ConnectionDisposer( poolSettings.connectionCloseParallelism(),
+                poolSettings.connectionCloseTimeout(), log );
+        this.maintenance = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "neo4j-pool-maintenance" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        this.maintenance.scheduleWithFixedDelay( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                maintain();
+            }
+        }, poolSettings.maintenanceInterval(), poolSettings.maintenanceInterval(), TimeUnit.MILLISECONDS );
     }
 
     private Connection connect( BoltServerAddress address ) throws ClientException
     {
-        Connection conn = new SocketConnection( address, securityPlan, logging );
+        ConnectionCircuitBreaker circuitBreaker = circuitBreaker( address );
+        circuitBreaker.beforeConnect();
+        Connection conn;
+        try
+        {
+            conn = new SocketConnection( address, securityPlan, logging );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            circuitBreaker.connectFailed();
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            // the server could be reached, whatever else went wrong
+            circuitBreaker.connectSucceeded();
+            throw e;
+        }
+        circuitBreaker.connectSucceeded();
 
         // Because SocketConnection is not thread safe, wrap it in this guard
         // to ensure concurrent access leads causes application errors
@@ -107,21 +179,110 @@ public class SocketConnectionPool implements ConnectionPool
     @Override
     public Connection acquire( final BoltServerAddress address )
     {
-        final BlockingPooledConnectionQueue connections = pool( address );
-        Supplier<PooledConnection> supplier = new Supplier<PooledConnection>()
+        BlockingPooledConnectionQueue connections = pool( address );
+        return acquire( connections, connectionSupplier( address, connections ) );
+    }
+
+    static PooledConnection acquire( BlockingPooledConnectionQueue connections, Supplier<PooledConnection> supplier )
+    {
+        PooledConnection conn = connections.acquire( supplier );
+        while ( conn.hasExpired() )
+        {
+            // idle connections may outlive their lifetime between two maintenance rounds
+            connections.dispose( conn );
+            conn = connections.acquire( supplier );
+        }
+        try
+        {
+            conn.updateTimestamp();
+            conn.resetIfNeeded();
+        }
+        catch ( RuntimeException e )
+        {
+            // the connection was taken out of the queue, so give its place back before handing out the failure
+            connections.dispose( conn );
+            throw e;
+        }
+        return conn;
+    }
+
+    private Supplier<PooledConnection> connectionSupplier( final BoltServerAddress address,
+            final BlockingPooledConnectionQueue connections )
+    {
+        return new Supplier<PooledConnection>()
         {
             @Override
             public PooledConnection get()
             {
-                return new PooledConnection( connect( address ), new
-                        PooledConnectionReleaseConsumer( connections,
-                        new PooledConnectionValidator( SocketConnectionPool.this, poolSettings ) ), clock );
-
+                InternalConnectionPoolMetrics metrics = connections.metrics();
+                long start = System.nanoTime();
+                Connection connection;
+                try
+                {
+                    connection = connect( address );
+                }
+                catch ( Throwable e )
+                {
+                    metrics.connectionFailedToCreate();
+                    throw e;
+                }
+                metrics.connectionCreated( System.nanoTime() - start );
+                return new PooledConnection( connection,
+                        new PooledConnectionReleaseConsumer( connections, validator ), clock,
+                        poolSettings.jitteredConnectionLifetime(), metrics );
             }
         };
-        PooledConnection conn = connections.acquire( supplier );
-        conn.updateTimestamp();
-        return conn;
+    }
+
+    /**
+     * Run one round of maintenance on the idle connections of every pool.
+     */
+    void maintain()
+    {
+        for ( Map.Entry<BoltServerAddress,BlockingPooledConnectionQueue> entry : pools.entrySet() )
+        {
+            BoltServerAddress address = entry.getKey();
+            BlockingPooledConnectionQueue connections = entry.getValue();
+            try
+            {
+                connections.maintain( poolSettings, validator.liveness(), connectionSupplier( address, connections ) );
+            }
+            catch ( Throwable e )
+            {
+                log.warn( "Failed to maintain connection pool for %s: %s", address, e.getMessage() );
+            }
+        }
+    }
+
+    private ConnectionCircuitBreaker circuitBreaker( BoltServerAddress address )
+    {
+        ConnectionCircuitBreaker circuitBreaker = circuitBreakers.get( address );
+        if ( circuitBreaker == null )
+        {
+            circuitBreaker = new ConnectionCircuitBreaker( address, poolSettings.circuitBreakerFailureThreshold(),
+                    poolSettings.circuitBreakerCoolDown(), clock );
+            ConnectionCircuitBreaker existing = circuitBreakers.putIfAbsent( address, circuitBreaker );
+            if ( existing != null )
+            {
+                return existing;
+            }
+        }
+        return circuitBreaker;
+    }
+
+    private InternalConnectionPoolMetrics metrics( BoltServerAddress address )
+    {
+        InternalConnectionPoolMetrics addressMetrics = metrics.get( address );
+        if ( addressMetrics == null )
+        {
+            addressMetrics = new InternalConnectionPoolMetrics( address );
+            InternalConnectionPoolMetrics existing = metrics.putIfAbsent( address, addressMetrics );
+            if ( existing != null )
+            {
+                return existing;
+            }
+        }
+        return addressMetrics;
     }
 
     private BlockingPooledConnectionQueue pool( BoltServerAddress address )
@@ -129,13 +290,18 @@ public class SocketConnectionPool implements ConnectionPool
         BlockingPooledConnectionQueue pool = pools.get( address );
         if ( pool == null )
         {
-            pool = new BlockingPooledConnectionQueue( poolSettings.maxIdleConnectionPoolSize() );
+            pool = new BlockingPooledConnectionQueue( poolSettings.maxIdleConnectionPoolSize(),
+                    poolSettings.maxConnectionPoolSize(), poolSettings.connectionAcquisitionTimeout(),
+                    poolSettings.connectionThreadAffinity(),
+                    poolSettings.idleConnectionSelection() == IdleConnectionSelection.LIFO,
+                    poolSettings.maxConcurrentConnects(), metrics( address ) );
 
             if ( pools.putIfAbsent( address, pool ) != null )
             {
                 // We lost a race to create the pool, dispose of the one we created, and recurse
                 return pool( address );
             }
+            pool.metrics().attach( pool );
         }
         return pool;
     }
@@ -149,7 +315,7 @@ public class SocketConnectionPool implements ConnectionPool
             return;
         }
 
-        connections.terminate();
+        disposer.dispose( connections.terminateAndDrain() );
     }
 
     @Override
@@ -158,15 +324,58 @@ public class SocketConnectionPool implements ConnectionPool
         return pools.containsKey( address );
     }
 
+    @Override
+    public int activeConnections( BoltServerAddress address )
+    {
+        BlockingPooledConnectionQueue connections = pools.get( address );
+        return connections == null ? 0 : connections.activeSize();
+    }
+
+    @Override
+    public boolean hasCapacity( BoltServerAddress address )
+    {
+        BlockingPooledConnectionQueue connections = pools.get( address );
+        return connections == null || !connections.isExhausted();
+    }
+
+    @Override
+    public double responseTime( BoltServerAddress address )
+    {
+        InternalConnectionPoolMetrics addressMetrics = metrics.get( address );
+        return addressMetrics == null ? 0 : addressMetrics.responseTime();
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return new Metrics()
+        {
+            @Override
+            public Map<String,ConnectionPoolMetrics> connectionPoolMetrics()
+            {
+                Map<String,ConnectionPoolMetrics> connectionPoolMetrics = new HashMap<>();
+                for ( InternalConnectionPoolMetrics addressMetrics : metrics.values() )
+                {
+                    connectionPoolMetrics.put( addressMetrics.address(), addressMetrics );
+                }
+                return Collections.unmodifiableMap( connectionPoolMetrics );
+            }
+        };
+    }
+
     @Override
     public void close()
     {
+        maintenance.shutdownNow();
+        List<PooledConnection> connections = new ArrayList<>();
         for ( BlockingPooledConnectionQueue pool : pools.values() )
         {
-            pool.terminate();
+            connections.addAll( pool.terminateAndDrain() );
         }
 
         pools.clear();
+        disposer.dispose( connections );
+        disposer.shutdown();
     }
 
 
@@ -424,6 +424,7 @@ public class PackStream
 
     public static class Unpacker
     {
+        private final byte[] skipBuffer = new byte[64];
         private PackInput in;
 
         public Unpacker( PackInput in )
@@ -604,6 +605,78 @@ public class PackStream
             }
         }
 
+        /**
+         * Move past the next value, including everything nested in it, without materializing anything.
+         */
+        public void skip() throws IOException
+        {
+            switch ( peekNextType() )
+            {
+                case NULL: unpackNull(); return;
+                case BOOLEAN: unpackBoolean(); return;
+                case INTEGER: unpackLong(); return;
+                case FLOAT: unpackDouble(); return;
+                case BYTES:
+                case STRING: skipBytes( unpackSizeOfBytesOrString() ); return;
+                case LIST:
+                {
+                    long size = unpackListHeader();
+                    for ( long i = 0; i < size; i++ )
+                    {
+                        skip();
+                    }
+                    return;
+                }
+                case MAP:
+                {
+                    long size = unpackMapHeader();
+                    for ( long i = 0; i < size * 2; i++ )
+                    {
+                        skip();
+                    }
+                    return;
+                }
+                case STRUCT:
+                {
+                    long size = unpackStructHeader();
+                    unpackStructSignature();
+                    for ( long i = 0; i < size; i++ )
+                    {
+                        skip();
+                    }
+                }
+            }
+        }
+
+        private long unpackSizeOfBytesOrString() throws IOException
+        {
+            final byte markerByte = in.readByte();
+            final byte markerHighNibble = (byte) (markerByte & 0xF0);
+            final byte markerLowNibble = (byte) (markerByte & 0x0F);
+
+            if ( markerHighNibble == TINY_STRING ) { return markerLowNibble; }
+            switch(markerByte)
+            {
+                case BYTES_8:
+                case STRING_8: return unpackUINT8();
+                case BYTES_16:
+                case STRING_16: return unpackUINT16();
+                case BYTES_32:
+                case STRING_32: return unpackUINT32();
+                default: throw new Unexpected( "Expected a string or binary data, but got: 0x" + toHexString( markerByte & 0xFF ));
+            }
+        }
+
+        private void skipBytes( long size ) throws IOException
+        {
+            while ( size > 0 )
+            {
+                int chunk = (int) Math.min( size, skipBuffer.length );
+                in.readBytes( skipBuffer, 0, chunk );
+                size -= chunk;
+            }
+        }
+
         private int unpackUINT8() throws IOException
         {
             return in.readByte() & 0xFF;
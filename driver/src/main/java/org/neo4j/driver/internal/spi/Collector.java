@@ -18,8 +18,11 @@
  */
 package org.neo4j.driver.internal.spi;
 
+import java.io.IOException;
 import java.util.List;
 
+import org.neo4j.driver.internal.messaging.EntityCache;
+import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
@@ -114,6 +117,18 @@ public interface Collector
         @Override
         public void record( Value[] fields ) {}
 
+        @Override
+        public boolean record( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+        {
+            return false;
+        }
+
+        @Override
+        public EntityCache entityCache()
+        {
+            return null;
+        }
+
         @Override
         public void statementType( StatementType type ) {}
 
@@ -169,6 +184,20 @@ public interface Collector
 
     void record( Value[] fields );
 
+    /**
+     * Offered the fields of a record before they are decoded, see
+     * {@link org.neo4j.driver.internal.messaging.RawRecordHandler}.
+     *
+     * @return true if all fields have been consumed from the unpacker, false if {@link #record(Value[])}
+     * should be called with the decoded fields instead
+     */
+    boolean record( PackStream.Unpacker unpacker, int fieldCount ) throws IOException;
+
+    /**
+     * @return the cache to decode the graph entities of records against, or null if entities should not be shared
+     */
+    EntityCache entityCache();
+
     void statementType( StatementType type);
 
     void statementStatistics( SummaryCounters statistics );
@@ -20,6 +20,7 @@
 package org.neo4j.driver.internal.spi;
 
 import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.v1.metrics.Metrics;
 
 public interface ConnectionPool extends AutoCloseable
 {
@@ -38,4 +39,27 @@ public interface ConnectionPool extends AutoCloseable
     void purge( BoltServerAddress address );
 
     boolean hasAddress( BoltServerAddress address );
+
+    /**
+     * @param address the address of the server
+     * @return the number of connections to the server that are currently in use
+     */
+    int activeConnections( BoltServerAddress address );
+
+    /**
+     * @param address the address of the server
+     * @return {@code false} if every connection the pool may have to the server is currently in use
+     */
+    boolean hasCapacity( BoltServerAddress address );
+
+    /**
+     * @param address the address of the server
+     * @return the moving average, in nanoseconds, of how long the server took to respond, or zero when unknown
+     */
+    double responseTime( BoltServerAddress address );
+
+    /**
+     * @return the metrics of the connections to every address
+     */
+    Metrics metrics();
 }
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.neo4j.driver.internal.messaging.EntityCache;
+import org.neo4j.driver.internal.packstream.PackStream;
 import org.neo4j.driver.internal.spi.Collector;
 import org.neo4j.driver.v1.Statement;
 import org.neo4j.driver.v1.Value;
@@ -63,6 +65,18 @@ public class SummaryBuilder implements Collector
         // intentionally empty
     }
 
+    @Override
+    public boolean record( PackStream.Unpacker unpacker, int fieldCount )
+    {
+        return false;
+    }
+
+    @Override
+    public EntityCache entityCache()
+    {
+        return null;
+    }
+
     public void statementType( StatementType type )
     {
         if ( this.type == null )
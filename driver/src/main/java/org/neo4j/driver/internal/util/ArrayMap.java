@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map with string keys, stored as two parallel arrays instead of a hash table.
+ *
+ * Small maps keep keys in insertion order and are searched linearly, larger maps keep keys sorted and use binary
+ * search. Apart from the two arrays nothing is allocated per entry, which makes this considerably more compact than
+ * a {@link java.util.HashMap} for the handful of properties a typical node or relationship has.
+ *
+ * @param <V> the type of mapped values
+ */
+public final class ArrayMap<V> extends AbstractMap<String,V>
+{
+    static final int LINEAR_SEARCH_LIMIT = 8;
+
+    private static final ArrayMap<?> EMPTY = new ArrayMap<>( new String[0], new Object[0] );
+
+    private final String[] keys;
+    private final Object[] values;
+
+    private ArrayMap( String[] keys, Object[] values )
+    {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public static <V> ArrayMap<V> empty()
+    {
+        return (ArrayMap<V>) EMPTY;
+    }
+
+    /**
+     * Create a map from the given keys and values, taking ownership of both arrays. As with repeated calls to
+     * {@link java.util.Map#put(Object, Object)}, the last value wins when a key occurs more than once.
+     */
+    public static <V> ArrayMap<V> of( String[] keys, V[] values )
+    {
+        if ( keys.length != values.length )
+        {
+            throw new IllegalArgumentException( "Expected as many keys as values, got " +
+                                                keys.length + " keys and " + values.length + " values" );
+        }
+        if ( keys.length == 0 )
+        {
+            return empty();
+        }
+        if ( keys.length <= LINEAR_SEARCH_LIMIT )
+        {
+            return withoutDuplicates( keys, values );
+        }
+        return sorted( keys, values );
+    }
+
+    @Override
+    public int size()
+    {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return indexOf( key ) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public V get( Object key )
+    {
+        int index = indexOf( key );
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>()
+        {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new ArrayIterator<String>()
+                {
+                    @Override
+                    String get( int index )
+                    {
+                        return keys[index];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains( Object o )
+            {
+                return containsKey( o );
+            }
+
+            @Override
+            public int size()
+            {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values()
+    {
+        return new AbstractList<V>()
+        {
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public V get( int index )
+            {
+                return (V) values[index];
+            }
+
+            @Override
+            public int size()
+            {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String,V>> entrySet()
+    {
+        return new AbstractSet<Entry<String,V>>()
+        {
+            @Override
+            public Iterator<Entry<String,V>> iterator()
+            {
+                return new ArrayIterator<Entry<String,V>>()
+                {
+                    @Override
+                    @SuppressWarnings( "unchecked" )
+                    Entry<String,V> get( int index )
+                    {
+                        return new SimpleImmutableEntry<>( keys[index], (V) values[index] );
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf( Object key )
+    {
+        if ( !(key instanceof String) )
+        {
+            return -1;
+        }
+        if ( keys.length <= LINEAR_SEARCH_LIMIT )
+        {
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( keys[i].equals( key ) )
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        return Arrays.binarySearch( keys, key );
+    }
+
+    private static <V> ArrayMap<V> withoutDuplicates( String[] keys, V[] values )
+    {
+        int size = 0;
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            if ( !occursAfter( keys, i ) )
+            {
+                keys[size] = keys[i];
+                values[size] = values[i];
+                size++;
+            }
+        }
+        if ( size < keys.length )
+        {
+            return new ArrayMap<>( Arrays.copyOf( keys, size ), Arrays.copyOf( values, size, Object[].class ) );
+        }
+        return new ArrayMap<>( keys, values );
+    }
+
+    private static boolean occursAfter( String[] keys, int index )
+    {
+        for ( int i = index + 1; i < keys.length; i++ )
+        {
+            if ( keys[i].equals( keys[index] ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <V> ArrayMap<V> sorted( final String[] keys, V[] values )
+    {
+        Integer[] order = new Integer[keys.length];
+        for ( int i = 0; i < order.length; i++ )
+        {
+            order[i] = i;
+        }
+        // stable, so the last of several equal keys stays last
+        Arrays.sort( order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare( Integer a, Integer b )
+            {
+                return keys[a].compareTo( keys[b] );
+            }
+        } );
+
+        String[] sortedKeys = new String[keys.length];
+        Object[] sortedValues = new Object[keys.length];
+        int size = 0;
+        for ( int i = 0; i < order.length; i++ )
+        {
+            String key = keys[order[i]];
+            if ( size > 0 && sortedKeys[size - 1].equals( key ) )
+            {
+                size--;
+            }
+            sortedKeys[size] = key;
+            sortedValues[size] = values[order[i]];
+            size++;
+        }
+        if ( size < keys.length )
+        {
+            sortedKeys = Arrays.copyOf( sortedKeys, size );
+            sortedValues = Arrays.copyOf( sortedValues, size );
+        }
+        return new ArrayMap<>( sortedKeys, sortedValues );
+    }
+
+    private abstract class ArrayIterator<T> implements Iterator<T>
+    {
+        private int index;
+
+        abstract T get( int index );
+
+        @Override
+        public boolean hasNext()
+        {
+            return index < keys.length;
+        }
+
+        @Override
+        public T next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            return get( index++ );
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
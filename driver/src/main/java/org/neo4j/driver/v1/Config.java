@@ -19,6 +19,8 @@
 package org.neo4j.driver.v1;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
@@ -54,6 +56,20 @@ public class Config
     /** Connections that have been idle longer than this threshold will have a ping test performed on them. */
     private final long idleTimeBeforeConnectionTest;
 
+    private final int maxConnectionPoolSize;
+    private final long connectionAcquisitionTimeoutMillis;
+    private final long maxIdleTimeMillis;
+    private final int minIdleConnectionPoolSize;
+    private final long poolMaintenanceIntervalMillis;
+    private final long maxConnectionLifetimeMillis;
+    private final boolean connectionThreadAffinity;
+    private final IdleConnectionSelection idleConnectionSelection;
+    private final int maxConcurrentConnects;
+    private final int circuitBreakerFailureThreshold;
+    private final long circuitBreakerCoolDownMillis;
+    private final int connectionCloseParallelism;
+    private final long connectionCloseTimeoutMillis;
+
     /** Level of encryption we need to adhere to */
     private final EncryptionLevel encryptionLevel;
 
@@ -65,6 +81,18 @@ public class Config
 
     private final int routingFailureLimit;
     private final long routingRetryDelayMillis;
+    private final LoadBalancingStrategy loadBalancingStrategy;
+    private final int routingDiscoveryParallelism;
+    private final File routingTableCache;
+    private final long serverProbeInitialDelayMillis;
+    private final long serverProbeMaxDelayMillis;
+    private final long slowStartMillis;
+    private final double maxEjectedServerShare;
+    private final long serverEjectionTimeMillis;
+    private final String localZone;
+    private final ZoneResolver zoneResolver;
+    private final double hedgedReadPercentile;
+    private final double hedgedReadBudget;
 
     private Config( ConfigBuilder builder)
     {
@@ -72,11 +100,36 @@ public class Config
 
         this.maxIdleConnectionPoolSize = builder.maxIdleConnectionPoolSize;
         this.idleTimeBeforeConnectionTest = builder.idleTimeBeforeConnectionTest;
+        this.maxConnectionPoolSize = builder.maxConnectionPoolSize;
+        this.connectionAcquisitionTimeoutMillis = builder.connectionAcquisitionTimeoutMillis;
+        this.maxIdleTimeMillis = builder.maxIdleTimeMillis;
+        this.minIdleConnectionPoolSize = builder.minIdleConnectionPoolSize;
+        this.poolMaintenanceIntervalMillis = builder.poolMaintenanceIntervalMillis;
+        this.maxConnectionLifetimeMillis = builder.maxConnectionLifetimeMillis;
+        this.connectionThreadAffinity = builder.connectionThreadAffinity;
+        this.idleConnectionSelection = builder.idleConnectionSelection;
+        this.maxConcurrentConnects = builder.maxConcurrentConnects;
+        this.circuitBreakerFailureThreshold = builder.circuitBreakerFailureThreshold;
+        this.circuitBreakerCoolDownMillis = builder.circuitBreakerCoolDownMillis;
+        this.connectionCloseParallelism = builder.connectionCloseParallelism;
+        this.connectionCloseTimeoutMillis = builder.connectionCloseTimeoutMillis;
 
         this.encryptionLevel = builder.encryptionLevel;
         this.trustStrategy = builder.trustStrategy;
         this.routingFailureLimit = builder.routingFailureLimit;
         this.routingRetryDelayMillis = builder.routingRetryDelayMillis;
+        this.loadBalancingStrategy = builder.loadBalancingStrategy;
+        this.routingDiscoveryParallelism = builder.routingDiscoveryParallelism;
+        this.routingTableCache = builder.routingTableCache;
+        this.serverProbeInitialDelayMillis = builder.serverProbeInitialDelayMillis;
+        this.serverProbeMaxDelayMillis = builder.serverProbeMaxDelayMillis;
+        this.slowStartMillis = builder.slowStartMillis;
+        this.maxEjectedServerShare = builder.maxEjectedServerShare;
+        this.serverEjectionTimeMillis = builder.serverEjectionTimeMillis;
+        this.localZone = builder.localZone;
+        this.zoneResolver = builder.zoneResolver;
+        this.hedgedReadPercentile = builder.hedgedReadPercentile;
+        this.hedgedReadBudget = builder.hedgedReadBudget;
 
         this.retryLogic = builder.retryLogic;
     }
@@ -110,8 +163,8 @@ public class Config
     }
 
     /**
-     * Pooled connections that have been unused for longer than this timeout will be tested before they are
-     * used again, to ensure they are still live.
+     * Pooled connections that have been unused for longer than this timeout will be tested in the background,
+     * to ensure they are still live.
      * @return idle time in milliseconds
      */
     public long idleTimeBeforeConnectionTest()
@@ -119,6 +172,116 @@ public class Config
         return idleTimeBeforeConnectionTest;
     }
 
+    /**
+     * Max number of connections, idle and in use, per URL for this driver.
+     * @return the max number of connections
+     */
+    public int maxConnectionPoolSize()
+    {
+        return maxConnectionPoolSize;
+    }
+
+    /**
+     * Max time to wait for a connection when the pool for a URL is at its maximum size.
+     * @return acquisition timeout in milliseconds
+     */
+    public long connectionAcquisitionTimeoutMillis()
+    {
+        return connectionAcquisitionTimeoutMillis;
+    }
+
+    /**
+     * Idle connections that have been unused for longer than this are closed in the background.
+     * @return max idle time in milliseconds
+     */
+    public long maxIdleTimeMillis()
+    {
+        return maxIdleTimeMillis;
+    }
+
+    /**
+     * Min number of idle connections per URL that are kept open in the background.
+     * @return the min number of idle connections
+     */
+    public int minIdleConnectionPoolSize()
+    {
+        return minIdleConnectionPoolSize;
+    }
+
+    /**
+     * Time between background rounds of testing, closing and opening idle connections.
+     * @return maintenance interval in milliseconds
+     */
+    public long poolMaintenanceIntervalMillis()
+    {
+        return poolMaintenanceIntervalMillis;
+    }
+
+    /**
+     * Connections older than this, minus a random amount of jitter, are closed rather than reused.
+     * @return max connection lifetime in milliseconds
+     */
+    public long maxConnectionLifetimeMillis()
+    {
+        return maxConnectionLifetimeMillis;
+    }
+
+    /**
+     * @return if a thread acquiring a connection gets back the connection it released last, when still idle
+     */
+    public boolean connectionThreadAffinity()
+    {
+        return connectionThreadAffinity;
+    }
+
+    /**
+     * @return which idle connection is acquired from the pool
+     */
+    public IdleConnectionSelection idleConnectionSelection()
+    {
+        return idleConnectionSelection;
+    }
+
+    /**
+     * @return the max number of connections to the same server that are opened at the same time
+     */
+    public int maxConcurrentConnects()
+    {
+        return maxConcurrentConnects;
+    }
+
+    /**
+     * @return the number of failed attempts in a row to connect to a server after which connecting is stopped
+     */
+    public int circuitBreakerFailureThreshold()
+    {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * @return how long, in milliseconds, connecting to a server is stopped for after repeated failures
+     */
+    public long circuitBreakerCoolDownMillis()
+    {
+        return circuitBreakerCoolDownMillis;
+    }
+
+    /**
+     * @return the max number of connections closed at the same time when the driver is closed
+     */
+    public int connectionCloseParallelism()
+    {
+        return connectionCloseParallelism;
+    }
+
+    /**
+     * @return how long, in milliseconds, to wait for connections to be closed when the driver is closed
+     */
+    public long connectionCloseTimeoutMillis()
+    {
+        return connectionCloseTimeoutMillis;
+    }
+
     /**
      * @return the level of encryption required for all connections.
      */
@@ -137,6 +300,109 @@ public class Config
 
     public RetryLogic retryLogic() { return  retryLogic; }
 
+    /**
+     * @return how a routing driver chooses between the servers that can serve a session
+     */
+    public LoadBalancingStrategy loadBalancingStrategy()
+    {
+        return loadBalancingStrategy;
+    }
+
+    /**
+     * @return the number of routing servers a routing driver asks for the routing table at the same time
+     */
+    public int routingDiscoveryParallelism()
+    {
+        return routingDiscoveryParallelism;
+    }
+
+    /**
+     * @return the file a routing driver keeps its routing table in, or {@code null} if it does not keep one
+     */
+    public File routingTableCache()
+    {
+        return routingTableCache;
+    }
+
+    /**
+     * @return the time in milliseconds a routing driver waits before first probing a server it could not connect
+     * to, or {@code 0} if it does not probe such servers
+     */
+    public long serverProbeInitialDelayMillis()
+    {
+        return serverProbeInitialDelayMillis;
+    }
+
+    /**
+     * @return the longest time in milliseconds a routing driver waits between probes of a server it could not
+     * connect to
+     */
+    public long serverProbeMaxDelayMillis()
+    {
+        return serverProbeMaxDelayMillis;
+    }
+
+    /**
+     * @return the time in milliseconds over which a routing driver increases the share of sessions a server gets
+     * after it is available again
+     */
+    public long slowStartMillis()
+    {
+        return slowStartMillis;
+    }
+
+    /**
+     * @return the largest share of read servers a routing driver stops using at once for failing far more often
+     * than the others
+     */
+    public double maxEjectedServerShare()
+    {
+        return maxEjectedServerShare;
+    }
+
+    /**
+     * @return the time in milliseconds a routing driver stops using a read server for that fails far more often
+     * than the others
+     */
+    public long serverEjectionTimeMillis()
+    {
+        return serverEjectionTimeMillis;
+    }
+
+    /**
+     * @return the zone a routing driver prefers to read from, or {@code null} if it does not prefer any zone
+     */
+    public String localZone()
+    {
+        return localZone;
+    }
+
+    /**
+     * @return the resolver that tells a routing driver which zone a server is in, or {@code null} if no local zone
+     * is configured
+     */
+    public ZoneResolver zoneResolver()
+    {
+        return zoneResolver;
+    }
+
+    /**
+     * @return the percentile of the response times of a server after which a routing driver sends a read to another
+     * read server as well, or {@code 0} if it does not hedge reads
+     */
+    public double hedgedReadPercentile()
+    {
+        return hedgedReadPercentile;
+    }
+
+    /**
+     * @return the largest share of the reads a routing driver hedges
+     */
+    public double hedgedReadBudget()
+    {
+        return hedgedReadBudget;
+    }
+
     /**
      * Return a {@link ConfigBuilder} instance
      * @return a {@link ConfigBuilder} instance
@@ -156,7 +422,19 @@ public class Config
 
     RoutingSettings routingSettings()
     {
-        return new RoutingSettings( routingFailureLimit, routingRetryDelayMillis );
+        return new RoutingSettings( routingFailureLimit, routingRetryDelayMillis, loadBalancingStrategy,
+                routingDiscoveryParallelism, routingTableCache, serverProbeInitialDelayMillis,
+                serverProbeMaxDelayMillis, slowStartMillis, maxEjectedServerShare, serverEjectionTimeMillis,
+                localZone, zoneResolver, hedgedReadPercentile, hedgedReadBudget );
+    }
+
+    PoolSettings poolSettings()
+    {
+        return new PoolSettings( maxIdleConnectionPoolSize, idleTimeBeforeConnectionTest, maxConnectionPoolSize,
+                connectionAcquisitionTimeoutMillis, maxIdleTimeMillis, minIdleConnectionPoolSize,
+                poolMaintenanceIntervalMillis, maxConnectionLifetimeMillis, connectionThreadAffinity,
+                idleConnectionSelection, maxConcurrentConnects, circuitBreakerFailureThreshold,
+                circuitBreakerCoolDownMillis, connectionCloseParallelism, connectionCloseTimeoutMillis );
     }
 
     /**
@@ -167,11 +445,36 @@ public class Config
         private Logging logging = new JULogging( Level.INFO );
         private int maxIdleConnectionPoolSize = PoolSettings.DEFAULT_MAX_IDLE_CONNECTION_POOL_SIZE;
         private long idleTimeBeforeConnectionTest = PoolSettings.DEFAULT_IDLE_TIME_BEFORE_CONNECTION_TEST;
+        private int maxConnectionPoolSize = PoolSettings.DEFAULT_MAX_CONNECTION_POOL_SIZE;
+        private long connectionAcquisitionTimeoutMillis = PoolSettings.DEFAULT_CONNECTION_ACQUISITION_TIMEOUT;
+        private long maxIdleTimeMillis = PoolSettings.DEFAULT_MAX_IDLE_TIME;
+        private int minIdleConnectionPoolSize = PoolSettings.DEFAULT_MIN_IDLE_CONNECTION_POOL_SIZE;
+        private long poolMaintenanceIntervalMillis = PoolSettings.DEFAULT_MAINTENANCE_INTERVAL;
+        private long maxConnectionLifetimeMillis = PoolSettings.DEFAULT_MAX_CONNECTION_LIFETIME;
+        private boolean connectionThreadAffinity = PoolSettings.DEFAULT_CONNECTION_THREAD_AFFINITY;
+        private IdleConnectionSelection idleConnectionSelection = PoolSettings.DEFAULT_IDLE_CONNECTION_SELECTION;
+        private int maxConcurrentConnects = PoolSettings.DEFAULT_MAX_CONCURRENT_CONNECTS;
+        private int circuitBreakerFailureThreshold = PoolSettings.DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+        private long circuitBreakerCoolDownMillis = PoolSettings.DEFAULT_CIRCUIT_BREAKER_COOL_DOWN;
+        private int connectionCloseParallelism = PoolSettings.DEFAULT_CONNECTION_CLOSE_PARALLELISM;
+        private long connectionCloseTimeoutMillis = PoolSettings.DEFAULT_CONNECTION_CLOSE_TIMEOUT;
         private EncryptionLevel encryptionLevel = EncryptionLevel.REQUIRED;
         private TrustStrategy trustStrategy = trustAllCertificates();
         private RetryLogic retryLogic = RetryLogic.DEFAULT_RETRY_LOGIC;
         private int routingFailureLimit = 1;
         private long routingRetryDelayMillis = 5_000;
+        private LoadBalancingStrategy loadBalancingStrategy = LoadBalancingStrategy.ROUND_ROBIN;
+        private int routingDiscoveryParallelism = RoutingSettings.DEFAULT_DISCOVERY_PARALLELISM;
+        private File routingTableCache = null;
+        private long serverProbeInitialDelayMillis = RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY;
+        private long serverProbeMaxDelayMillis = RoutingSettings.DEFAULT_MAX_PROBE_DELAY;
+        private long slowStartMillis = RoutingSettings.DEFAULT_SLOW_START;
+        private double maxEjectedServerShare = RoutingSettings.DEFAULT_MAX_EJECTED_SHARE;
+        private long serverEjectionTimeMillis = RoutingSettings.DEFAULT_EJECTION_TIME;
+        private String localZone = null;
+        private ZoneResolver zoneResolver = null;
+        private double hedgedReadPercentile = 0;
+        private double hedgedReadBudget = 0;
 
         private ConfigBuilder() {}
 
@@ -220,10 +523,11 @@ public class Config
 
         /**
          * Pooled sessions that have been unused for longer than this timeout
-         * will be tested before they are used again, to ensure they are still live.
+         * will be tested by the {@linkplain #withPoolMaintenanceInterval pool maintenance},
+         * to ensure they are still live.
          *
-         * If this option is set too low, an additional network call will be
-         * incurred when acquiring a session, which causes a performance hit.
+         * If this option is set too low, idle sessions will be tested on every
+         * round of maintenance, which causes needless network traffic.
          *
          * If this is set high, you may receive sessions that are no longer live,
          * which will lead to exceptions in your application. Assuming the
@@ -244,6 +548,280 @@ public class Config
             return this;
         }
 
+        /**
+         * The max number of connections, idle and in use, to keep open to a single server. Configure this lower
+         * to protect the database from being overloaded by connections when load on the application spikes.
+         * <p>
+         * If the driver needs a connection to a server that already has this many, it will wait for a connection
+         * to be released, for at most the {@linkplain #withConnectionAcquisitionTimeout acquisition timeout}.
+         * Waiting callers are served in the order they arrived.
+         * <p>
+         * The default value of this parameter is {@code 100}.
+         *
+         * @param size the max number of connections per server
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConnectionPoolSize( int size )
+        {
+            if ( size < 1 )
+            {
+                throw new IllegalArgumentException(
+                        "The max connection pool size may not be smaller than 1, but was: " + size );
+            }
+            this.maxConnectionPoolSize = size;
+            return this;
+        }
+
+        /**
+         * Specify how long to wait for a connection when the pool for a server has reached its
+         * {@linkplain #withMaxConnectionPoolSize maximum size}. When no connection is released within this time,
+         * acquiring the connection fails with a {@link org.neo4j.driver.v1.exceptions.ClientException}.
+         * <p>
+         * The default value of this parameter is {@code 60 SECONDS}.
+         *
+         * @param timeout the amount of time to wait for a connection
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionAcquisitionTimeout( long timeout, TimeUnit unit )
+        {
+            long timeoutMillis = unit.toMillis( timeout );
+            if ( timeoutMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The acquisition timeout may not be smaller than 0, but was %d %s.", timeout, unit ) );
+            }
+            this.connectionAcquisitionTimeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Specify how long a pooled connection may stay unused before the
+         * {@linkplain #withPoolMaintenanceInterval pool maintenance} closes it. Connections needed to keep
+         * {@linkplain #withMinIdleSessions the min number of idle sessions} open are not closed.
+         * <p>
+         * The default value of this parameter is {@code 30 MINUTES}.
+         *
+         * @param maxIdleTime the amount of time a connection may be unused
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withMaxIdleTime( long maxIdleTime, TimeUnit unit )
+        {
+            long maxIdleTimeMillis = unit.toMillis( maxIdleTime );
+            if ( maxIdleTimeMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The max idle time may not be smaller than 0, but was %d %s.", maxIdleTime, unit ) );
+            }
+            this.maxIdleTimeMillis = maxIdleTimeMillis;
+            return this;
+        }
+
+        /**
+         * The min number of idle sessions to keep open per server. The
+         * {@linkplain #withPoolMaintenanceInterval pool maintenance} opens new connections in the background
+         * when fewer than this are idle, so that bursts of load do not have to wait for connections to be opened.
+         * <p>
+         * The default value of this parameter is {@code 0}.
+         *
+         * @param size the min number of idle sessions to keep open
+         * @return this builder
+         */
+        public ConfigBuilder withMinIdleSessions( int size )
+        {
+            if ( size < 0 )
+            {
+                throw new IllegalArgumentException(
+                        "The min number of idle sessions may not be smaller than 0, but was: " + size );
+            }
+            this.minIdleConnectionPoolSize = size;
+            return this;
+        }
+
+        /**
+         * Specify how often the connection pool is maintained in the background. Each round of maintenance
+         * tests idle connections that have been unused for longer than
+         * {@linkplain #withSessionLivenessCheckTimeout the liveness check timeout}, closes the ones that fail the
+         * test or have exceeded {@linkplain #withMaxIdleTime the max idle time}, and opens connections to keep
+         * {@linkplain #withMinIdleSessions the min number of idle sessions}.
+         * <p>
+         * The default value of this parameter is {@code 5 SECONDS}.
+         *
+         * @param interval the amount of time between rounds of maintenance
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withPoolMaintenanceInterval( long interval, TimeUnit unit )
+        {
+            long intervalMillis = unit.toMillis( interval );
+            if ( intervalMillis <= 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The pool maintenance interval must be larger than 0, but was %d %s.", interval, unit ) );
+            }
+            this.poolMaintenanceIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Specify how long a connection may be used before it is closed and replaced. Use this to retire
+         * connections before load balancers or firewalls between the driver and the database drop them.
+         * <p>
+         * Each connection gets a lifetime that is shorter than this by a random amount of up to 10%, so that
+         * connections opened at the same time are not all retired at the same time. Connections past their
+         * lifetime are closed when released, and the {@linkplain #withPoolMaintenanceInterval pool maintenance}
+         * replaces idle connections that would expire before its next round.
+         * <p>
+         * The lifetime must be longer than the pool maintenance interval, otherwise every maintenance round would
+         * replace every idle connection. This is checked when the config is {@linkplain #toConfig() created}.
+         * <p>
+         * The default value of this parameter is {@code 1 HOURS}.
+         *
+         * @param lifetime the max lifetime of a connection
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConnectionLifetime( long lifetime, TimeUnit unit )
+        {
+            long lifetimeMillis = unit.toMillis( lifetime );
+            if ( lifetimeMillis <= 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The max connection lifetime must be larger than 0, but was %d %s.", lifetime, unit ) );
+            }
+            this.maxConnectionLifetimeMillis = lifetimeMillis;
+            return this;
+        }
+
+        /**
+         * Enable or disable thread affinity of pooled connections. When enabled, a thread that closes a session
+         * and opens a new one gets the connection of the closed session back if no other thread has taken it in
+         * the meantime, so that applications opening a session per request keep reusing the same few connections
+         * without contending on the shared pool.
+         * <p>
+         * Thread affinity is disabled by default.
+         *
+         * @param enabled <code>true</code> to enable thread affinity
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionThreadAffinity( boolean enabled )
+        {
+            this.connectionThreadAffinity = enabled;
+            return this;
+        }
+
+        /**
+         * Specify which idle connection is acquired from the pool when there is more than one.
+         * <p>
+         * With {@link IdleConnectionSelection#FIFO} the connection that has been idle the longest is acquired, so
+         * load is spread over all idle connections. With {@link IdleConnectionSelection#LIFO} the connection released
+         * most recently is acquired, so a burst of load is served by as few connections as possible, and the others
+         * stay idle long enough to be closed after the {@linkplain #withMaxIdleTime max idle time}.
+         * <p>
+         * The default value of this parameter is {@link IdleConnectionSelection#FIFO}.
+         *
+         * @param selection the idle connection selection policy
+         * @return this builder
+         */
+        public ConfigBuilder withIdleConnectionSelection( IdleConnectionSelection selection )
+        {
+            if ( selection == null )
+            {
+                throw new IllegalArgumentException( "The idle connection selection must not be null." );
+            }
+            this.idleConnectionSelection = selection;
+            return this;
+        }
+
+        /**
+         * Specify how many connections to the same server may be opened at the same time. Sessions that need a
+         * new connection while this many are being opened already wait until one of those connects finishes, and
+         * then open their own, or until another session releases its connection, rather than all connecting to a
+         * server that has just come back at once.
+         * <p>
+         * This only limits the number of connects in progress. A connection that is opened belongs to the session
+         * that opened it, it is not handed to a waiting session.
+         * <p>
+         * The default value of this parameter is {@code 8}.
+         *
+         * @param size the max number of connections to a server being opened at the same time
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConcurrentConnects( int size )
+        {
+            if ( size < 1 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The max number of concurrent connects must be at least 1, but was %d.", size ) );
+            }
+            this.maxConcurrentConnects = size;
+            return this;
+        }
+
+        /**
+         * Specify when to stop connecting to an unavailable server. Once the given number of attempts in a row to
+         * connect to a server failed because it was unavailable, sessions that need a new connection to it fail
+         * straight away with a {@link org.neo4j.driver.v1.exceptions.ServiceUnavailableException} until the
+         * cool-down has passed. Then a single attempt is made, which either allows connecting again or starts
+         * another cool-down.
+         * <p>
+         * The default is to stop connecting for {@code 5 SECONDS} after {@code 3} failed attempts.
+         *
+         * @param failureThreshold the number of failed attempts in a row after which to stop connecting
+         * @param coolDown how long to stop connecting for
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionCircuitBreaker( int failureThreshold, long coolDown, TimeUnit unit )
+        {
+            if ( failureThreshold < 1 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The circuit breaker failure threshold must be at least 1, but was %d.", failureThreshold ) );
+            }
+            long coolDownMillis = unit.toMillis( coolDown );
+            if ( coolDownMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The circuit breaker cool-down must not be negative, but was %d %s.", coolDown, unit ) );
+            }
+            this.circuitBreakerFailureThreshold = failureThreshold;
+            this.circuitBreakerCoolDownMillis = coolDownMillis;
+            return this;
+        }
+
+        /**
+         * Specify how connections are closed when the driver is closed, or when the driver stops using a server.
+         * Connections are closed the given number at a time, and the driver waits at most the given timeout for
+         * them. Connections that are not closed by then, usually because the server they are connected to is not
+         * responding, are abandoned and reported in the log.
+         * <p>
+         * The default is to close {@code 16} connections at a time and wait at most {@code 10 SECONDS}.
+         *
+         * @param parallelism the max number of connections to close at the same time
+         * @param timeout how long to wait for connections to be closed
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionClose( int parallelism, long timeout, TimeUnit unit )
+        {
+            if ( parallelism < 1 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The connection close parallelism must be at least 1, but was %d.", parallelism ) );
+            }
+            long timeoutMillis = unit.toMillis( timeout );
+            if ( timeoutMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The connection close timeout must not be negative, but was %d %s.", timeout, unit ) );
+            }
+            this.connectionCloseParallelism = parallelism;
+            this.connectionCloseTimeoutMillis = timeoutMillis;
+            return this;
+        }
+
         /**
          * Configure the {@link EncryptionLevel} to use, use this to control wether the driver uses TLS encryption or not.
          * @param level the TLS level to use
@@ -339,6 +917,261 @@ public class Config
             return this;
         }
 
+        /**
+         * Specify how a routing driver chooses which server a session connects to, among the servers in the
+         * cluster that can serve it.
+         * <p>
+         * With {@link LoadBalancingStrategy#ROUND_ROBIN} every server is used in turn, regardless of how busy it
+         * is. With {@link LoadBalancingStrategy#LEAST_CONNECTED} the server with the fewest connections in use by
+         * this driver is used, so that servers that are slower to respond get fewer new sessions. With
+         * {@link LoadBalancingStrategy#LEAST_RESPONSE_TIME} recent response times of each server are taken into
+         * account as well, so that faster servers get more sessions, while choosing between two random servers
+         * each time keeps sessions from piling onto the single fastest one.
+         * <p>
+         * The default value of this parameter is {@link LoadBalancingStrategy#ROUND_ROBIN}.
+         *
+         * @param strategy the load balancing strategy
+         * @return this builder
+         */
+        public ConfigBuilder withLoadBalancingStrategy( LoadBalancingStrategy strategy )
+        {
+            if ( strategy == null )
+            {
+                throw new IllegalArgumentException( "The load balancing strategy must not be null." );
+            }
+            this.loadBalancingStrategy = strategy;
+            return this;
+        }
+
+        /**
+         * Specify how many routing servers are asked for the routing table at the same time.
+         * <p>
+         * The routing table is taken from the first routing server to provide a valid one, and the requests to the
+         * other servers are abandoned. Whenever a request fails, the next routing server is asked, so that at most
+         * this many requests are outstanding. Asking several servers at once means that routing servers that cannot
+         * be reached only delay discovery by a single connection timeout, rather than one timeout each.
+         * <p>
+         * A value of {@code 1} asks the routing servers one after the other.
+         * <p>
+         * The default value of this parameter is {@code 3}.
+         *
+         * @param parallelism the maximum number of routing servers to ask at the same time
+         * @return this builder
+         */
+        public ConfigBuilder withRoutingDiscoveryParallelism( int parallelism )
+        {
+            if ( parallelism < 1 )
+            {
+                throw new IllegalArgumentException(
+                        "The discovery parallelism may not be smaller than 1, but was: " + parallelism );
+            }
+            this.routingDiscoveryParallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Specify a file for a routing driver to keep its routing table in, so that a driver created later, such as
+         * by the next run of a short lived process, can start without waiting for the routing servers to respond.
+         * <p>
+         * The routing table is written to the file whenever it is refreshed. When a driver is created and the file
+         * holds a routing table that was written for the same routing address and has not yet expired, sessions are
+         * served from that table straight away, while the routing servers are asked for the current one in the
+         * background. Otherwise the routing servers are asked before the driver is returned, as without a cache.
+         * <p>
+         * Failing to read or write the file is logged, but does not keep the driver from working. Drivers for
+         * different clusters should use different files.
+         * <p>
+         * By default no file is used.
+         *
+         * @param file the file to keep the routing table in, or {@code null} to not keep it
+         * @return this builder
+         */
+        public ConfigBuilder withRoutingTableCache( File file )
+        {
+            this.routingTableCache = file;
+            return this;
+        }
+
+        /**
+         * Specify how often a routing driver checks whether a server it could not connect to is available again.
+         * <p>
+         * A server that cannot be connected to is no longer used for sessions until the routing table is refreshed.
+         * Meanwhile the driver tries to connect to it in the background, first after the initial delay and then
+         * after twice the previous delay every time that fails, up to the maximum delay. Once connecting succeeds
+         * the server is used for sessions again, without waiting for the routing table to be refreshed.
+         * <p>
+         * An initial delay of {@code 0} turns probing off. The default values of these parameters are
+         * {@code 1 SECONDS} and {@code 30 SECONDS}.
+         *
+         * @param initialDelay the time to wait before the first probe
+         * @param maxDelay the longest time to wait between probes
+         * @param unit the unit in which the delays are given
+         * @return this builder
+         */
+        public ConfigBuilder withServerProbing( long initialDelay, long maxDelay, TimeUnit unit )
+        {
+            long initialDelayMillis = unit.toMillis( initialDelay );
+            long maxDelayMillis = unit.toMillis( maxDelay );
+            if ( initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The probe delays must satisfy 0 <= initial delay <= max delay, but were %d and %d %s.",
+                        initialDelay, maxDelay, unit ) );
+            }
+            this.serverProbeInitialDelayMillis = initialDelayMillis;
+            this.serverProbeMaxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * Specify how long it takes a server that is available again to get its full share of sessions.
+         * <p>
+         * When a routing driver starts using a server again, after it could not be connected to, the server gets a
+         * share of the sessions that grows linearly over this period, so that it is not flooded with new
+         * connections the moment it is back.
+         * <p>
+         * A duration of {@code 0} gives such a server its full share straight away. The default value of this
+         * parameter is {@code 30 SECONDS}.
+         *
+         * @param duration the time it takes a server to get its full share of sessions
+         * @param unit the unit in which the duration is given
+         * @return this builder
+         */
+        public ConfigBuilder withSlowStart( long duration, TimeUnit unit )
+        {
+            long slowStartMillis = unit.toMillis( duration );
+            if ( slowStartMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The slow start duration may not be smaller than 0, but was %d %s.", duration, unit ) );
+            }
+            this.slowStartMillis = slowStartMillis;
+            return this;
+        }
+
+        /**
+         * Specify when a routing driver stops reading from a server that fails far more often than the others.
+         * <p>
+         * The driver counts the sessions it starts on each server, and the connection, transient and database
+         * errors each server reports, over the last minute. When a read server has at least twice the error rate
+         * of the median read server, and at least ten percentage points more, it is not used for reading for the
+         * given time. At most the given share of the read servers is not used at once, though one server may
+         * always be ejected as long as another read server remains.
+         * <p>
+         * A share of {@code 0} turns this off. The default values of these parameters are {@code 0.3} and
+         * {@code 30 SECONDS}.
+         *
+         * @param maxEjectedShare the largest share of the read servers not to use at once, between 0 and 1
+         * @param ejectionTime the time not to read from a server that fails far more often than the others
+         * @param unit the unit in which the time is given
+         * @return this builder
+         */
+        public ConfigBuilder withOutlierEjection( double maxEjectedShare, long ejectionTime, TimeUnit unit )
+        {
+            if ( maxEjectedShare < 0 || maxEjectedShare > 1 )
+            {
+                throw new IllegalArgumentException(
+                        "The ejected share must be between 0 and 1, but was: " + maxEjectedShare );
+            }
+            long ejectionTimeMillis = unit.toMillis( ejectionTime );
+            if ( ejectionTimeMillis < 0 )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The ejection time may not be smaller than 0, but was %d %s.", ejectionTime, unit ) );
+            }
+            this.maxEjectedServerShare = maxEjectedShare;
+            this.serverEjectionTimeMillis = ejectionTimeMillis;
+            return this;
+        }
+
+        /**
+         * Specify the zone, such as a data center or an availability zone, this driver runs in, so that a routing
+         * driver reads from servers in the same zone.
+         * <p>
+         * As long as a read server in the local zone is available and has connections to spare, reads go to the
+         * read servers in the local zone only. Once every one of them has as many connections in use as the pool
+         * allows, or none of them is available, reads go to the read servers in the other zones. Writes always go
+         * to the write servers, wherever they are.
+         * <p>
+         * By default no zone is preferred.
+         *
+         * @param zone the zone this driver runs in
+         * @param resolver tells which zone a server is in
+         * @return this builder
+         */
+        public ConfigBuilder withLocalZone( String zone, ZoneResolver resolver )
+        {
+            if ( zone == null || resolver == null )
+            {
+                throw new IllegalArgumentException( "The local zone and the zone resolver may not be null." );
+            }
+            this.localZone = zone;
+            this.zoneResolver = resolver;
+            return this;
+        }
+
+        /**
+         * Specify the zone this driver runs in, and the zones of the servers, so that a routing driver reads from
+         * servers in the same zone.
+         *
+         * @param zone the zone this driver runs in
+         * @param zonesByAddress the zone of each server, by {@code host:port} or, for all ports of a host, by
+         * {@code host}
+         * @return this builder
+         * @see #withLocalZone(String, ZoneResolver)
+         */
+        public ConfigBuilder withLocalZone( String zone, Map<String,String> zonesByAddress )
+        {
+            final Map<String,String> zones = new HashMap<>( zonesByAddress );
+            return withLocalZone( zone, new ZoneResolver()
+            {
+                @Override
+                public String zoneOf( String host, int port )
+                {
+                    String zone = zones.get( host + ":" + port );
+                    return zone != null ? zone : zones.get( host );
+                }
+            } );
+        }
+
+        /**
+         * Have a routing driver send a slow read to a second read server as well, and use whichever response
+         * arrives first.
+         * <p>
+         * When a statement run in a {@link AccessMode#READ READ} session outside of a transaction has not had a
+         * response after the given percentile of the recent response times of its server, the statement is sent to
+         * another read server as well. The session returns the result of the server that responds first, and
+         * resets the other one. Statements in transactions are never hedged, and neither are reads to a server that
+         * has not responded to enough reads yet. To keep hedging from adding much load when the whole cluster is
+         * slow, at most the given share of the reads is hedged.
+         * <p>
+         * Because a response has to arrive before it can be raced, running a statement in a read session waits for
+         * the first record or the end of the result. Only statements that do not write may be hedged, since the
+         * statement may end up running on both servers.
+         * <p>
+         * By default reads are not hedged.
+         *
+         * @param percentile the percentile of the response times to wait for, between 0 and 100, such as {@code 95}
+         * @param budget the largest share of the reads to hedge, between 0 and 1, such as {@code 0.05}
+         * @return this builder
+         */
+        public ConfigBuilder withHedgedReads( double percentile, double budget )
+        {
+            if ( percentile <= 0 || percentile > 100 )
+            {
+                throw new IllegalArgumentException(
+                        "The percentile must be greater than 0 and at most 100, but was: " + percentile );
+            }
+            if ( budget <= 0 || budget > 1 )
+            {
+                throw new IllegalArgumentException(
+                        "The hedge budget must be greater than 0 and at most 1, but was: " + budget );
+            }
+            this.hedgedReadPercentile = percentile;
+            this.hedgedReadBudget = budget;
+            return this;
+        }
+
         /**
          * Specify policy for retrying operations that fail but can be automatically reattempted.
          *
@@ -354,9 +1187,18 @@ public class Config
         /**
          * Create a config instance from this builder.
          * @return a {@link Config} instance
+         * @throws IllegalArgumentException if the max connection lifetime is not longer than the pool maintenance
+         * interval
          */
         public Config toConfig()
         {
+            if ( maxConnectionLifetimeMillis <= poolMaintenanceIntervalMillis )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The max connection lifetime must be longer than the pool maintenance interval, " +
+                        "but was %d ms with an interval of %d ms.",
+                        maxConnectionLifetimeMillis, poolMaintenanceIntervalMillis ) );
+            }
             return new Config( this );
         }
     }
@@ -373,6 +1215,36 @@ public class Config
         REQUIRED
     }
 
+    /**
+     * Control which idle connection is acquired from the connection pool
+     */
+    public enum IdleConnectionSelection
+    {
+        /** Acquire the connection that has been idle the longest, first in first out. */
+        FIFO,
+
+        /** Acquire the connection that was released most recently, last in first out. */
+        LIFO
+    }
+
+    /**
+     * Control how a routing driver chooses between the servers that can serve a session
+     */
+    public enum LoadBalancingStrategy
+    {
+        /** Use every server in turn. */
+        ROUND_ROBIN,
+
+        /** Use the server with the fewest connections in use, starting from a different server each time on ties. */
+        LEAST_CONNECTED,
+
+        /**
+         * Pick two servers at random and use the one that is expected to respond sooner, based on how long it
+         * recently took to respond and how many connections to it are in use.
+         */
+        LEAST_RESPONSE_TIME
+    }
+
     /**
      * Control how the driver determines if it can trust the encryption certificates provided by the Neo4j instance it is connected to.
      */
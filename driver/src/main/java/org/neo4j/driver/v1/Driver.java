@@ -23,6 +23,8 @@ import java.net.URI;
 
 import org.neo4j.driver.v1.exceptions.NotCommittedException;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.metrics.Metrics;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Function;
 
 /**
@@ -99,6 +101,16 @@ public interface Driver extends AutoCloseable
 
     <T> T write( Function<Transaction, T> work ) throws NotCommittedException, ServiceUnavailableException;
 
+    /**
+     * Return the metrics of this driver, such as the state of the connection pool of every server it has connected
+     * to. The returned object reads the current values each time it is queried, so it only needs to be obtained once.
+     *
+     * @return the metrics of this driver
+     * @since 1.1
+     */
+    @Experimental
+    Metrics metrics();
+
     /**
      * Close all the resources assigned to this driver
      */
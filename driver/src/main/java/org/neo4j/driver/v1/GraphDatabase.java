@@ -181,9 +181,7 @@ public class GraphDatabase
         DriverContract driverContract = new DriverContract( config.retryLogic() );
 
         // Establish pool settings
-        PoolSettings poolSettings = new PoolSettings(
-                config.maxIdleConnectionPoolSize(),
-                config.idleTimeBeforeConnectionTest() );
+        PoolSettings poolSettings = config.poolSettings();
 
         // And finally, construct the driver proper
         ConnectionPool connectionPool =
@@ -18,11 +18,14 @@
  */
 package org.neo4j.driver.v1;
 
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.Iterator;
 import java.util.List;
 
 import org.neo4j.driver.v1.exceptions.NoSuchRecordException;
 import org.neo4j.driver.v1.summary.ResultSummary;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Function;
 import org.neo4j.driver.v1.util.Resource;
 
@@ -54,6 +57,22 @@ import org.neo4j.driver.v1.util.Resource;
  */
 public interface StatementResult extends Iterator<Record>
 {
+    /**
+     * Share node and relationship instances between the records of this result.
+     *
+     * Once enabled, a node or relationship that is received again, for instance in overlapping paths, resolves
+     * to the instance that was created when it was first received, instead of being decoded into a new
+     * instance with its own copy of labels, type and properties. This reduces the memory held by results
+     * with many repeated entities, at the cost of keeping every received entity reachable for as long as the
+     * result is. Entities are told apart by id only.
+     *
+     * This applies to records received after the call, so it should be called right after running the statement.
+     *
+     * @return this result
+     */
+    @Experimental
+    StatementResult deduplicateEntities();
+
     /**
      * Retrieve the keys of the records this result contains.
      *
@@ -128,6 +147,63 @@ public interface StatementResult extends Iterator<Record>
      */
     <T> List<T> list( Function<Record, T> mapFunction );
 
+    /**
+     * Retrieve and store the entire result, mapping every record onto a new instance of the given class.
+     *
+     * Every key of the result is bound to a public setter {@code setKey(...)} or, failing that, to a
+     * non-final field named {@code key} of the given class, keys without such a property are ignored.
+     * The class needs a no-argument constructor. Supported property types are {@link Value},
+     * {@link String}, primitive numbers and booleans and their boxed counterparts, {@link Number},
+     * {@link java.util.List}, {@link java.util.Map}, graph entities and {@link Object}.
+     *
+     * The binding is resolved once per class and list of keys and reused for all later results with the same
+     * keys, which makes this considerably cheaper than looking up every field by name with {@link Record#get(String)}.
+     *
+     * Note that this method can only be used if you know that the statement that
+     * yielded this result returns a finite stream. Some statements can yield
+     * infinite results, in which case calling this method will lead to running
+     * out of memory.
+     *
+     * Calling this method exhausts the result.
+     *
+     * @param type the class to map records to
+     * @param <T> the type of result list elements
+     * @return list of all remaining records, mapped to instances of the given class
+     * @throws org.neo4j.driver.v1.exceptions.ClientException if the given class can not be instantiated or
+     * has a property of an unsupported type
+     */
+    <T> List<T> list( Class<T> type );
+
+    /**
+     * Write all remaining records as a JSON array to the given writer and return the summary of the result.
+     *
+     * Every record is written as a JSON object with a member per key. Nodes, relationships and paths are
+     * written as objects holding their identity, labels or type and properties. Records that have not been
+     * received yet are transcoded straight from the network stream as they arrive, without being materialized
+     * as {@link Record records} or {@link Value values}, so memory use does not grow with the size of the result.
+     *
+     * Calling this method exhausts the result. The writer is flushed but not closed.
+     *
+     * @param out the writer to write the JSON array to
+     * @return a summary for the whole query result
+     * @throws org.neo4j.driver.v1.exceptions.ClientException if writing to the given writer failed
+     */
+    @Experimental
+    ResultSummary writeJson( Writer out );
+
+    /**
+     * Write all remaining records as a UTF-8 encoded JSON array to the given stream and return the summary of
+     * the result. See {@link #writeJson(Writer)} for details.
+     *
+     * Calling this method exhausts the result. The stream is flushed but not closed.
+     *
+     * @param out the stream to write the JSON array to
+     * @return a summary for the whole query result
+     * @throws org.neo4j.driver.v1.exceptions.ClientException if writing to the given stream failed
+     */
+    @Experimental
+    ResultSummary writeJson( OutputStream out );
+
     /**
      * Consume the entire result, yielding a summary of it.
      *
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Tells which zone, such as a data center or an availability zone, a server of a cluster is located in, so that a
+ * routing driver can prefer servers in its own zone.
+ * <p>
+ * A resolver is asked about every server once, when the server first appears in the routing table, so it may do
+ * work such as a lookup in a service registry. It must be safe to call from multiple threads.
+ *
+ * @see Config.ConfigBuilder#withLocalZone(String, ZoneResolver)
+ * @since 1.1
+ */
+@Experimental
+public interface ZoneResolver
+{
+    /**
+     * @param host the host name of the server, as it appears in the routing table
+     * @param port the port of the server
+     * @return the zone of the server, or {@code null} if it is not known
+     */
+    String zoneOf( String host, int port );
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Metrics of the pool of connections to a single server. Counts are totals since the driver was created.
+ * @since 1.1
+ */
+@Experimental
+public interface ConnectionPoolMetrics
+{
+    /**
+     * @return the address of the server, in the form {@code host:port}
+     */
+    String address();
+
+    /**
+     * @return the number of connections currently idle in the pool
+     */
+    int idle();
+
+    /**
+     * @return the number of connections currently in use by sessions
+     */
+    int inUse();
+
+    /**
+     * @return the number of connections opened
+     */
+    long created();
+
+    /**
+     * @return the number of attempts to open a connection that failed
+     */
+    long failedToCreate();
+
+    /**
+     * @return the number of connections closed
+     */
+    long closed();
+
+    /**
+     * @return the number of times no connection could be acquired within the connection acquisition timeout
+     */
+    long acquisitionTimeouts();
+
+    /**
+     * @return the number of connections found unusable when released to the pool or when tested while idle
+     */
+    long validationFailures();
+
+    /**
+     * @return the number of idle connections closed by pool maintenance
+     */
+    long evictions();
+
+    /**
+     * @return the time it took to acquire a connection from the pool, including any time spent waiting for or
+     * opening a connection
+     */
+    Histogram acquisitionTime();
+
+    /**
+     * @return the time it took to open a connection
+     */
+    Histogram creationTime();
+}
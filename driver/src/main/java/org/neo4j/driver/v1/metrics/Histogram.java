@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Distribution of recorded durations, in nanoseconds. Percentiles are approximate, with an error of at most an
+ * eighth of the value.
+ * @since 1.1
+ */
+@Experimental
+public interface Histogram
+{
+    /**
+     * @return the number of recorded durations
+     */
+    long count();
+
+    /**
+     * @return the sum of all recorded durations
+     */
+    long total();
+
+    /**
+     * @return the longest recorded duration, or zero if none were recorded
+     */
+    long max();
+
+    /**
+     * @return the mean of the recorded durations, or zero if none were recorded
+     */
+    double mean();
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration that the given percentage of recorded durations does not exceed, or zero if none were
+     * recorded
+     */
+    long percentile( double percentile );
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import java.util.Map;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Metrics of a {@link org.neo4j.driver.v1.Driver}.
+ * <p>
+ * All values are read on demand from the driver's own counters, so they can be registered with a metrics library,
+ * for example as gauges and function counters, without the driver depending on that library.
+ * @since 1.1
+ */
+@Experimental
+public interface Metrics
+{
+    /**
+     * @return the metrics of the connection pool of every server the driver has connected to, by server address in
+     * the form {@code host:port}
+     */
+    Map<String,ConnectionPoolMetrics> connectionPoolMetrics();
+}
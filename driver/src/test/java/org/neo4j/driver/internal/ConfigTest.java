@@ -21,6 +21,7 @@ package org.neo4j.driver.internal;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.util.FileTools;
@@ -88,6 +89,35 @@ public class ConfigTest
         assertThat( config.idleTimeBeforeConnectionTest(), equalTo( 1337L ) );
     }
 
+    @Test
+    public void shouldConfigureMaxConnectionPoolSizeAndAcquisitionTimeout() throws Throwable
+    {
+        // when
+        Config config = Config.build()
+                .withMaxConnectionPoolSize( 42 )
+                .withConnectionAcquisitionTimeout( 3, TimeUnit.SECONDS )
+                .toConfig();
+
+        // then
+        assertThat( config.maxConnectionPoolSize(), equalTo( 42 ) );
+        assertThat( config.connectionAcquisitionTimeoutMillis(), equalTo( 3000L ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotAllowEmptyConnectionPool() throws Throwable
+    {
+        Config.build().withMaxConnectionPoolSize( 0 );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotAllowConnectionLifetimeWithinMaintenanceInterval() throws Throwable
+    {
+        Config.build()
+                .withPoolMaintenanceInterval( 10, TimeUnit.SECONDS )
+                .withMaxConnectionLifetime( 10, TimeUnit.SECONDS )
+                .toConfig();
+    }
+
     public static void deleteDefaultKnownCertFileIfExists()
     {
         if( DEFAULT_KNOWN_HOSTS.exists() )
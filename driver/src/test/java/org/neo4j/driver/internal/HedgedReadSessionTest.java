@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.Collector;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.TransientException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class HedgedReadSessionTest
+{
+    private static final BoltServerAddress SLOW = new BoltServerAddress( "slow", 7687 );
+    private static final BoltServerAddress FAST = new BoltServerAddress( "fast", 7687 );
+
+    private final Session delegate = mock( Session.class );
+    private final ReadHedger hedger = mock( ReadHedger.class );
+    private final RoutingErrorHandler onError = mock( RoutingErrorHandler.class );
+    private final CountDownLatch reset = new CountDownLatch( 1 );
+    private final AtomicBoolean answered = new AtomicBoolean();
+    private ExecutorService executor;
+    private HedgedReadSession session;
+
+    @Before
+    public void setUp()
+    {
+        executor = Executors.newCachedThreadPool();
+        session = new HedgedReadSession( delegate, SLOW, hedger, onError, executor );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation )
+            {
+                reset.countDown();
+                return null;
+            }
+        } ).when( delegate ).reset();
+    }
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnResultOfOtherServerWhenServerIsSlow() throws Exception
+    {
+        // given
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        respondAfterReset();
+        Connection other = otherServer();
+        when( hedger.acquireHedgeConnection( SLOW ) ).thenReturn( other );
+
+        // when
+        StatementResult result = session.run( "MATCH (n) RETURN n" );
+
+        // then
+        assertFalse( result.hasNext() );
+        verify( delegate ).reset();
+        verify( hedger ).responded( eq( FAST ), anyLong() );
+        session.close();
+        verify( other ).close();
+        verify( delegate ).close();
+        // the error caused by the reset is not held against the slow server
+        verifyZeroInteractions( onError );
+    }
+
+    @Test
+    public void shouldNotHedgeWhenServerRespondsInTime() throws Exception
+    {
+        // given
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( TimeUnit.SECONDS.toNanos( 10 ) );
+        when( delegate.run( any( Statement.class ) ) ).thenReturn( mock( StatementResult.class ) );
+
+        // when
+        session.run( "MATCH (n) RETURN n" );
+
+        // then
+        verify( hedger, never() ).acquireHedgeConnection( any( BoltServerAddress.class ) );
+        verify( hedger ).responded( eq( SLOW ), anyLong() );
+        verify( delegate, never() ).reset();
+    }
+
+    @Test
+    public void shouldWaitForServerWhenReadMayNotBeHedged() throws Exception
+    {
+        // given
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        when( delegate.run( any( Statement.class ) ) ).thenAnswer( new Answer<StatementResult>()
+        {
+            @Override
+            public StatementResult answer( InvocationOnMock invocation ) throws Throwable
+            {
+                Thread.sleep( 50 );
+                return mock( StatementResult.class );
+            }
+        } );
+
+        // when
+        session.run( "MATCH (n) RETURN n" );
+
+        // then
+        verify( hedger ).acquireHedgeConnection( SLOW );
+        verify( hedger ).responded( eq( SLOW ), anyLong() );
+        verify( delegate, never() ).reset();
+    }
+
+    @Test
+    public void shouldWaitForAbandonedStatementBeforeRunningNext() throws Exception
+    {
+        // given
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        respondAfterReset();
+        Connection other = otherServer();
+        when( hedger.acquireHedgeConnection( SLOW ) ).thenReturn( other );
+        session.run( "MATCH (n) RETURN n" );
+
+        // when
+        final AtomicBoolean ranAfterAnswer = new AtomicBoolean();
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( 0L );
+        doAnswer( new Answer<StatementResult>()
+        {
+            @Override
+            public StatementResult answer( InvocationOnMock invocation )
+            {
+                ranAfterAnswer.set( answered.get() );
+                return mock( StatementResult.class );
+            }
+        } ).when( delegate ).run( any( Statement.class ) );
+        session.run( "MATCH (n) RETURN n" );
+
+        // then
+        assertTrue( ranAfterAnswer.get() );
+    }
+
+    @Test
+    public void shouldAbandonStatementWhenHedgeCannotBeAcquired() throws Exception
+    {
+        // given
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        respondAfterReset();
+        ClientException failure = new ClientException( "Unable to acquire connection from the pool within " +
+                                                       "configured maximum time" );
+        when( hedger.acquireHedgeConnection( SLOW ) ).thenThrow( failure );
+
+        // when
+        try
+        {
+            session.run( "MATCH (n) RETURN n" );
+            fail( "Expected the failure to acquire a connection" );
+        }
+        catch ( ClientException e )
+        {
+            assertSame( failure, e );
+        }
+
+        // then
+        verify( delegate ).reset();
+        final AtomicBoolean ranAfterAnswer = new AtomicBoolean();
+        when( hedger.hedgeDelay( SLOW ) ).thenReturn( 0L );
+        doAnswer( new Answer<StatementResult>()
+        {
+            @Override
+            public StatementResult answer( InvocationOnMock invocation )
+            {
+                ranAfterAnswer.set( answered.get() );
+                return mock( StatementResult.class );
+            }
+        } ).when( delegate ).run( any( Statement.class ) );
+        session.run( "MATCH (n) RETURN n" );
+        assertTrue( ranAfterAnswer.get() );
+        verifyZeroInteractions( onError );
+    }
+
+    private void respondAfterReset()
+    {
+        when( delegate.run( any( Statement.class ) ) ).thenAnswer( new Answer<StatementResult>()
+        {
+            @Override
+            public StatementResult answer( InvocationOnMock invocation ) throws Throwable
+            {
+                reset.await( 10, TimeUnit.SECONDS );
+                Thread.sleep( 50 );
+                answered.set( true );
+                throw new TransientException( "Neo.TransientError.Transaction.Terminated", "reset" );
+            }
+        } );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Connection otherServer()
+    {
+        Connection connection = mock( Connection.class );
+        when( connection.address() ).thenReturn( FAST );
+        when( connection.isOpen() ).thenReturn( true );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation )
+            {
+                ((Collector) invocation.getArguments()[2]).done();
+                return null;
+            }
+        } ).when( connection ).run( anyString(), any( Map.class ), any( Collector.class ) );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation )
+            {
+                ((Collector) invocation.getArguments()[0]).done();
+                return null;
+            }
+        } ).when( connection ).pullAll( any( Collector.class ) );
+        return connection;
+    }
+}
@@ -243,6 +243,22 @@ public class InternalRecordTest
         assertThat( appendedValues, equalTo( Arrays.asList( values ) ) );
     }
 
+    @Test
+    public void shouldLookUpFieldsThroughSharedRecordKeys()
+    {
+        RecordKeys keys = new RecordKeys( new String[]{"k1", "k2", "k1"} );
+        InternalRecord first = new InternalRecord( keys, new Value[]{value( 0 ), value( 1 ), value( 2 )} );
+        InternalRecord second = new InternalRecord( keys, new Value[]{value( 3 ), value( 4 ), value( 5 )} );
+
+        assertThat( first.get( "k1" ), equalTo( value( 0 ) ) );
+        assertThat( second.get( "k2" ), equalTo( value( 4 ) ) );
+        assertThat( second.index( "k2" ), equalTo( 1 ) );
+        assertTrue( first.containsKey( "k2" ) );
+        assertFalse( first.containsKey( "k3" ) );
+        assertThat( first.get( "k3" ), equalTo( NullValue.NULL ) );
+        assertThat( first.keys(), equalTo( Arrays.asList( "k1", "k2", "k1" ) ) );
+    }
+
     private InternalRecord createRecord()
     {
         List<String> keys = Arrays.asList( "k1", "k2" );
@@ -19,6 +19,7 @@
 package org.neo4j.driver.internal;
 
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -386,6 +387,47 @@ public class InternalStatementResultTest
         Record future = result.peek();
     }
 
+    @Test
+    public void shouldMapRecordsToClass()
+    {
+        // GIVEN
+        StatementResult result = createResult( 2 );
+
+        // WHEN
+        List<TwoColumns> list = result.list( TwoColumns.class );
+
+        // THEN
+        assertThat( list, hasSize( 2 ) );
+        assertThat( list.get( 0 ).k1, equalTo( "v1-1" ) );
+        assertThat( list.get( 0 ).k2, equalTo( "v2-1" ) );
+        assertThat( list.get( 1 ).k1, equalTo( "v1-2" ) );
+        assertThat( list.get( 1 ).k2, equalTo( "v2-2" ) );
+        assertFalse( result.hasNext() );
+    }
+
+    @Test
+    public void shouldWriteRemainingRecordsAsJson()
+    {
+        // GIVEN
+        StatementResult result = createResult( 3 );
+        result.next();
+        result.peek();
+
+        // WHEN
+        StringWriter out = new StringWriter();
+        result.writeJson( out );
+
+        // THEN
+        assertThat( out.toString(), equalTo( "[{\"k1\":\"v1-2\",\"k2\":\"v2-2\"},{\"k1\":\"v1-3\",\"k2\":\"v2-3\"}]" ) );
+        assertFalse( result.hasNext() );
+    }
+
+    private static class TwoColumns
+    {
+        String k1;
+        String k2;
+    }
+
     private StatementResult createResult( int numberOfRecords )
     {
         Connection connection = mock( Connection.class );
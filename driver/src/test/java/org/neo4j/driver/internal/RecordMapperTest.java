@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.exceptions.ClientException;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.neo4j.driver.v1.Values.NULL;
+import static org.neo4j.driver.v1.Values.value;
+
+public class RecordMapperTest
+{
+    @Test
+    public void shouldMapFieldsByKey()
+    {
+        List<String> keys = asList( "name", "age", "tags" );
+        Record record = new InternalRecord( keys, new Value[]{value( "Alice" ), value( 42 ), value( "a", "b" )} );
+
+        Person person = RecordMapper.mapperFor( Person.class, keys ).apply( record );
+
+        assertThat( person.name, equalTo( "Alice" ) );
+        assertThat( person.age, equalTo( 42 ) );
+        assertThat( person.tags, equalTo( (List<Object>) asList( (Object) "a", "b" ) ) );
+    }
+
+    @Test
+    public void shouldPreferSettersOverFields()
+    {
+        List<String> keys = asList( "name" );
+        Record record = new InternalRecord( keys, new Value[]{value( "Alice" )} );
+
+        WithSetter mapped = RecordMapper.mapperFor( WithSetter.class, keys ).apply( record );
+
+        assertThat( mapped.name, equalTo( "ALICE" ) );
+    }
+
+    @Test
+    public void shouldMapByColumnOrderRegardlessOfDeclarationOrder()
+    {
+        List<String> keys = asList( "age", "name" );
+        Record record = new InternalRecord( keys, new Value[]{value( 7 ), value( "Bob" )} );
+
+        Person person = RecordMapper.mapperFor( Person.class, keys ).apply( record );
+
+        assertThat( person.name, equalTo( "Bob" ) );
+        assertThat( person.age, equalTo( 7 ) );
+    }
+
+    @Test
+    public void shouldIgnoreUnknownKeysAndNullValues()
+    {
+        List<String> keys = asList( "name", "unknown", "age" );
+        Record record = new InternalRecord( keys, new Value[]{NULL, value( 1 ), NULL} );
+
+        Person person = RecordMapper.mapperFor( Person.class, keys ).apply( record );
+
+        assertThat( person.name, nullValue() );
+        assertThat( person.age, equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldCacheMappersPerClassAndKeys()
+    {
+        RecordMapper<Person> first = RecordMapper.mapperFor( Person.class, asList( "name", "age" ) );
+        RecordMapper<Person> second = RecordMapper.mapperFor( Person.class, asList( "name", "age" ) );
+
+        assertThat( first, sameInstance( second ) );
+    }
+
+    @Test
+    public void shouldFailForClassWithoutNoArgumentConstructor()
+    {
+        try
+        {
+            RecordMapper.mapperFor( NoDefaultConstructor.class, asList( "name" ) );
+            fail( "Expected ClientException to be thrown" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldFailForUnsupportedPropertyType()
+    {
+        try
+        {
+            RecordMapper.mapperFor( UnsupportedProperty.class, asList( "thread" ) );
+            fail( "Expected ClientException to be thrown" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+    }
+
+    private static class Person
+    {
+        private String name;
+        private int age;
+        private List<Object> tags;
+    }
+
+    public static class WithSetter
+    {
+        private String name;
+
+        public void setName( String name )
+        {
+            this.name = name.toUpperCase();
+        }
+    }
+
+    private static class NoDefaultConstructor
+    {
+        private String name;
+
+        NoDefaultConstructor( String name )
+        {
+            this.name = name;
+        }
+    }
+
+    private static class UnsupportedProperty
+    {
+        private Thread thread;
+    }
+}
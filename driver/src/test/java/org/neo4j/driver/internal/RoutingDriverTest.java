@@ -29,6 +29,7 @@ import org.mockito.internal.stubbing.answers.ThrowsException;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import org.neo4j.driver.internal.cluster.LoadBalancer;
 import org.neo4j.driver.internal.cluster.RoutingSettings;
 import org.neo4j.driver.internal.net.BoltServerAddress;
 import org.neo4j.driver.internal.spi.Collector;
@@ -61,6 +62,7 @@ import static org.mockito.Mockito.when;
 import static org.neo4j.driver.internal.cluster.ClusterCompositionProviderTest.serverInfo;
 import static org.neo4j.driver.internal.cluster.ClusterCompositionProviderTest.withKeys;
 import static org.neo4j.driver.internal.cluster.ClusterCompositionProviderTest.withServerList;
+import static org.neo4j.driver.internal.cluster.LoadBalancerTest.sameThreadLoadBalancer;
 import static org.neo4j.driver.internal.security.SecurityPlan.insecure;
 import static org.neo4j.driver.v1.Values.value;
 
@@ -252,7 +254,7 @@ public class RoutingDriverTest
                 withServers( 10, serverInfo( "ROUTE", "localhost:5555" ),
                         serverInfo( "READ", "localhost:5555" ),
                         serverInfo( "WRITE", "localhost:5555" ) ) ) );
-        clock.progress( 9900 );
+        clock.progress( 7_000 ); // not enough to refresh the routing table
 
         // When
         RoutingNetworkSession writer = (RoutingNetworkSession) routingDriver.session( AccessMode.WRITE );
@@ -341,7 +343,10 @@ public class RoutingDriverTest
 
     private RoutingDriver driverWithPool( ConnectionPool pool )
     {
-        return new RoutingDriver( new RoutingSettings( 10, 5_000 ), SEED, contract, pool, insecure(), clock, logging );
+        // refresh the routing table on the calling thread, so that sessions see the new table right away
+        LoadBalancer loadBalancer = sameThreadLoadBalancer( new RoutingSettings( 10, 5_000 ), clock,
+                logging.getLog( BaseDriver.DRIVER_LOG_NAME ), pool, SEED );
+        return new RoutingDriver( contract, insecure(), pool, loadBalancer, logging );
     }
 
     @SafeVarargs
@@ -31,6 +31,7 @@ import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
 import org.neo4j.driver.v1.exceptions.SessionExpiredException;
+import org.neo4j.driver.v1.exceptions.TransientException;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -87,6 +88,33 @@ public class RoutingNetworkSessionTest
         verifyNoMoreInteractions( onError );
     }
 
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldReportTransientFailuresWithoutHandlingThem()
+    {
+        // Given
+        TransientException failure = new TransientException( "Neo.TransientError.General.OutOfMemoryError", "oh no" );
+        doThrow( failure ).when( connection ).run( anyString(), any( Map.class ), any( Collector.class ) );
+        RoutingNetworkSession session =
+                new RoutingNetworkSession( new NetworkSession( connection ), AccessMode.READ, connection.address(),
+                        onError );
+
+        // When
+        try
+        {
+            session.run( "MATCH (n) RETURN n" );
+            fail();
+        }
+        catch ( TransientException e )
+        {
+            assertThat( e, is( failure ) );
+        }
+
+        // Then
+        verify( onError ).onServerFailure( LOCALHOST );
+        verifyNoMoreInteractions( onError );
+    }
+
     @SuppressWarnings( "unchecked" )
     @Test
     public void shouldHandleWriteFailuresInWriteAccessMode()
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HedgingPolicyTest
+{
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one" );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two" );
+
+    private final HedgingPolicy hedging = new HedgingPolicy( 90, 0.1 );
+
+    @Test
+    public void shouldWaitForPercentileOfResponseTimes() throws Exception
+    {
+        // given
+        for ( int i = 1; i <= 100; i++ )
+        {
+            hedging.responded( ONE, i, 0 );
+        }
+
+        // when
+        long delay = hedging.delay( ONE, 0 );
+
+        // then, within the precision of the histogram
+        assertEquals( 90, delay, 90 / 8 );
+    }
+
+    @Test
+    public void shouldNotHedgeReadsToServerWithFewResponses() throws Exception
+    {
+        // given
+        for ( int i = 1; i <= 100; i++ )
+        {
+            hedging.responded( ONE, i, 0 );
+        }
+        hedging.responded( TWO, 1, 0 );
+
+        // when
+        long delay = hedging.delay( TWO, 0 );
+
+        // then
+        assertEquals( 0, delay );
+    }
+
+    @Test
+    public void shouldFollowRecentResponseTimes() throws Exception
+    {
+        // given
+        for ( int i = 0; i < 100; i++ )
+        {
+            hedging.responded( ONE, 1_000, 0 );
+        }
+
+        // when
+        for ( int i = 0; i < 100; i++ )
+        {
+            hedging.responded( ONE, 100, 70_000 );
+        }
+
+        // then
+        assertEquals( 1_000, hedging.delay( ONE, 70_000 ) );
+        assertEquals( 100, hedging.delay( ONE, 130_000 ) );
+        assertEquals( 0, hedging.delay( ONE, 300_000 ) );
+    }
+
+    @Test
+    public void shouldKeepHedgesWithinBudget() throws Exception
+    {
+        // given
+        for ( int i = 0; i < 25; i++ )
+        {
+            hedging.delay( ONE, 0 );
+        }
+
+        // when
+        assertTrue( hedging.tryHedge( 0 ) );
+        assertTrue( hedging.tryHedge( 0 ) );
+
+        // then
+        assertFalse( hedging.tryHedge( 0 ) );
+    }
+
+    @Test
+    public void shouldNotHedgeWithoutReads() throws Exception
+    {
+        assertFalse( hedging.tryHedge( 0 ) );
+    }
+}
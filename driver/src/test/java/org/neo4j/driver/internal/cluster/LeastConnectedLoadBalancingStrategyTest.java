@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LeastConnectedLoadBalancingStrategyTest
+{
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one" );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two" );
+    private static final BoltServerAddress TRE = new BoltServerAddress( "tre" );
+
+    private final ConnectionPool connections = mock( ConnectionPool.class );
+    private final LeastConnectedLoadBalancingStrategy strategy =
+            new LeastConnectedLoadBalancingStrategy( connections );
+    private final RoundRobinArrayIndex index = new RoundRobinArrayIndex();
+
+    @Test
+    public void shouldReturnNullWhenEmpty() throws Exception
+    {
+        assertNull( strategy.select( new BoltServerAddress[0], new RoundRobinArrayIndex() ) );
+    }
+
+    @Test
+    public void shouldSelectServerWithFewestConnectionsInUse() throws Exception
+    {
+        // given
+        BoltServerAddress[] set = addresses( ONE, TWO, TRE );
+        when( connections.activeConnections( ONE ) ).thenReturn( 7 );
+        when( connections.activeConnections( TWO ) ).thenReturn( 2 );
+        when( connections.activeConnections( TRE ) ).thenReturn( 5 );
+
+        // then
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( TWO, strategy.select( set, index ) );
+        }
+    }
+
+    @Test
+    public void shouldRotateBetweenServersWithEqualConnectionsInUse() throws Exception
+    {
+        // given
+        BoltServerAddress[] set = addresses( ONE, TWO, TRE );
+
+        // when
+        BoltServerAddress a = strategy.select( set, index );
+        BoltServerAddress b = strategy.select( set, index );
+        BoltServerAddress c = strategy.select( set, index );
+
+        // then
+        assertNotEquals( a, b );
+        assertNotEquals( b, c );
+        assertNotEquals( a, c );
+        assertEquals( a, strategy.select( set, index ) );
+    }
+
+    private static BoltServerAddress[] addresses( BoltServerAddress... addresses )
+    {
+        return addresses;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LeastResponseTimeLoadBalancingStrategyTest
+{
+    private static final BoltServerAddress FAST = new BoltServerAddress( "fast" );
+    private static final BoltServerAddress SLOW = new BoltServerAddress( "slow" );
+    private static final BoltServerAddress SLOWER = new BoltServerAddress( "slower" );
+
+    private final ConnectionPool connections = mock( ConnectionPool.class );
+    private final LeastResponseTimeLoadBalancingStrategy strategy =
+            new LeastResponseTimeLoadBalancingStrategy( connections );
+    private final RoundRobinArrayIndex index = new RoundRobinArrayIndex();
+
+    @Test
+    public void shouldReturnNullWhenEmpty() throws Exception
+    {
+        assertNull( strategy.select( new BoltServerAddress[0], new RoundRobinArrayIndex() ) );
+    }
+
+    @Test
+    public void shouldAlwaysPickFasterOfTwoServers() throws Exception
+    {
+        // given
+        BoltServerAddress[] set = addresses( FAST, SLOW );
+        when( connections.responseTime( FAST ) ).thenReturn( 1_000.0 );
+        when( connections.responseTime( SLOW ) ).thenReturn( 5_000.0 );
+
+        // then
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertEquals( FAST, strategy.select( set, index ) );
+        }
+    }
+
+    @Test
+    public void shouldAvoidBusyServerEvenWhenFaster() throws Exception
+    {
+        // given
+        BoltServerAddress[] set = addresses( FAST, SLOW );
+        when( connections.responseTime( FAST ) ).thenReturn( 1_000.0 );
+        when( connections.activeConnections( FAST ) ).thenReturn( 9 );
+        when( connections.responseTime( SLOW ) ).thenReturn( 5_000.0 );
+
+        // then
+        assertEquals( SLOW, strategy.select( set, index ) );
+    }
+
+    @Test
+    public void shouldSpreadSessionsWhilePreferringFasterServers() throws Exception
+    {
+        // given
+        BoltServerAddress[] set = addresses( FAST, SLOW, SLOWER );
+        when( connections.responseTime( FAST ) ).thenReturn( 1_000.0 );
+        when( connections.responseTime( SLOW ) ).thenReturn( 2_000.0 );
+        when( connections.responseTime( SLOWER ) ).thenReturn( 3_000.0 );
+
+        // when
+        Map<BoltServerAddress,Integer> selected = new HashMap<>();
+        for ( int i = 0; i < 3_000; i++ )
+        {
+            BoltServerAddress address = strategy.select( set, index );
+            Integer count = selected.get( address );
+            selected.put( address, count == null ? 1 : count + 1 );
+        }
+
+        // then the fastest server is picked whenever it is one of the two, the slowest one never
+        assertThat( selected.get( FAST ), greaterThan( 1_800 ) );
+        assertThat( selected.get( SLOW ), greaterThan( 800 ) );
+        assertThat( selected.get( SLOW ), lessThan( 1_200 ) );
+        assertNull( selected.get( SLOWER ) );
+    }
+
+    private static BoltServerAddress[] addresses( BoltServerAddress... addresses )
+    {
+        return addresses;
+    }
+}
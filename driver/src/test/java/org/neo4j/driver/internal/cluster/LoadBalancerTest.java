@@ -18,32 +18,51 @@
  */
 package org.neo4j.driver.internal.cluster;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.hamcrest.Matcher;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.neo4j.driver.internal.EventHandler;
 import org.neo4j.driver.internal.net.BoltServerAddress;
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPool;
 import org.neo4j.driver.internal.spi.StubConnectionPool;
+import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.FakeClock;
 import org.neo4j.driver.internal.util.MatcherFactory;
 import org.neo4j.driver.v1.EventLogger;
+import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
 import org.neo4j.driver.v1.util.Function;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static org.hamcrest.Matchers.any;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.neo4j.driver.internal.cluster.ClusterTopology.Role.READ;
 import static org.neo4j.driver.internal.cluster.ClusterTopology.Role.ROUTE;
 import static org.neo4j.driver.internal.cluster.ClusterTopology.Role.WRITE;
@@ -53,12 +72,24 @@ import static org.neo4j.driver.internal.util.FakeClock.Event.sleep;
 import static org.neo4j.driver.internal.util.MatcherFactory.inAnyOrder;
 import static org.neo4j.driver.internal.util.MatcherFactory.matches;
 import static org.neo4j.driver.v1.EventLogger.Entry.message;
+import static org.neo4j.driver.v1.Config.LoadBalancingStrategy.LEAST_CONNECTED;
+import static org.neo4j.driver.v1.Config.LoadBalancingStrategy.ROUND_ROBIN;
 import static org.neo4j.driver.v1.EventLogger.Level.INFO;
 
 public class LoadBalancerTest
 {
     private static final long RETRY_TIMEOUT_DELAY = 5_000;
     private static final int MAX_ROUTING_FAILURES = 5;
+    private static final Executor SAME_THREAD = new Executor()
+    {
+        @Override
+        public void execute( Runnable command )
+        {
+            command.run();
+        }
+    };
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
     @Rule
     public final TestRule printEventsOnFailure = new TestRule()
     {
@@ -89,7 +120,28 @@ public class LoadBalancerTest
     private final StubConnectionPool connections = new StubConnectionPool( clock, events, null );
     private final ClusterTopology cluster = new ClusterTopology( events, clock );
 
+    /**
+     * @return a load balancer that refreshes the routing table and probes servers on the calling thread
+     */
+    public static LoadBalancer sameThreadLoadBalancer( RoutingSettings settings, Clock clock, Logger log,
+            ConnectionPool connections, BoltServerAddress... routingAddresses )
+    {
+        return new LoadBalancer( settings, clock, log, connections, new ClusterComposition.Provider.Default( clock ),
+                SAME_THREAD, SAME_THREAD, routingAddresses );
+    }
+
     private LoadBalancer seedLoadBalancer( String host, int port ) throws Exception
+    {
+        return seedLoadBalancer( host, port, SAME_THREAD );
+    }
+
+    private LoadBalancer seedLoadBalancer( String host, int port, Executor refresher ) throws Exception
+    {
+        return seedLoadBalancer( host, port, refresher, SAME_THREAD );
+    }
+
+    private LoadBalancer seedLoadBalancer( String host, int port, Executor refresher, Executor prober )
+            throws Exception
     {
         return new LoadBalancer(
                 new RoutingSettings( MAX_ROUTING_FAILURES, RETRY_TIMEOUT_DELAY ),
@@ -97,6 +149,8 @@ public class LoadBalancerTest
                 log,
                 connections,
                 cluster,
+                refresher,
+                prober,
                 new BoltServerAddress( host, port ) );
     }
 
@@ -168,6 +222,50 @@ public class LoadBalancerTest
         events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
     }
 
+    @Test
+    public void shouldRefreshInBackgroundBeforeTtlExpires() throws Exception
+    {
+        // given
+        coreClusterOn( 20, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> refreshes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, deferred( refreshes ) );
+
+        // when
+        clock.progress( 17_000 );  // most of the TTL has passed
+        routing.acquireWriteConnection();
+        routing.acquireWriteConnection();
+
+        // then
+        assertEquals( 1, refreshes.size() );
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
+
+        // when
+        refreshes.get( 0 ).run();
+
+        // then
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldServeExpiredRoutingTableWhileRefreshing() throws Exception
+    {
+        // given
+        coreClusterOn( 20, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> refreshes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, deferred( refreshes ) );
+
+        // when
+        clock.progress( 25_000 );  // will cause TTL timeout
+        Connection connection = routing.acquireWriteConnection();
+
+        // then
+        assertEquals( new BoltServerAddress( "some.host", 1337 ), connection.address() );
+        assertEquals( 1, refreshes.size() );
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
+    }
+
     @Test
     public void shouldReconnectWithRouterIfOnlyOneRouterIsFound() throws Exception
     {
@@ -573,6 +671,268 @@ public class LoadBalancerTest
         events.printEvents( System.out );
     }
 
+    @Test
+    public void shouldNotWaitForUnreachableRouterWhenAskingRoutersConcurrently() throws Exception
+    {
+        // given
+        final BoltServerAddress unreachable = new BoltServerAddress( "unreachable", 1337 );
+        BoltServerAddress reachable = new BoltServerAddress( "reachable", 1337 );
+        final CountDownLatch connectTimeout = new CountDownLatch( 1 );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( unreachable ) ).thenAnswer( new Answer<Connection>()
+        {
+            @Override
+            public Connection answer( InvocationOnMock invocation ) throws Throwable
+            {
+                connectTimeout.await();
+                throw new ServiceUnavailableException( "Unable to connect to " + unreachable );
+            }
+        } );
+        Connection connection = mock( Connection.class );
+        when( pool.acquire( reachable ) ).thenReturn( connection );
+        ClusterComposition.Provider provider = mock( ClusterComposition.Provider.class );
+        when( provider.getClusterComposition( connection ) ).thenReturn( new ClusterComposition( Long.MAX_VALUE,
+                singleton( reachable ), singleton( reachable ), new HashSet<>( asList( unreachable, reachable ) ) ) );
+
+        try
+        {
+            // when
+            LoadBalancer routing = new LoadBalancer(
+                    new RoutingSettings( MAX_ROUTING_FAILURES, RETRY_TIMEOUT_DELAY, ROUND_ROBIN, 2 ),
+                    clock, log, pool, provider, SAME_THREAD, SAME_THREAD, unreachable, reachable );
+
+            // then
+            assertEquals( connection, routing.acquireWriteConnection() );
+        }
+        finally
+        {
+            connectTimeout.countDown();
+        }
+    }
+
+    @Test
+    public void shouldServeCachedRoutingTableWhileRefreshingIt() throws Exception
+    {
+        // given
+        File file = folder.newFile();
+        BoltServerAddress seed = new BoltServerAddress( "some.host", 1337 );
+        BoltServerAddress cached = new BoltServerAddress( "another.host", 1337 );
+        new RoutingTableCache( file, new BoltServerAddress[]{seed}, clock, log ).save( new ClusterComposition(
+                clock.millis() + 60_000, singleton( cached ), singleton( cached ), singleton( cached ) ) );
+        connections.up( "some.host", 1337 );
+        connections.up( "another.host", 1337 );
+        cluster.on( "some.host", 1337 )
+                .provide( "some.host", 1337, READ, WRITE, ROUTE );
+        List<Runnable> refreshes = new ArrayList<>();
+
+        // when
+        LoadBalancer routing = new LoadBalancer(
+                new RoutingSettings( MAX_ROUTING_FAILURES, RETRY_TIMEOUT_DELAY, ROUND_ROBIN, 1, file ),
+                clock, log, connections, cluster, deferred( refreshes ), SAME_THREAD, seed );
+
+        // then
+        assertEquals( cached, routing.acquireReadConnection().address() );
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 0 ) );
+        assertEquals( 1, refreshes.size() );
+
+        // when
+        refreshes.get( 0 ).run();
+
+        // then
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
+        assertEquals( seed, routing.acquireReadConnection().address() );
+    }
+
+    @Test
+    public void shouldProbeAndReadmitForgottenServer() throws Exception
+    {
+        // given
+        coreClusterOn( 300, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> probes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, SAME_THREAD, deferred( probes ) );
+        BoltServerAddress forgotten = new BoltServerAddress( "another.host", 1337 );
+        routing.onConnectionFailure( forgotten );
+
+        // when
+        routing.acquireReadConnection();
+
+        // then
+        assertEquals( 0, probes.size() );
+
+        // when
+        clock.progress( RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY );
+        routing.acquireReadConnection();
+        probes.get( 0 ).run();
+        clock.progress( RoutingSettings.DEFAULT_SLOW_START );
+
+        // then
+        Set<BoltServerAddress> readers = new HashSet<>();
+        readers.add( routing.acquireReadConnection().address() );
+        readers.add( routing.acquireReadConnection().address() );
+        assertEquals( new HashSet<>( asList( new BoltServerAddress( "some.host", 1337 ), forgotten ) ), readers );
+        assertEquals( 1, probes.size() );
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldProbeAgainWhenProbeIsRejected() throws Exception
+    {
+        // given
+        coreClusterOn( 300, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        final List<Runnable> probes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, SAME_THREAD, new Executor()
+        {
+            private boolean rejected;
+
+            @Override
+            public void execute( Runnable command )
+            {
+                if ( !rejected )
+                {
+                    rejected = true;
+                    throw new RejectedExecutionException();
+                }
+                probes.add( command );
+            }
+        } );
+        routing.onConnectionFailure( new BoltServerAddress( "another.host", 1337 ) );
+
+        // when
+        clock.progress( RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY );
+        routing.acquireReadConnection();
+        clock.progress( 2 * RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY );
+        routing.acquireReadConnection();
+
+        // then
+        assertEquals( 1, probes.size() );
+    }
+
+    @Test
+    public void shouldReadmitForgottenWriterForReadingOnly() throws Exception
+    {
+        // given
+        coreClusterOn( 300, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> refreshes = new ArrayList<>();
+        List<Runnable> probes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, deferred( refreshes ), deferred( probes ) );
+        BoltServerAddress leader = new BoltServerAddress( "some.host", 1337 );
+        routing.onConnectionFailure( leader );
+
+        // when
+        clock.progress( RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY );
+        routing.acquireReadConnection();
+        probes.get( 0 ).run();
+        clock.progress( RoutingSettings.DEFAULT_SLOW_START );
+
+        // then
+        Set<BoltServerAddress> readers = new HashSet<>();
+        readers.add( routing.acquireReadConnection().address() );
+        readers.add( routing.acquireReadConnection().address() );
+        assertEquals( new HashSet<>( asList( leader, new BoltServerAddress( "another.host", 1337 ) ) ), readers );
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 1 ) );
+
+        // when
+        routing.acquireWriteConnection();
+
+        // then the writer is left to discovery
+        events.assertCount( any( ClusterTopology.CompositionRequest.class ), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldReadFromEjectedServerWhenNoOtherReaderIsLeft() throws Exception
+    {
+        // given
+        coreClusterOn( 300, "some.host", 1337, "another.host" );
+        connections.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> refreshes = new ArrayList<>();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, deferred( refreshes ) );
+        for ( int i = 0; i < 20; i++ )
+        {
+            routing.acquireReadConnection();
+        }
+        BoltServerAddress ejected = new BoltServerAddress( "another.host", 1337 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            routing.onServerFailure( ejected );
+        }
+        assertEquals( new BoltServerAddress( "some.host", 1337 ), routing.acquireReadConnection().address() );
+        assertEquals( new BoltServerAddress( "some.host", 1337 ), routing.acquireReadConnection().address() );
+
+        // when
+        routing.onConnectionFailure( new BoltServerAddress( "some.host", 1337 ) );
+
+        // then the remaining reader is used while the routing table is refreshed in the background
+        assertEquals( ejected, routing.acquireReadConnection().address() );
+    }
+
+    @Test
+    public void shouldShutDownExecutorsOnClose() throws Exception
+    {
+        // given
+        connections.up( "some.host", 1337 );
+        cluster.on( "some.host", 1337 )
+                .provide( "some.host", 1337, READ, WRITE, ROUTE );
+        ExecutorService refresher = Executors.newSingleThreadExecutor();
+        ExecutorService prober = Executors.newSingleThreadExecutor();
+        LoadBalancer routing = seedLoadBalancer( "some.host", 1337, refresher, prober );
+
+        // when
+        routing.close();
+
+        // then
+        assertTrue( refresher.isShutdown() );
+        assertTrue( prober.isShutdown() );
+    }
+
+    @Test
+    public void shouldNotPickWarmingUpServerAgainWithLeastConnectedStrategy() throws Exception
+    {
+        // given
+        coreClusterOn( 300, "some.host", 1337, "another.host" );
+        final BoltServerAddress busy = new BoltServerAddress( "some.host", 1337 );
+        StubConnectionPool pool = new StubConnectionPool( clock, events, null )
+        {
+            @Override
+            public int activeConnections( BoltServerAddress address )
+            {
+                return address.equals( busy ) ? 5 : 0;
+            }
+        };
+        pool.up( "some.host", 1337 ).up( "another.host", 1337 );
+        List<Runnable> probes = new ArrayList<>();
+        LoadBalancer routing = new LoadBalancer(
+                new RoutingSettings( MAX_ROUTING_FAILURES, RETRY_TIMEOUT_DELAY, LEAST_CONNECTED ),
+                clock, log, pool, cluster, SAME_THREAD, deferred( probes ), busy );
+        BoltServerAddress recovered = new BoltServerAddress( "another.host", 1337 );
+        routing.onConnectionFailure( recovered );
+
+        // when
+        clock.progress( RoutingSettings.DEFAULT_INITIAL_PROBE_DELAY );
+        routing.acquireReadConnection();
+        probes.get( 0 ).run();
+
+        // then the recovered server is idle, but only gets sessions as its slow start progresses
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertEquals( busy, routing.acquireReadConnection().address() );
+        }
+    }
+
+    private static Executor deferred( final List<Runnable> tasks )
+    {
+        return new Executor()
+        {
+            @Override
+            public void execute( Runnable command )
+            {
+                tasks.add( command );
+            }
+        };
+    }
+
     private void coreClusterOn( int ttlSeconds, String leader, int port, String... others )
     {
         for ( int i = 0; i <= others.length; i++ )
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.v1.ZoneResolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LocalityFilterTest
+{
+    private static final BoltServerAddress NEAR1 = new BoltServerAddress( "near1" );
+    private static final BoltServerAddress NEAR2 = new BoltServerAddress( "near2" );
+    private static final BoltServerAddress FAR1 = new BoltServerAddress( "far1" );
+    private static final BoltServerAddress FAR2 = new BoltServerAddress( "far2" );
+    private static final BoltServerAddress[] READERS = {FAR1, NEAR1, FAR2, NEAR2};
+
+    private final ConnectionPool connections = mock( ConnectionPool.class );
+    private final LocalityFilter locality = new LocalityFilter( "here", new ZoneResolver()
+    {
+        @Override
+        public String zoneOf( String host, int port )
+        {
+            return host.startsWith( "near" ) ? "here" : host.startsWith( "far" ) ? "there" : null;
+        }
+    }, connections );
+
+    @Test
+    public void shouldPreferLocalServers() throws Exception
+    {
+        // given
+        when( connections.hasCapacity( any( BoltServerAddress.class ) ) ).thenReturn( true );
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, READERS );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{NEAR1, NEAR2}, servers );
+        assertSame( servers, locality.filter( READERS, READERS ) );
+    }
+
+    @Test
+    public void shouldUseLocalServersWhileOneHasCapacity() throws Exception
+    {
+        // given
+        when( connections.hasCapacity( NEAR1 ) ).thenReturn( false );
+        when( connections.hasCapacity( NEAR2 ) ).thenReturn( true );
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, READERS );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{NEAR1, NEAR2}, servers );
+    }
+
+    @Test
+    public void shouldFallBackToRemoteServersWhenLocalCapacityIsExhausted() throws Exception
+    {
+        // given
+        when( connections.hasCapacity( NEAR1 ) ).thenReturn( false );
+        when( connections.hasCapacity( NEAR2 ) ).thenReturn( false );
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, READERS );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{FAR1, FAR2}, servers );
+    }
+
+    @Test
+    public void shouldFallBackToRemoteServersWhenNoLocalServerIsLeft() throws Exception
+    {
+        // given
+        BoltServerAddress[] readers = {FAR1, FAR2};
+
+        // when
+        BoltServerAddress[] servers = locality.filter( readers, readers );
+
+        // then
+        assertSame( readers, servers );
+    }
+
+    @Test
+    public void shouldLeaveOutServersThatAreNotAvailable() throws Exception
+    {
+        // given
+        when( connections.hasCapacity( any( BoltServerAddress.class ) ) ).thenReturn( true );
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, new BoltServerAddress[]{FAR1, FAR2, NEAR2} );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{NEAR2}, servers );
+    }
+
+    @Test
+    public void shouldFallBackToRemoteServersWhenNoLocalServerIsAvailable() throws Exception
+    {
+        // given
+        BoltServerAddress[] available = {FAR1, FAR2};
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, available );
+
+        // then
+        assertSame( available, servers );
+    }
+
+    @Test
+    public void shouldNotFilterWithoutLocalZone() throws Exception
+    {
+        // given
+        LocalityFilter locality = new LocalityFilter( null, null, connections );
+
+        // when
+        BoltServerAddress[] servers = locality.filter( READERS, READERS );
+
+        // then
+        assertSame( READERS, servers );
+    }
+
+    @Test
+    public void shouldResolveZoneOfServerOnce() throws Exception
+    {
+        // given
+        ZoneResolver resolver = mock( ZoneResolver.class );
+        when( resolver.zoneOf( "near1", BoltServerAddress.DEFAULT_PORT ) ).thenReturn( "here" );
+        LocalityFilter locality = new LocalityFilter( "here", resolver, connections );
+        when( connections.hasCapacity( NEAR1 ) ).thenReturn( true );
+        BoltServerAddress[] readers = {NEAR1, FAR1};
+
+        // when
+        locality.filter( readers, readers );
+        BoltServerAddress[] servers = locality.filter( readers, new BoltServerAddress[]{NEAR1} );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{NEAR1}, servers );
+        verify( resolver ).zoneOf( "near1", BoltServerAddress.DEFAULT_PORT );
+    }
+}
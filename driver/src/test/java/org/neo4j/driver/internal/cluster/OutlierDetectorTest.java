@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.v1.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class OutlierDetectorTest
+{
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one" );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two" );
+    private static final BoltServerAddress TRE = new BoltServerAddress( "tre" );
+    private static final BoltServerAddress[] READERS = {ONE, TWO, TRE};
+
+    private final OutlierDetector outliers = new OutlierDetector( 0.3, 10_000, mock( Logger.class ) );
+
+    @Test
+    public void shouldEjectServerFailingFarMoreOftenThanOthers() throws Exception
+    {
+        // given
+        sessions( 20, READERS );
+        fail( ONE, 1 );
+        fail( TWO, 1 );
+
+        // when
+        fail( TRE, 6 );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{ONE, TWO}, outliers.filter( READERS, 0 ) );
+    }
+
+    @Test
+    public void shouldNotEjectServerFailingAsOftenAsOthers() throws Exception
+    {
+        // given
+        sessions( 20, READERS );
+        for ( int i = 0; i < 4; i++ )
+        {
+            fail( ONE, 1 );
+            fail( TWO, 1 );
+            fail( TRE, 1 );
+        }
+
+        // when
+        fail( TRE, 2 );
+
+        // then
+        assertSame( READERS, outliers.filter( READERS, 0 ) );
+    }
+
+    @Test
+    public void shouldNotEjectServerWithTooFewSessions() throws Exception
+    {
+        // given
+        sessions( 20, ONE, TWO );
+        sessions( 5, TRE );
+
+        // when
+        fail( TRE, 5 );
+
+        // then
+        assertSame( READERS, outliers.filter( READERS, 0 ) );
+    }
+
+    @Test
+    public void shouldNotEjectMoreThanMaximumShare() throws Exception
+    {
+        // given
+        sessions( 20, READERS );
+        fail( TWO, 10 );
+
+        // when
+        fail( TRE, 10 );
+
+        // then only one of three servers may be ejected
+        assertArrayEquals( new BoltServerAddress[]{ONE, TRE}, outliers.filter( READERS, 0 ) );
+    }
+
+    @Test
+    public void shouldReadFromEjectedServerAgainAfterEjectionTime() throws Exception
+    {
+        // given
+        sessions( 20, READERS );
+        fail( TRE, 10 );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{ONE, TWO}, outliers.filter( READERS, 9_999 ) );
+        assertSame( READERS, outliers.filter( READERS, 10_000 ) );
+    }
+
+    private void sessions( int count, BoltServerAddress... addresses )
+    {
+        for ( BoltServerAddress address : addresses )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                outliers.sessionStarted( address, 0 );
+            }
+        }
+    }
+
+    private void fail( BoltServerAddress address, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            outliers.failed( address, READERS, 0 );
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RoundRobinArrayIndexTest
+{
+    @Test
+    public void shouldReturnIndexesInTurn() throws Exception
+    {
+        // given
+        RoundRobinArrayIndex index = new RoundRobinArrayIndex();
+
+        // then
+        for ( int i = 0; i < 7; i++ )
+        {
+            assertEquals( i % 3, index.next( 3 ) );
+        }
+    }
+
+    @Test
+    public void shouldPreserveOrderEvenWhenIntegerOverflows() throws Exception
+    {
+        // given
+        RoundRobinArrayIndex index = new RoundRobinArrayIndex();
+
+        for ( int div = 1; div <= 1024; div++ )
+        {
+            // when - white box testing!
+            index.setOffset( Integer.MAX_VALUE - 1 );
+            int a = index.next( div );
+            int b = index.next( div );
+
+            // then
+            if ( b != (a + 1) % div )
+            {
+                fail( String.format( "a=%d, b=%d, div=%d, (a+1)%%div=%d", a, b, div, (a + 1) % div ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.metrics.Metrics;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.driver.internal.logging.DevNullLogger.DEV_NULL_LOGGER;
+
+/**
+ * Measures how many servers {@link LoadBalancer} can choose per second from an increasing number of threads, up to
+ * 128, and compares it to a routing table guarded by a lock, the way routing tables are commonly kept.
+ *
+ * The connection pool hands out the same connection for every server, so the numbers reflect the cost of reading
+ * the routing table and choosing a server under contention rather than that of acquiring a connection.
+ */
+public class RoutingTableBenchmark
+{
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASUREMENT_MILLIS = 5_000;
+    private static final int MAX_THREADS = 128;
+    private static final Set<BoltServerAddress> SERVERS = new HashSet<>( asList(
+            new BoltServerAddress( "one", 7687 ),
+            new BoltServerAddress( "two", 7687 ),
+            new BoltServerAddress( "tre", 7687 ) ) );
+
+    public static void main( String... args ) throws Throwable
+    {
+        System.out.println( String.format( "%-8s %20s %20s", "threads", "snapshot ops/s", "locked ops/s" ) );
+        for ( int threads = 1; threads <= MAX_THREADS; threads *= 2 )
+        {
+            long snapshot = bench( new Snapshot(), threads );
+            long locked = bench( new Locked(), threads );
+            System.out.println( String.format( "%-8d %,20d %,20d", threads, snapshot, locked ) );
+        }
+    }
+
+    private static long bench( final Router router, int threads ) throws InterruptedException
+    {
+        run( router, threads, WARMUP_MILLIS );
+        return run( router, threads, MEASUREMENT_MILLIS ) * 1_000 / MEASUREMENT_MILLIS;
+    }
+
+    private static long run( final Router router, int threads, long millis ) throws InterruptedException
+    {
+        final AtomicBoolean running = new AtomicBoolean( true );
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long count = 0;
+                    while ( running.get() )
+                    {
+                        router.acquireReadConnection();
+                        count++;
+                    }
+                    operations.addAndGet( count );
+                    done.countDown();
+                }
+            } ).start();
+        }
+        Thread.sleep( millis );
+        running.set( false );
+        done.await();
+        return operations.get();
+    }
+
+    private interface Router
+    {
+        Connection acquireReadConnection();
+    }
+
+    private static class Snapshot implements Router
+    {
+        private final LoadBalancer loadBalancer;
+
+        Snapshot()
+        {
+            Executor sameThread = new Executor()
+            {
+                @Override
+                public void execute( Runnable command )
+                {
+                    command.run();
+                }
+            };
+            loadBalancer = new LoadBalancer(
+                    new RoutingSettings( 1, 0, Config.LoadBalancingStrategy.ROUND_ROBIN ),
+                    Clock.SYSTEM,
+                    DEV_NULL_LOGGER,
+                    new SingleConnectionPool(),
+                    new ClusterComposition.Provider()
+                    {
+                        @Override
+                        public ClusterComposition getClusterComposition( Connection connection )
+                        {
+                            return new ClusterComposition( Long.MAX_VALUE, SERVERS, SERVERS, SERVERS );
+                        }
+                    },
+                    sameThread,
+                    sameThread,
+                    new BoltServerAddress( "one", 7687 ) );
+        }
+
+        @Override
+        public Connection acquireReadConnection()
+        {
+            return loadBalancer.acquireReadConnection();
+        }
+    }
+
+    private static class Locked implements Router
+    {
+        private final ConnectionPool connections = new SingleConnectionPool();
+        private final BoltServerAddress[] readers = SERVERS.toArray( new BoltServerAddress[0] );
+        private final long refreshTimeout = Long.MAX_VALUE;
+        private int offset;
+
+        @Override
+        public Connection acquireReadConnection()
+        {
+            BoltServerAddress address;
+            synchronized ( this )
+            {
+                if ( refreshTimeout < Clock.SYSTEM.millis() || readers.length == 0 )
+                {
+                    throw new IllegalStateException( "never stale" );
+                }
+                address = readers[(offset++ & Integer.MAX_VALUE) % readers.length];
+            }
+            return connections.acquire( address );
+        }
+    }
+
+    private static class SingleConnectionPool implements ConnectionPool
+    {
+        private final Connection connection = mock( Connection.class );
+
+        @Override
+        public Connection acquire( BoltServerAddress address )
+        {
+            return connection;
+        }
+
+        @Override
+        public void purge( BoltServerAddress address )
+        {
+        }
+
+        @Override
+        public boolean hasAddress( BoltServerAddress address )
+        {
+            return true;
+        }
+
+        @Override
+        public int activeConnections( BoltServerAddress address )
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean hasCapacity( BoltServerAddress address )
+        {
+            return true;
+        }
+
+        @Override
+        public double responseTime( BoltServerAddress address )
+        {
+            return 0;
+        }
+
+        @Override
+        public Metrics metrics()
+        {
+            return null;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.HashSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.neo4j.driver.internal.EventHandler;
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.util.FakeClock;
+import org.neo4j.driver.v1.Logger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class RoutingTableCacheTest
+{
+    private static final BoltServerAddress SEED = new BoltServerAddress( "seed", 7687 );
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one", 7687 );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two", 7687 );
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+    private final FakeClock clock = new FakeClock( (EventHandler) null, false );
+    private final Logger log = mock( Logger.class );
+
+    @Test
+    public void shouldLoadSavedRoutingTable() throws Exception
+    {
+        // given
+        RoutingTableCache cache = cache( file(), SEED );
+        cache.save( new ClusterComposition( 1_000, new HashSet<>( asList( ONE, TWO ) ), singleton( ONE ),
+                new HashSet<>( asList( ONE, TWO ) ) ) );
+
+        // when
+        ClusterComposition cluster = cache( file(), SEED ).load();
+
+        // then
+        assertNotNull( cluster );
+        assertEquals( 1_000, cluster.expirationTimestamp );
+        assertEquals( new HashSet<>( asList( ONE, TWO ) ), cluster.readers() );
+        assertEquals( singleton( ONE ), cluster.writers() );
+        assertEquals( new HashSet<>( asList( ONE, TWO, SEED ) ), cluster.routers() );
+    }
+
+    @Test
+    public void shouldNotLoadRoutingTableOfOtherRoutingServers() throws Exception
+    {
+        // given
+        cache( file(), SEED ).save( new ClusterComposition( 1_000, singleton( ONE ), singleton( ONE ),
+                singleton( ONE ) ) );
+
+        // then
+        assertNull( cache( file(), TWO ).load() );
+    }
+
+    @Test
+    public void shouldNotLoadExpiredRoutingTable() throws Exception
+    {
+        // given
+        RoutingTableCache cache = cache( file(), SEED );
+        cache.save( new ClusterComposition( 1_000, singleton( ONE ), singleton( ONE ), singleton( ONE ) ) );
+
+        // when
+        clock.progress( 1_000 );
+
+        // then
+        assertNull( cache.load() );
+    }
+
+    @Test
+    public void shouldIgnoreMissingOrUnreadableFile() throws Exception
+    {
+        // given
+        File file = file();
+        RoutingTableCache cache = cache( file, SEED );
+        assertNull( cache.load() );
+
+        // when
+        assertTrue( file.getParentFile().mkdirs() );
+        try ( FileWriter writer = new FileWriter( file ) )
+        {
+            writer.write( "seed=seed:7687\nexpires=soon\n" );
+        }
+
+        // then
+        assertNull( cache.load() );
+    }
+
+    private File file()
+    {
+        return new File( folder.getRoot(), "routing/table" );
+    }
+
+    private RoutingTableCache cache( File file, BoltServerAddress... routingAddresses )
+    {
+        return new RoutingTableCache( file, routingAddresses, clock, log );
+    }
+}
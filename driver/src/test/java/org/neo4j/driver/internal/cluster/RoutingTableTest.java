@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RoutingTableTest
+{
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one" );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two" );
+    private static final BoltServerAddress TRE = new BoltServerAddress( "tre" );
+    private static final BoltServerAddress FYR = new BoltServerAddress( "fyr" );
+
+    @Test
+    public void shouldPreserveOrderWhenAdding() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO, TRE );
+        BoltServerAddress[] order = table.readers();
+
+        // when
+        table = update( table, new HashSet<BoltServerAddress>(), ONE, TWO, TRE, FYR );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{order[0], order[1], order[2], FYR}, table.readers() );
+    }
+
+    @Test
+    public void shouldPreserveOrderWhenRemoving() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO, TRE );
+        BoltServerAddress[] order = table.readers();
+
+        // when
+        table = table.forget( order[1] );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{order[0], order[2]}, table.readers() );
+        assertArrayEquals( new BoltServerAddress[]{order[0], order[2]}, table.writers() );
+    }
+
+    @Test
+    public void shouldPreserveOrderWhenRemovingThroughUpdate() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO, TRE );
+        BoltServerAddress[] order = table.readers();
+        Set<BoltServerAddress> servers = new HashSet<>( asList( order ) );
+        servers.remove( order[1] );
+
+        // when
+        table = update( table, new HashSet<BoltServerAddress>(), servers.toArray( new BoltServerAddress[0] ) );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{order[0], order[2]}, table.readers() );
+    }
+
+    @Test
+    public void shouldRecordRemovedAddressesWhenUpdating() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO, TRE );
+
+        // when
+        HashSet<BoltServerAddress> removed = new HashSet<>();
+        update( table, removed, ONE, TWO, FYR );
+
+        // then
+        assertEquals( singleton( TRE ), removed );
+    }
+
+    @Test
+    public void shouldKeepForgottenServerAsRouter() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO );
+
+        // when
+        table = table.forget( ONE );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{TWO}, table.readers() );
+        assertArrayEquals( new BoltServerAddress[]{TWO}, table.writers() );
+        assertEquals( 2, table.routers().length );
+    }
+
+    @Test
+    public void shouldReadmitForgottenServerForReading() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO ).forget( ONE );
+
+        // when
+        table = table.readmit( ONE );
+
+        // then
+        assertArrayEquals( new BoltServerAddress[]{TWO, ONE}, table.readers() );
+        assertArrayEquals( new BoltServerAddress[]{TWO}, table.writers() );
+        assertSame( table, table.readmit( ONE ) );
+    }
+
+    @Test
+    public void shouldKeepGenerationUntilUpdated() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO );
+
+        // when
+        RoutingTable forgotten = table.forget( ONE ).readmit( ONE );
+
+        // then
+        assertEquals( table.generation(), forgotten.generation() );
+        assertEquals( table.generation() + 1,
+                update( forgotten, new HashSet<BoltServerAddress>(), ONE, TWO ).generation() );
+    }
+
+    @Test
+    public void shouldNotCopyTableWhenForgettingUnknownServer() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO );
+
+        // then
+        assertSame( table, table.forget( FYR ) );
+        assertSame( table, table.forgetWriter( FYR ) );
+        assertSame( table, table.forgetRouter( FYR ) );
+    }
+
+    @Test
+    public void shouldBeStaleWhenLackingServersForSomeRole() throws Exception
+    {
+        // given
+        RoutingTable table = table( ONE, TWO );
+
+        // then
+        assertFalse( table.isStale( 0 ) );
+        assertTrue( table.isStale( 1_001 ) );
+        assertTrue( table.forgetWriter( ONE ).forgetWriter( TWO ).isStale( 0 ) );
+        assertTrue( table.forgetRouter( ONE ).isStale( 0 ) );
+    }
+
+    private static RoutingTable table( BoltServerAddress... servers )
+    {
+        return update( RoutingTable.seed( new HashSet<BoltServerAddress>(), 0 ), new HashSet<BoltServerAddress>(),
+                servers );
+    }
+
+    private static RoutingTable update( RoutingTable table, Set<BoltServerAddress> removed,
+            BoltServerAddress... servers )
+    {
+        Set<BoltServerAddress> addresses = new HashSet<>( asList( servers ) );
+        return table.update( new ClusterComposition( 1_000, addresses, addresses, addresses ), 1_000, removed );
+    }
+}
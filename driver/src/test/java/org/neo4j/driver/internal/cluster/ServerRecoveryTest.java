@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.cluster;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ServerRecoveryTest
+{
+    private static final BoltServerAddress ONE = new BoltServerAddress( "one" );
+    private static final BoltServerAddress TWO = new BoltServerAddress( "two" );
+
+    private final ServerRecovery recovery = new ServerRecovery( 1_000, 4_000, 10_000 );
+
+    @Test
+    public void shouldProbeWithExponentialBackOff() throws Exception
+    {
+        // given
+        recovery.forgotten( ONE, 1, 0 );
+
+        // then
+        assertThat( recovery.dueProbes( 999 ), empty() );
+        assertEquals( singletonList( ONE ), recovery.dueProbes( 1_000 ) );
+        assertThat( recovery.dueProbes( 1_000 ), empty() );
+
+        // when
+        recovery.probeFailed( ONE, 1_000 );
+
+        // then
+        assertThat( recovery.dueProbes( 2_999 ), empty() );
+        assertEquals( singletonList( ONE ), recovery.dueProbes( 3_000 ) );
+
+        // when
+        recovery.probeFailed( ONE, 3_000 );
+        recovery.dueProbes( 7_000 );
+        recovery.probeFailed( ONE, 7_000 );
+
+        // then the delay does not grow beyond the maximum
+        assertThat( recovery.dueProbes( 10_999 ), empty() );
+        assertEquals( singletonList( ONE ), recovery.dueProbes( 11_000 ) );
+    }
+
+    @Test
+    public void shouldReadmitToRoutingTableServerWasForgottenFrom() throws Exception
+    {
+        // given
+        recovery.forgotten( ONE, 3, 0 );
+        recovery.dueProbes( 1_000 );
+
+        // when
+        ServerRecovery.Probe probe = recovery.probeSucceeded( ONE, 1_000 );
+
+        // then
+        assertEquals( 3, probe.generation );
+        assertThat( recovery.dueProbes( 100_000 ), empty() );
+    }
+
+    @Test
+    public void shouldStopProbingWhenRoutingTableIsRefreshed() throws Exception
+    {
+        // given
+        recovery.forgotten( ONE, 1, 0 );
+        recovery.dueProbes( 1_000 );
+
+        // when
+        recovery.refreshed( table( TWO ), 1_000 );
+
+        // then
+        assertNull( recovery.probeSucceeded( ONE, 2_000 ) );
+        assertTrue( recovery.admit( ONE, 2_000 ) );
+    }
+
+    @Test
+    public void shouldGiveReadmittedServerGrowingShareOfSessions() throws Exception
+    {
+        // given
+        recovery.forgotten( ONE, 1, 0 );
+        recovery.dueProbes( 1_000 );
+        recovery.probeSucceeded( ONE, 1_000 );
+
+        // then
+        assertThat( admitted( ONE, 1_000 ), lessThan( 50 ) );
+        assertThat( admitted( ONE, 3_500 ), greaterThan( 150 ) );
+        assertThat( admitted( ONE, 3_500 ), lessThan( 350 ) );
+        assertEquals( 1_000, admitted( ONE, 11_000 ) );
+        assertEquals( 1_000, admitted( TWO, 1_000 ) );
+    }
+
+    @Test
+    public void shouldWarmUpForgottenServerThatIsBackAfterRefresh() throws Exception
+    {
+        // given
+        recovery.forgotten( ONE, 1, 0 );
+
+        // when
+        recovery.refreshed( table( ONE, TWO ), 500 );
+
+        // then
+        assertThat( admitted( ONE, 500 ), lessThan( 50 ) );
+        assertEquals( 1_000, admitted( TWO, 500 ) );
+    }
+
+    private int admitted( BoltServerAddress address, long now )
+    {
+        int admitted = 0;
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            if ( recovery.admit( address, now ) )
+            {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+
+    private static RoutingTable table( BoltServerAddress... servers )
+    {
+        HashSet<BoltServerAddress> addresses = new HashSet<>( asList( servers ) );
+        return RoutingTable.seed( addresses, 0 ).update( new ClusterComposition( 1_000, addresses, addresses,
+                addresses ), 1_000, new HashSet<BoltServerAddress>() );
+    }
+}
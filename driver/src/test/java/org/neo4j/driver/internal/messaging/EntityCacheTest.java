@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.internal.net.SocketResponseHandler;
+import org.neo4j.driver.internal.spi.Collector;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Path;
+import org.neo4j.driver.v1.types.Relationship;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.driver.v1.Values.EmptyMap;
+import static org.neo4j.driver.v1.Values.ofValue;
+import static org.neo4j.driver.v1.Values.parameters;
+import static org.neo4j.driver.v1.Values.value;
+
+public class EntityCacheTest
+{
+    private final MessageFormat format = new PackStreamMessageFormatV1();
+
+    private final InternalNode alice = new InternalNode( 1, Collections.singletonList( "Person" ),
+            parameters( "name", "Alice" ).asMap( ofValue() ) );
+    private final InternalNode bob = new InternalNode( 2, Collections.singletonList( "Person" ),
+            parameters( "name", "Bob" ).asMap( ofValue() ) );
+    private final InternalRelationship knows = new InternalRelationship( 3, 1, 2, "KNOWS", EmptyMap.asMap( ofValue() ) );
+
+    @Test
+    public void shouldShareEntitiesBetweenRecordsWhenCacheIsGiven() throws IOException
+    {
+        List<Value[]> records = decode( new EntityCache(),
+                new RecordMessage( new Value[]{value( alice ), value( knows )} ),
+                new RecordMessage( new Value[]{value( alice ), value( knows )} ) );
+
+        assertThat( records.get( 1 )[0].asNode(), sameInstance( records.get( 0 )[0].asNode() ) );
+        assertThat( records.get( 1 )[1].asRelationship(), sameInstance( records.get( 0 )[1].asRelationship() ) );
+        assertThat( records.get( 1 )[0].asNode().get( "name" ).asString(), equalTo( "Alice" ) );
+    }
+
+    @Test
+    public void shouldShareEntitiesBetweenPathsAndRecords() throws IOException
+    {
+        List<Value[]> records = decode( new EntityCache(),
+                new RecordMessage( new Value[]{value( bob )} ),
+                new RecordMessage( new Value[]{value( new InternalPath( alice, knows, bob ) )} ),
+                new RecordMessage( new Value[]{value( knows )} ) );
+
+        Node cachedBob = records.get( 0 )[0].asNode();
+        Path path = records.get( 1 )[0].asPath();
+        Relationship cachedKnows = records.get( 2 )[0].asRelationship();
+
+        assertThat( path.end(), sameInstance( cachedBob ) );
+        assertThat( cachedKnows, sameInstance( path.relationships().iterator().next() ) );
+        assertThat( cachedKnows.startNodeId(), equalTo( 1L ) );
+        assertThat( cachedKnows.endNodeId(), equalTo( 2L ) );
+    }
+
+    @Test
+    public void shouldNotShareEntitiesWithoutCache() throws IOException
+    {
+        List<Value[]> records = decode( null,
+                new RecordMessage( new Value[]{value( alice )} ),
+                new RecordMessage( new Value[]{value( alice )} ) );
+
+        assertThat( records.get( 1 )[0].asNode(), not( sameInstance( records.get( 0 )[0].asNode() ) ) );
+        assertThat( records.get( 1 )[0].asNode(), equalTo( records.get( 0 )[0].asNode() ) );
+    }
+
+    private List<Value[]> decode( final EntityCache cache, Message... messages ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 128 );
+        MessageFormat.Writer writer = format.newWriter( Channels.newChannel( out ) );
+        for ( Message message : messages )
+        {
+            writer.write( message );
+        }
+        writer.flush();
+
+        final List<Value[]> records = new ArrayList<>();
+        SocketResponseHandler handler = new SocketResponseHandler();
+        handler.appendResultCollector( new Collector.NoOperationCollector()
+        {
+            @Override
+            public void record( Value[] fields )
+            {
+                records.add( fields );
+            }
+
+            @Override
+            public EntityCache entityCache()
+            {
+                return cache;
+            }
+        } );
+        MessageFormat.Reader reader = format.newReader( Channels.newChannel( new ByteArrayInputStream( out.toByteArray() ) ) );
+        for ( int i = 0; i < messages.length; i++ )
+        {
+            reader.read( handler );
+        }
+        return records;
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.internal.net.SocketResponseHandler;
+import org.neo4j.driver.internal.packstream.PackStream;
+import org.neo4j.driver.internal.spi.Collector;
+import org.neo4j.driver.v1.Value;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.driver.v1.Values.EmptyMap;
+import static org.neo4j.driver.v1.Values.NULL;
+import static org.neo4j.driver.v1.Values.ofValue;
+import static org.neo4j.driver.v1.Values.parameters;
+import static org.neo4j.driver.v1.Values.value;
+
+public class JsonRecordWriterTest
+{
+    private final MessageFormat format = new PackStreamMessageFormatV1();
+
+    @Test
+    public void shouldTranscodeScalars() throws IOException
+    {
+        List<String> keys = asList( "a", "b", "c", "d", "e" );
+        Value[] fields = {value( 42 ), value( 1.5 ), value( "x\"y\n" ), value( true ), NULL};
+
+        assertThat( transcode( keys, fields ), equalTo( "[{\"a\":42,\"b\":1.5,\"c\":\"x\\\"y\\n\",\"d\":true,\"e\":null}]" ) );
+    }
+
+    @Test
+    public void shouldWriteNonFiniteFloatsAsStrings() throws IOException
+    {
+        List<String> keys = asList( "nan", "inf" );
+        Value[] fields = {value( Double.NaN ), value( Double.NEGATIVE_INFINITY )};
+
+        assertThat( transcode( keys, fields ), equalTo( "[{\"nan\":\"NaN\",\"inf\":\"-Infinity\"}]" ) );
+    }
+
+    @Test
+    public void shouldTranscodeGraphEntities() throws IOException
+    {
+        List<String> keys = asList( "n", "r" );
+        Value[] fields = {
+                value( new InternalNode( 1, Collections.singletonList( "User" ),
+                        parameters( "name", "Bob" ).asMap( ofValue() ) ) ),
+                value( new InternalRelationship( 2, 1, 3, "KNOWS", EmptyMap.asMap( ofValue() ) ) )};
+
+        assertThat( transcode( keys, fields ), equalTo(
+                "[{\"n\":{\"id\":1,\"labels\":[\"User\"],\"properties\":{\"name\":\"Bob\"}}," +
+                "\"r\":{\"id\":2,\"start\":1,\"end\":3,\"type\":\"KNOWS\",\"properties\":{}}}]" ) );
+    }
+
+    @Test
+    public void shouldTranscodeSameAsDecodedRecords() throws IOException
+    {
+        List<String> keys = asList( "list", "map", "path", "single" );
+        Value[] fields = {
+                value( asList( 1, "two", asList( 3.0 ) ) ),
+                value( parameters( "k", asList( "v" ) ) ),
+                value( new InternalPath(
+                        new InternalNode( 1 ),
+                        new InternalRelationship( 2, 1, 3, "KNOWS", EmptyMap.asMap( ofValue() ) ),
+                        new InternalNode( 3 ),
+                        new InternalRelationship( 4, 5, 3, "LIKES", parameters( "w", 1 ).asMap( ofValue() ) ),
+                        new InternalNode( 5 ) ) ),
+                value( new InternalPath( new InternalNode( 7 ) ) )};
+
+        StringWriter decoded = new StringWriter();
+        JsonRecordWriter writer = new JsonRecordWriter( decoded, keys );
+        writer.writeStart();
+        writer.write( new InternalRecord( keys, fields ) );
+        writer.writeEnd();
+
+        assertThat( transcode( keys, fields ), equalTo( decoded.toString() ) );
+    }
+
+    @Test
+    public void shouldConsumeRecordWhenTargetFails() throws IOException
+    {
+        List<String> keys = asList( "a" );
+        Writer failing = new Writer()
+        {
+            @Override
+            public void write( char[] cbuf, int off, int len ) throws IOException
+            {
+                throw new IOException( "broken pipe" );
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        JsonRecordWriter json = new JsonRecordWriter( failing, keys );
+
+        List<Message> after = transcode( json, new RecordMessage( new Value[]{value( asList( 1, 2, 3 ) )} ),
+                new SuccessMessage( Collections.<String,Value>emptyMap() ) );
+
+        assertThat( json.failure(), notNullValue() );
+        assertThat( after.size(), equalTo( 1 ) );
+    }
+
+    private String transcode( List<String> keys, Value[] fields ) throws IOException
+    {
+        StringWriter out = new StringWriter();
+        JsonRecordWriter json = new JsonRecordWriter( out, keys );
+        json.writeStart();
+        transcode( json, new RecordMessage( fields ) );
+        json.writeEnd();
+        return out.toString();
+    }
+
+    private List<Message> transcode( final JsonRecordWriter json, Message... messages ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream( 128 );
+        MessageFormat.Writer writer = format.newWriter( Channels.newChannel( out ) );
+        for ( Message message : messages )
+        {
+            writer.write( message );
+        }
+        writer.flush();
+
+        final List<Message> decoded = new ArrayList<>();
+        SocketResponseHandler handler = new SocketResponseHandler();
+        handler.appendResultCollector( new Collector.NoOperationCollector()
+        {
+            @Override
+            public boolean record( PackStream.Unpacker unpacker, int fieldCount ) throws IOException
+            {
+                json.write( unpacker, fieldCount );
+                return true;
+            }
+
+            @Override
+            public void done()
+            {
+                decoded.add( new SuccessMessage( Collections.<String,Value>emptyMap() ) );
+            }
+        } );
+        MessageFormat.Reader reader = format.newReader( Channels.newChannel( new ByteArrayInputStream( out.toByteArray() ) ) );
+        for ( int i = 0; i < messages.length; i++ )
+        {
+            reader.read( handler );
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.net.SocketResponseHandler;
+import org.neo4j.driver.internal.spi.Collector;
+import org.neo4j.driver.internal.util.Iterables;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.Node;
+
+import static org.neo4j.driver.v1.Values.ofValue;
+import static org.neo4j.driver.v1.Values.parameters;
+import static org.neo4j.driver.v1.Values.value;
+
+/**
+ * Measures the heap retained by a decoded result of one million nodes, each with a typical handful of properties,
+ * and compares it to the same nodes with their properties held in a {@link HashMap}.
+ *
+ * Run with a fixed heap, e.g. {@code -Xms2g -Xmx2g}, so collections between measurements are comparable.
+ */
+public class PropertyMapFootprint
+{
+    private static final int NODES = 1_000_000;
+
+    public static void main( String... args ) throws Throwable
+    {
+        byte[] record = encodedRecord();
+
+        long before = usedHeap();
+        List<Node> decoded = decode( record, NODES );
+        long compact = usedHeap() - before;
+
+        List<Node> hashed = new ArrayList<>( NODES );
+        for ( Node node : decoded )
+        {
+            Map<String,Value> properties = new HashMap<>( node.asMap( ofValue() ) );
+            hashed.add( new InternalNode( node.id(), Iterables.asList( node.labels() ), properties ) );
+        }
+        decoded = null;
+        long hashMap = usedHeap() - before;
+
+        System.out.println( String.format( "%,d nodes with compact property maps: %,d bytes (%d bytes/node)",
+                NODES, compact, compact / NODES ) );
+        System.out.println( String.format( "%,d nodes with hash property maps:    %,d bytes (%d bytes/node)",
+                hashed.size(), hashMap, hashMap / NODES ) );
+    }
+
+    private static byte[] encodedRecord() throws IOException
+    {
+        InternalNode node = new InternalNode( 42, Arrays.asList( "Person", "Employee" ), parameters(
+                "name", "Alice",
+                "surname", "Smith",
+                "age", 42,
+                "email", "alice@example.com",
+                "active", true,
+                "score", 4.2 ).asMap( ofValue() ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessageFormat.Writer writer = new PackStreamMessageFormatV1().newWriter( Channels.newChannel( out ) );
+        writer.write( new RecordMessage( new Value[]{value( node )} ) );
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static List<Node> decode( byte[] record, int count ) throws IOException
+    {
+        final List<Node> nodes = new ArrayList<>( count );
+        SocketResponseHandler handler = new SocketResponseHandler();
+        handler.appendResultCollector( new Collector.NoOperationCollector()
+        {
+            @Override
+            public void record( Value[] fields )
+            {
+                nodes.add( fields[0].asNode() );
+            }
+        } );
+        MessageFormat format = new PackStreamMessageFormatV1();
+        for ( int i = 0; i < count; i++ )
+        {
+            format.newReader( Channels.newChannel( new ByteArrayInputStream( record ) ) ).read( handler );
+        }
+        return nodes;
+    }
+
+    private static long usedHeap() throws InterruptedException
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 5; i++ )
+        {
+            System.gc();
+            Thread.sleep( 100 );
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
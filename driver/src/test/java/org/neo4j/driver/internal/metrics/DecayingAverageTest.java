@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class DecayingAverageTest
+{
+    private static final long SECOND = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final DecayingAverage average = new DecayingAverage( 1, TimeUnit.SECONDS );
+
+    @Test
+    public void shouldStartAtFirstValue()
+    {
+        assertThat( average.value(), equalTo( 0.0 ) );
+
+        average.record( 100, 0 );
+
+        assertThat( average.value(), equalTo( 100.0 ) );
+    }
+
+    @Test
+    public void shouldWeighValuesByTimeSinceRecorded()
+    {
+        // Given
+        average.record( 100, 0 );
+
+        // When
+        average.record( 200, SECOND );
+
+        // Then
+        double weight = Math.exp( -1 );
+        assertThat( average.value(), closeTo( 100 * weight + 200 * (1 - weight), 0.001 ) );
+    }
+
+    @Test
+    public void shouldMoveAsMuchForManyValuesAsForOneOverSameTime()
+    {
+        // Given
+        DecayingAverage single = new DecayingAverage( 1, TimeUnit.SECONDS );
+        single.record( 100, 0 );
+        average.record( 100, 0 );
+
+        // When
+        single.record( 200, SECOND );
+        for ( int i = 1; i <= 1_000; i++ )
+        {
+            average.record( 200, i * SECOND / 1_000 );
+        }
+
+        // Then
+        assertThat( average.value(), closeTo( single.value(), 0.001 ) );
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class InternalHistogramTest
+{
+    @Test
+    public void shouldPutEveryValueInBucketThatHoldsIt()
+    {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        for ( long value : values )
+        {
+            int bucket = InternalHistogram.bucket( value );
+            assertThat( InternalHistogram.upperBound( bucket ), greaterThanOrEqualTo( value ) );
+            if ( bucket > 0 )
+            {
+                assertThat( InternalHistogram.upperBound( bucket - 1 ), lessThanOrEqualTo( value - 1 ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepBucketsWithinAnEighthOfTheirValues()
+    {
+        for ( long value = 8; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1 )
+        {
+            long upperBound = InternalHistogram.upperBound( InternalHistogram.bucket( value ) );
+            assertThat( upperBound - value, lessThanOrEqualTo( value / 8 ) );
+        }
+    }
+
+    @Test
+    public void shouldSummarizeRecordedValues()
+    {
+        // Given
+        InternalHistogram histogram = new InternalHistogram();
+
+        // When
+        for ( int i = 1; i <= 100; i++ )
+        {
+            histogram.record( i * 1_000 );
+        }
+
+        // Then
+        assertThat( histogram.count(), equalTo( 100L ) );
+        assertThat( histogram.total(), equalTo( 5_050_000L ) );
+        assertThat( histogram.max(), equalTo( 100_000L ) );
+        assertThat( histogram.mean(), equalTo( 50_500.0 ) );
+        assertThat( histogram.percentile( 100 ), equalTo( 100_000L ) );
+        assertThat( histogram.percentile( 50 ), greaterThanOrEqualTo( 50_000L ) );
+        assertThat( histogram.percentile( 50 ), lessThanOrEqualTo( 50_000L + 50_000L / 8 ) );
+        assertThat( histogram.percentile( 0 ), greaterThanOrEqualTo( 1_000L ) );
+        assertThat( histogram.percentile( 0 ), lessThanOrEqualTo( 1_000L + 1_000L / 8 ) );
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty()
+    {
+        InternalHistogram histogram = new InternalHistogram();
+
+        assertThat( histogram.count(), equalTo( 0L ) );
+        assertThat( histogram.mean(), equalTo( 0.0 ) );
+        assertThat( histogram.percentile( 99 ), equalTo( 0L ) );
+    }
+}
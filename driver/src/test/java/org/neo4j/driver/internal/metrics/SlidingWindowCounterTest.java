@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class SlidingWindowCounterTest
+{
+    private final SlidingWindowCounter counter = new SlidingWindowCounter( 10, TimeUnit.SECONDS, 10 );
+
+    @Test
+    public void shouldCountEventsWithinWindow()
+    {
+        // Given
+        counter.increment( 0 );
+        counter.increment( 4_500 );
+        counter.increment( 9_999 );
+
+        // Then
+        assertThat( counter.sum( 9_999 ), equalTo( 3L ) );
+    }
+
+    @Test
+    public void shouldForgetEventsOnceOutsideWindow()
+    {
+        // Given
+        counter.increment( 0 );
+        counter.increment( 4_500 );
+
+        // Then
+        assertThat( counter.sum( 10_000 ), equalTo( 1L ) );
+        assertThat( counter.sum( 15_000 ), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldReuseBucketsWhenWindowSlides()
+    {
+        // Given
+        counter.increment( 500 );
+        counter.increment( 500 );
+
+        // When the bucket of the first events is used again
+        counter.increment( 10_500 );
+
+        // Then
+        assertThat( counter.sum( 10_500 ), equalTo( 1L ) );
+    }
+}
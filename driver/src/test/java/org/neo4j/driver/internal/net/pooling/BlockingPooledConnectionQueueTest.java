@@ -21,14 +21,29 @@ package org.neo4j.driver.internal.net.pooling;
 
 import org.junit.Test;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.driver.internal.util.Supplier;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.util.Function;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -105,4 +120,632 @@ public class BlockingPooledConnectionQueueTest
         assertTrue(queue.offer( connection1 ));
         assertFalse(queue.offer( connection2 ));
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldFailToAcquireWhenFullForLongerThanTimeout()
+    {
+        // Given
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( mock( PooledConnection.class ) );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1, 1, 10 );
+        queue.acquire( supplier );
+
+        // When
+        try
+        {
+            queue.acquire( supplier );
+            fail( "Should have timed out" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            verify( supplier ).get();
+            assertThat( queue.metrics().acquisitionWaits(), equalTo( 1L ) );
+            assertThat( queue.metrics().acquisitionTimeouts(), equalTo( 1L ) );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldHandReleasedConnectionToWaitingCaller() throws Exception
+    {
+        // Given
+        final PooledConnection connection = mock( PooledConnection.class );
+        final Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( connection );
+        final BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1, 1, 10_000 );
+        queue.acquire( supplier );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch waiting = new CountDownLatch( 1 );
+        try
+        {
+            Future<PooledConnection> waiter = executor.submit( new Callable<PooledConnection>()
+            {
+                @Override
+                public PooledConnection call() throws Exception
+                {
+                    waiting.countDown();
+                    return queue.acquire( supplier );
+                }
+            } );
+            waiting.await();
+
+            // When
+            queue.offer( connection );
+
+            // Then
+            assertThat( waiter.get( 10, TimeUnit.SECONDS ), equalTo( connection ) );
+            verify( supplier ).get();
+            assertThat( queue.activeSize(), equalTo( 1 ) );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldMakeRoomForNewConnectionWhenAcquiredOneIsDisposed()
+    {
+        // Given
+        PooledConnection connection1 = mock( PooledConnection.class );
+        PooledConnection connection2 = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( connection1, connection2 );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1, 1, 0 );
+        queue.acquire( supplier );
+
+        // When
+        queue.dispose( connection1 );
+        PooledConnection acquired = queue.acquire( supplier );
+
+        // Then
+        verify( connection1 ).dispose();
+        assertThat( acquired, equalTo( connection2 ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldEvictConnectionsIdleLongerThanMaxIdleTimeButKeepMinIdle()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 1, 1_000, 60_000 );
+        PooledConnection connection1 = idleConnection( 2_000 );
+        PooledConnection connection2 = idleConnection( 2_000 );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0 );
+        queue.offer( connection1 );
+        queue.offer( connection2 );
+        Function<PooledConnection,Boolean> liveness = mock( Function.class );
+        when( liveness.apply( any( PooledConnection.class ) ) ).thenReturn( true );
+
+        // When
+        queue.maintain( settings, liveness, mock( Supplier.class ) );
+
+        // Then
+        verify( connection1 ).dispose();
+        verify( connection2, never() ).dispose();
+        assertThat( queue.toList(), equalTo( singletonList( connection2 ) ) );
+        assertThat( queue.metrics().evictions(), equalTo( 1L ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldTestConnectionsIdleLongerThanThreshold()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 0, 1_000, 60_000 );
+        PooledConnection live = idleConnection( 500 );
+        PooledConnection dead = idleConnection( 500 );
+        PooledConnection fresh = idleConnection( 100 );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0 );
+        queue.offer( live );
+        queue.offer( dead );
+        queue.offer( fresh );
+        Function<PooledConnection,Boolean> liveness = mock( Function.class );
+        when( liveness.apply( live ) ).thenReturn( true );
+        when( liveness.apply( dead ) ).thenReturn( false );
+
+        // When
+        queue.maintain( settings, liveness, mock( Supplier.class ) );
+
+        // Then
+        verify( liveness, never() ).apply( fresh );
+        verify( live ).markTested();
+        verify( dead ).dispose();
+        assertThat( queue.toList(), equalTo( asList( live, fresh ) ) );
+        assertThat( queue.activeSize(), equalTo( 0 ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldOpenConnectionsUpToMinIdleWithinMaxSize()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 3, 0, 1_000, 5, 1_000, 60_000 );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( mock( PooledConnection.class ), mock( PooledConnection.class ),
+                mock( PooledConnection.class ) );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 3, 0 );
+        queue.acquire( supplier );
+
+        // When
+        queue.maintain( settings, mock( Function.class ), supplier );
+
+        // Then
+        assertThat( queue.size(), equalTo( 2 ) );
+        assertThat( queue.activeSize(), equalTo( 1 ) );
+        verify( supplier, times( 3 ) ).get();
+    }
+
+    private static PooledConnection idleConnection( long idleTime )
+    {
+        PooledConnection connection = mock( PooledConnection.class );
+        when( connection.idleTime() ).thenReturn( idleTime );
+        when( connection.untestedTime() ).thenReturn( idleTime );
+        when( connection.lifetimeRemaining() ).thenReturn( Long.MAX_VALUE );
+        return connection;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldReplaceConnectionsThatExpireBeforeNextMaintenance()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 0, 1_000, 60_000 );
+        PooledConnection expiring = idleConnection( 0 );
+        when( expiring.lifetimeRemaining() ).thenReturn( 500L );
+        PooledConnection replacement = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( replacement );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0 );
+        queue.offer( expiring );
+
+        // When
+        queue.maintain( settings, mock( Function.class ), supplier );
+
+        // Then
+        verify( expiring ).dispose();
+        assertThat( queue.toList(), equalTo( singletonList( replacement ) ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldPutKeptConnectionsBackWhenReplacementFails()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 0, 1_000, 60_000 );
+        PooledConnection tested = idleConnection( 500 );
+        PooledConnection expiring = idleConnection( 0 );
+        when( expiring.lifetimeRemaining() ).thenReturn( 500L );
+        PooledConnection other = idleConnection( 500 );
+        Function<PooledConnection,Boolean> liveness = mock( Function.class );
+        when( liveness.apply( any( PooledConnection.class ) ) ).thenReturn( true );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenThrow( new ServiceUnavailableException( "oh no" ) );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0 );
+        queue.offer( tested );
+        queue.offer( expiring );
+        queue.offer( other );
+
+        // When
+        try
+        {
+            queue.maintain( settings, liveness, supplier );
+            fail( "Expected the failure to open a replacement" );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            // expected
+        }
+
+        // Then
+        verify( expiring ).dispose();
+        assertThat( queue.size(), equalTo( 2 ) );
+        assertThat( queue.activeSize(), equalTo( 0 ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldAcquireIdleConnectionWhileAnotherIsTested() throws Exception
+    {
+        // Given
+        final PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 0, 1_000, 60_000 );
+        PooledConnection tested = idleConnection( 500 );
+        PooledConnection other = idleConnection( 0 );
+        final CountDownLatch testing = new CountDownLatch( 1 );
+        final CountDownLatch testDone = new CountDownLatch( 1 );
+        final Function<PooledConnection,Boolean> liveness = new Function<PooledConnection,Boolean>()
+        {
+            @Override
+            public Boolean apply( PooledConnection connection )
+            {
+                testing.countDown();
+                try
+                {
+                    return testDone.await( 10, TimeUnit.SECONDS );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        final BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0 );
+        queue.offer( tested );
+        queue.offer( other );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<?> maintenance = executor.submit( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    queue.maintain( settings, liveness, mock( Supplier.class ) );
+                }
+            } );
+            testing.await();
+
+            // When
+            PooledConnection acquired = queue.acquire( supplier );
+            testDone.countDown();
+            maintenance.get( 10, TimeUnit.SECONDS );
+
+            // Then
+            assertThat( acquired, equalTo( other ) );
+            verify( supplier, never() ).get();
+            assertThat( queue.toList(), equalTo( singletonList( tested ) ) );
+            assertThat( queue.activeSize(), equalTo( 1 ) );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldIgnoreConnectionOfferedTwice()
+    {
+        // Given
+        PooledConnection connection = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( connection );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 1, 0 );
+        queue.acquire( supplier );
+
+        // When
+        assertTrue( queue.offer( connection ) );
+        assertFalse( queue.offer( connection ) );
+
+        // Then
+        assertThat( queue.size(), equalTo( 1 ) );
+        assertThat( queue.activeSize(), equalTo( 0 ) );
+        assertThat( queue.acquire( supplier ), equalTo( connection ) );
+        try
+        {
+            queue.acquire( supplier );
+            fail( "Expected the duplicate offer not to have released a second permit" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldDisposeConnectionReleasedAfterTermination()
+    {
+        // Given
+        PooledConnection connection = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( connection );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10 );
+        queue.acquire( supplier );
+        queue.terminate();
+
+        // When
+        queue.offer( connection );
+
+        // Then
+        verify( connection ).dispose();
+        assertThat( queue.metrics().closed(), equalTo( 1L ) );
+        assertTrue( queue.isEmpty() );
+        assertThat( queue.activeSize(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldHandThreadBackTheConnectionItReleasedLast()
+    {
+        // Given
+        PooledConnection first = mock( PooledConnection.class );
+        PooledConnection second = mock( PooledConnection.class );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, true, false, 10, metrics() );
+        queue.offer( first );
+        queue.offer( second );
+
+        // When
+        PooledConnection acquired = queue.acquire( supplierOf( first ) );
+
+        // Then
+        assertThat( acquired, equalTo( second ) );
+        assertThat( queue.metrics().affinityHits(), equalTo( 1L ) );
+        assertThat( queue.size(), equalTo( 1 ) );
+        assertThat( queue.toList(), equalTo( singletonList( first ) ) );
+        assertThat( queue.activeSize(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldSkipConnectionAcquiredThroughThreadAffinityWhenPolling()
+    {
+        // Given
+        PooledConnection first = mock( PooledConnection.class );
+        PooledConnection second = mock( PooledConnection.class );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, true, false, 10, metrics() );
+        queue.offer( first );
+        queue.offer( second );
+        queue.acquire( supplierOf( first ) );
+
+        // When
+        PooledConnection polled = queue.acquire( supplierOf( first ) );
+        PooledConnection created = queue.acquire( supplierOf( first ) );
+
+        // Then
+        assertThat( polled, equalTo( first ) );
+        assertThat( created, equalTo( first ) );
+        assertThat( queue.metrics().affinityHits(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldRequeueConnectionAcquiredThroughThreadAffinityOnlyOnce() throws Exception
+    {
+        // Given
+        final PooledConnection connection = mock( PooledConnection.class );
+        final BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, true, false, 10, metrics() );
+        queue.offer( connection );
+        queue.offer( queue.acquire( supplierOf( connection ) ) );
+
+        // When
+        PooledConnection fromOtherThread = Executors.newSingleThreadExecutor().submit(
+                new Callable<PooledConnection>()
+                {
+                    @Override
+                    public PooledConnection call() throws Exception
+                    {
+                        return queue.acquire( supplierOf( mock( PooledConnection.class ) ) );
+                    }
+                } ).get( 10, TimeUnit.SECONDS );
+
+        // Then
+        assertThat( fromOtherThread, equalTo( connection ) );
+        assertTrue( queue.isEmpty() );
+        PooledConnection other = mock( PooledConnection.class );
+        assertThat( queue.acquire( supplierOf( other ) ), equalTo( other ) );
+        assertThat( queue.metrics().affinityHits(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldAcquireLeastRecentlyUsedConnectionWithFifoSelection()
+    {
+        // Given
+        PooledConnection first = mock( PooledConnection.class );
+        PooledConnection second = mock( PooledConnection.class );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, false, false, 10, metrics() );
+        queue.offer( first );
+        queue.offer( second );
+
+        // When
+        PooledConnection acquired = queue.acquire( supplierOf( null ) );
+
+        // Then
+        assertThat( acquired, equalTo( first ) );
+    }
+
+    @Test
+    public void shouldAcquireMostRecentlyUsedConnectionWithLifoSelection()
+    {
+        // Given
+        PooledConnection first = mock( PooledConnection.class );
+        PooledConnection second = mock( PooledConnection.class );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, false, true, 10, metrics() );
+        queue.offer( first );
+        queue.offer( second );
+
+        // When
+        PooledConnection acquired = queue.acquire( supplierOf( null ) );
+
+        // Then
+        assertThat( acquired, equalTo( second ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldKeepOrderOfIdleConnectionsOnMaintenance()
+    {
+        // Given
+        PoolSettings settings = new PoolSettings( 10, 200, 10, 0, 1_000, 0, 1_000, 60_000 );
+        PooledConnection first = idleConnection( 0 );
+        PooledConnection second = idleConnection( 0 );
+        PooledConnection third = idleConnection( 0 );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, false, true, 10, metrics() );
+        queue.offer( first );
+        queue.offer( second );
+        queue.offer( third );
+
+        // When
+        queue.maintain( settings, mock( Function.class ), mock( Supplier.class ) );
+
+        // Then
+        assertThat( queue.toList(), equalTo( asList( first, second, third ) ) );
+        assertThat( queue.acquire( supplierOf( null ) ), equalTo( third ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldWaitForConnectionBeingOpenedWhenMaxConcurrentConnectsReached() throws Exception
+    {
+        // Given
+        final PooledConnection opened = mock( PooledConnection.class );
+        final PooledConnection released = mock( PooledConnection.class );
+        final Supplier<PooledConnection> otherSupplier = mock( Supplier.class );
+        final CountDownLatch connecting = new CountDownLatch( 1 );
+        final CountDownLatch connected = new CountDownLatch( 1 );
+        final BlockingPooledConnectionQueue queue =
+                new BlockingPooledConnectionQueue( 10, 10, 10_000, false, false, 1, metrics() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            Future<PooledConnection> opener = executor.submit( new Callable<PooledConnection>()
+            {
+                @Override
+                public PooledConnection call() throws Exception
+                {
+                    return queue.acquire( new Supplier<PooledConnection>()
+                    {
+                        @Override
+                        public PooledConnection get()
+                        {
+                            connecting.countDown();
+                            try
+                            {
+                                connected.await();
+                            }
+                            catch ( InterruptedException e )
+                            {
+                                throw new RuntimeException( e );
+                            }
+                            return opened;
+                        }
+                    } );
+                }
+            } );
+            connecting.await();
+            Future<PooledConnection> waiter = executor.submit( new Callable<PooledConnection>()
+            {
+                @Override
+                public PooledConnection call() throws Exception
+                {
+                    return queue.acquire( otherSupplier );
+                }
+            } );
+
+            // When
+            Thread.sleep( 100 );
+            queue.offer( released );
+
+            // Then
+            assertThat( waiter.get( 10, TimeUnit.SECONDS ), equalTo( released ) );
+            connected.countDown();
+            assertThat( opener.get( 10, TimeUnit.SECONDS ), equalTo( opened ) );
+            verify( otherSupplier, never() ).get();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldTimeOutWaitingForConnectionBeingOpened() throws Exception
+    {
+        // Given
+        final CountDownLatch connecting = new CountDownLatch( 1 );
+        final CountDownLatch connected = new CountDownLatch( 1 );
+        final BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 100, false, false, 1, metrics() );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            executor.submit( new Callable<PooledConnection>()
+            {
+                @Override
+                public PooledConnection call() throws Exception
+                {
+                    return queue.acquire( new Supplier<PooledConnection>()
+                    {
+                        @Override
+                        public PooledConnection get()
+                        {
+                            connecting.countDown();
+                            try
+                            {
+                                connected.await();
+                            }
+                            catch ( InterruptedException e )
+                            {
+                                throw new RuntimeException( e );
+                            }
+                            return mock( PooledConnection.class );
+                        }
+                    } );
+                }
+            } );
+            connecting.await();
+
+            // When
+            try
+            {
+                queue.acquire( supplierOf( mock( PooledConnection.class ) ) );
+                fail( "Expected acquisition to time out" );
+            }
+            // Then
+            catch ( ClientException e )
+            {
+                assertThat( queue.metrics().acquisitionTimeouts(), equalTo( 1L ) );
+                assertThat( queue.activeSize(), equalTo( 0 ) );
+            }
+        }
+        finally
+        {
+            connected.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRecordAcquisitionsAndClosedConnectionsInMetrics()
+    {
+        // Given
+        InternalConnectionPoolMetrics metrics = metrics();
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 10, 10, 0, false, false, 10, metrics );
+        metrics.attach( queue );
+        PooledConnection first = mock( PooledConnection.class );
+        PooledConnection second = mock( PooledConnection.class );
+
+        // When
+        queue.acquire( supplierOf( first ) );
+        queue.acquire( supplierOf( second ) );
+        queue.offer( first );
+
+        // Then
+        assertThat( metrics.idle(), equalTo( 1 ) );
+        assertThat( metrics.inUse(), equalTo( 1 ) );
+        assertThat( metrics.acquisitionTime().count(), equalTo( 2L ) );
+
+        // When
+        queue.terminate();
+
+        // Then
+        assertThat( metrics.idle(), equalTo( 0 ) );
+        assertThat( metrics.closed(), equalTo( 2L ) );
+    }
+
+    private static InternalConnectionPoolMetrics metrics()
+    {
+        return new InternalConnectionPoolMetrics( null );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Supplier<PooledConnection> supplierOf( PooledConnection connection )
+    {
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( connection );
+        return supplier;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.EventHandler;
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.internal.util.FakeClock;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionCircuitBreakerTest
+{
+    private final FakeClock clock = new FakeClock( (EventHandler) null, false );
+    private final ConnectionCircuitBreaker circuitBreaker =
+            new ConnectionCircuitBreaker( new BoltServerAddress( "localhost", 7687 ), 3, 1_000, clock );
+
+    @Test
+    public void shouldStopConnectingAfterConsecutiveFailures()
+    {
+        // Given
+        failAttempts( circuitBreaker, 2 );
+        circuitBreaker.connectSucceeded();
+        failAttempts( circuitBreaker, 2 );
+        assertFalse( circuitBreaker.isOpen() );
+
+        // When
+        failAttempts( circuitBreaker, 1 );
+
+        // Then
+        assertTrue( circuitBreaker.isOpen() );
+        assertFailsFast( circuitBreaker );
+    }
+
+    @Test
+    public void shouldLetSingleAttemptThroughAfterCoolDown()
+    {
+        // Given
+        failAttempts( circuitBreaker, 3 );
+        clock.progress( 1_000 );
+
+        // When
+        circuitBreaker.beforeConnect();
+
+        // Then
+        assertFailsFast( circuitBreaker );
+        circuitBreaker.connectSucceeded();
+        assertFalse( circuitBreaker.isOpen() );
+        circuitBreaker.beforeConnect();
+    }
+
+    @Test
+    public void shouldStartAnotherCoolDownWhenAttemptAfterCoolDownFails()
+    {
+        // Given
+        failAttempts( circuitBreaker, 3 );
+        clock.progress( 1_000 );
+        circuitBreaker.beforeConnect();
+
+        // When
+        circuitBreaker.connectFailed();
+
+        // Then
+        assertFailsFast( circuitBreaker );
+        clock.progress( 1_000 );
+        circuitBreaker.beforeConnect();
+    }
+
+    private static void failAttempts( ConnectionCircuitBreaker circuitBreaker, int times )
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            circuitBreaker.beforeConnect();
+            circuitBreaker.connectFailed();
+        }
+    }
+
+    private static void assertFailsFast( ConnectionCircuitBreaker circuitBreaker )
+    {
+        try
+        {
+            circuitBreaker.beforeConnect();
+            fail( "Expected connecting to be stopped" );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.net.BoltServerAddress;
+import org.neo4j.driver.v1.Logger;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConnectionDisposerTest
+{
+    private final Logger log = mock( Logger.class );
+    private final CountDownLatch unblock = new CountDownLatch( 1 );
+
+    @After
+    public void unblockConnections()
+    {
+        unblock.countDown();
+    }
+
+    @Test
+    public void shouldCloseConnectionsConcurrently() throws Throwable
+    {
+        // Given
+        ConnectionDisposer disposer = new ConnectionDisposer( 3, 10_000, log );
+        CountDownLatch closing = new CountDownLatch( 3 );
+        List<PooledConnection> connections = asList(
+                closingTogether( closing ), closingTogether( closing ), closingTogether( closing ) );
+
+        // When
+        List<PooledConnection> abandoned = disposer.dispose( connections );
+
+        // Then
+        assertThat( abandoned, empty() );
+        for ( PooledConnection connection : connections )
+        {
+            verify( connection ).dispose();
+        }
+        verify( log, never() ).warn( anyString(), anyVararg() );
+    }
+
+    @Test
+    public void shouldAbandonConnectionsNotClosedWithinTimeout() throws Throwable
+    {
+        // Given
+        ConnectionDisposer disposer = new ConnectionDisposer( 2, 100, log );
+        PooledConnection closes = connection( "closes" );
+        PooledConnection blocks = blocking( connection( "blocks" ) );
+
+        // When
+        long start = System.nanoTime();
+        List<PooledConnection> abandoned = disposer.dispose( asList( closes, blocks ) );
+
+        // Then
+        assertThat( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ), lessThan( 5_000L ) );
+        assertThat( abandoned, contains( blocks ) );
+        verify( closes ).dispose();
+        verify( log ).warn( anyString(), anyVararg() );
+    }
+
+    @Test
+    public void shouldCloseConnectionsOnCallingThreadWhenShutDown() throws Throwable
+    {
+        // Given
+        ConnectionDisposer disposer = new ConnectionDisposer( 2, 100, log );
+        disposer.shutdown();
+        PooledConnection connection = connection( "closes" );
+
+        // When
+        List<PooledConnection> abandoned = disposer.dispose( Collections.singletonList( connection ) );
+
+        // Then
+        assertThat( abandoned, empty() );
+        verify( connection ).dispose();
+    }
+
+    @Test
+    public void shouldNotAbandonConnectionThatFailedToClose() throws Throwable
+    {
+        // Given
+        ConnectionDisposer disposer = new ConnectionDisposer( 2, 1_000, log );
+        PooledConnection connection = connection( "fails" );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                throw new IllegalStateException( "Failed" );
+            }
+        } ).when( connection ).dispose();
+
+        // When
+        List<PooledConnection> abandoned = disposer.dispose( Collections.singletonList( connection ) );
+
+        // Then
+        assertThat( abandoned.size(), equalTo( 0 ) );
+        verify( log ).warn( anyString(), anyVararg() );
+    }
+
+    private static PooledConnection connection( String host )
+    {
+        PooledConnection connection = mock( PooledConnection.class );
+        when( connection.address() ).thenReturn( new BoltServerAddress( host, 7687 ) );
+        return connection;
+    }
+
+    private PooledConnection blocking( PooledConnection connection )
+    {
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                unblock.await();
+                return null;
+            }
+        } ).when( connection ).dispose();
+        return connection;
+    }
+
+    private static PooledConnection closingTogether( final CountDownLatch closing )
+    {
+        PooledConnection connection = connection( "closes" );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                // only returns once all connections are being closed at the same time
+                closing.countDown();
+                assertTrue( closing.await( 10, TimeUnit.SECONDS ) );
+                return null;
+            }
+        } ).when( connection ).dispose();
+        return connection;
+    }
+}
@@ -31,6 +31,7 @@ import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.ConnectionPool;
 import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumers;
+import org.neo4j.driver.internal.util.Supplier;
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.exceptions.ClientException;
@@ -70,18 +71,38 @@ public class ConnectionInvalidationTest
         PoolSettings poolSettings = PoolSettings.defaultSettings();
         when( clock.millis() ).thenReturn( 0L, poolSettings.idleTimeBeforeConnectionTest() + 1L );
         PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1 );
+        queue.offer( conn );
 
-        // When/Then
-        BlockingPooledConnectionQueue
-                queue = mock( BlockingPooledConnectionQueue.class );
+        // When
         PooledConnectionValidator validator =
                 new PooledConnectionValidator( pool( true ), poolSettings );
+        queue.maintain( poolSettings, validator.liveness(), mock( Supplier.class ) );
 
-        PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, validator);
-        consumer.accept( conn );
+        // Then
+        verify( delegate ).close();
+        assertThat( queue.size(), equalTo( 0 ) );
+        assertThat( queue.metrics().evictions(), equalTo( 1L ) );
+    }
 
-        verify( queue, never() ).offer( conn );
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldNotTestConnectionOnRelease() throws Throwable
+    {
+        // Given
+        PoolSettings poolSettings = PoolSettings.defaultSettings();
+        when( clock.millis() ).thenReturn( 0L, poolSettings.idleTimeBeforeConnectionTest() + 1L );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        PooledConnectionValidator validator =
+                new PooledConnectionValidator( pool( true ), poolSettings );
+        BlockingPooledConnectionQueue queue = queue();
+
+        // When
+        new PooledConnectionReleaseConsumer( queue, validator ).accept( conn );
+
+        // Then
+        verify( delegate, never() ).run( anyString(), anyMap(), any( Collector.class ) );
+        verify( queue ).offer( conn );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -100,7 +121,7 @@ public class ConnectionInvalidationTest
 
         // When/Then
         BlockingPooledConnectionQueue
-                queue = mock( BlockingPooledConnectionQueue.class );
+                queue = queue();
         PooledConnectionReleaseConsumer consumer =
                 new PooledConnectionReleaseConsumer( queue,validator );
         consumer.accept( conn );
@@ -109,22 +130,47 @@ public class ConnectionInvalidationTest
     }
 
     @Test
-    public void shouldInvalidConnectionIfFailedToReset() throws Throwable
+    public void shouldDeferResetOfReleasedConnectionUntilNextAcquired() throws Throwable
     {
-        // Given a connection that's broken
-        Mockito.doThrow( new ClientException( "That didn't work" ) ).when( delegate ).reset();
+        // Given a connection left in a transaction
         PoolSettings poolSettings = PoolSettings.defaultSettings();
         PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        conn.run( "BEGIN", new HashMap<String,Value>(), Collector.NO_OP );
         PooledConnectionValidator validator =
                 new PooledConnectionValidator( pool( true ), poolSettings );
-        // When/Then
         BlockingPooledConnectionQueue
-                queue = mock( BlockingPooledConnectionQueue.class );
+                queue = queue();
         PooledConnectionReleaseConsumer consumer =
                 new PooledConnectionReleaseConsumer( queue, validator );
+
+        // When
         consumer.accept( conn );
 
+        // Then
+        verify( queue ).offer( conn );
+        verify( delegate, never() ).reset();
+        verify( delegate, never() ).sync();
+        assertTrue( conn.isResetNeeded() );
+    }
+
+    @Test
+    public void shouldInvalidateExpiredConnectionOnRelease() throws Throwable
+    {
+        // Given
+        when( clock.millis() ).thenReturn( 0L, 1_001L );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock, 1_000 );
+        PooledConnectionValidator validator =
+                new PooledConnectionValidator( pool( true ), PoolSettings.defaultSettings() );
+        BlockingPooledConnectionQueue
+                queue = queue();
+
+        // When
+        new PooledConnectionReleaseConsumer( queue, validator ).accept( conn );
+
+        // Then
         verify( queue, never() ).offer( conn );
+        verify( queue ).dispose( conn );
+        assertThat( queue.metrics().validationFailures(), equalTo( 1L ) );
     }
 
     @Test
@@ -172,7 +218,7 @@ public class ConnectionInvalidationTest
         // Then
         assertTrue( conn.hasUnrecoverableErrors() );
         BlockingPooledConnectionQueue
-                queue = mock( BlockingPooledConnectionQueue.class );
+                queue = queue();
         PooledConnectionReleaseConsumer consumer =
                 new PooledConnectionReleaseConsumer( queue, validator );
         consumer.accept( conn );
@@ -202,7 +248,7 @@ public class ConnectionInvalidationTest
         PooledConnectionValidator validator =
                 new PooledConnectionValidator( pool( true ), poolSettings );
         BlockingPooledConnectionQueue
-                queue = mock( BlockingPooledConnectionQueue.class );
+                queue = queue();
         PooledConnectionReleaseConsumer consumer =
                 new PooledConnectionReleaseConsumer( queue, validator );
         consumer.accept( conn );
@@ -210,6 +256,13 @@ public class ConnectionInvalidationTest
         verify( queue ).offer( conn );
     }
 
+    private static BlockingPooledConnectionQueue queue()
+    {
+        BlockingPooledConnectionQueue queue = mock( BlockingPooledConnectionQueue.class );
+        when( queue.metrics() ).thenReturn( new InternalConnectionPoolMetrics( null ) );
+        return queue;
+    }
+
     private ConnectionPool pool( boolean hasAddress )
     {
         ConnectionPool pool = mock( ConnectionPool.class );
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.v1.AuthTokens;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Config.IdleConnectionSelection;
+import org.neo4j.driver.v1.Driver;
+import org.neo4j.driver.v1.GraphDatabase;
+import org.neo4j.driver.v1.Session;
+
+/**
+ * Compares FIFO and LIFO idle connection selection under bursty load, against a local stub server that answers
+ * every Bolt message with an empty SUCCESS after a fixed delay.
+ *
+ * Load alternates between bursts, where many threads run statements back to back, and quiet periods, where a
+ * couple of threads do. For each policy this reports the throughput, how many connections were opened, how many
+ * liveness checks were sent, and how many connections were still open at the end of the quiet periods.
+ */
+public class IdleConnectionSelectionBenchmark
+{
+    private static final int CYCLES = 5;
+    private static final long BURST_MILLIS = 1_000;
+    private static final long QUIET_MILLIS = 3_000;
+    private static final int BURST_THREADS = 32;
+    private static final int QUIET_THREADS = 2;
+    private static final long SERVER_DELAY_MILLIS = 1;
+
+    public static void main( String... args ) throws Throwable
+    {
+        System.out.println( String.format( "%-6s %12s %12s %12s %16s", "policy", "ops/s", "opened", "pings",
+                "open when quiet" ) );
+        for ( IdleConnectionSelection selection : IdleConnectionSelection.values() )
+        {
+            bench( selection );
+        }
+    }
+
+    private static void bench( IdleConnectionSelection selection ) throws Exception
+    {
+        try ( StubServer server = new StubServer() )
+        {
+            Config config = Config.build()
+                    .withEncryptionLevel( Config.EncryptionLevel.NONE )
+                    .withIdleConnectionSelection( selection )
+                    .withMaxIdleSessions( BURST_THREADS )
+                    .withMaxIdleTime( 1, TimeUnit.SECONDS )
+                    .withSessionLivenessCheckTimeout( 500 )
+                    .withPoolMaintenanceInterval( 100, TimeUnit.MILLISECONDS )
+                    .toConfig();
+            try ( Driver driver = GraphDatabase.driver( "bolt://localhost:" + server.port(), AuthTokens.none(),
+                    config ) )
+            {
+                long operations = 0;
+                long openWhenQuiet = 0;
+                for ( int i = 0; i < CYCLES; i++ )
+                {
+                    operations += load( driver, BURST_THREADS, BURST_MILLIS );
+                    operations += load( driver, QUIET_THREADS, QUIET_MILLIS );
+                    openWhenQuiet += server.open.get();
+                }
+                long millis = CYCLES * (BURST_MILLIS + QUIET_MILLIS);
+                System.out.println( String.format( "%-6s %,12d %,12d %,12d %16d", selection,
+                        operations * 1_000 / millis, server.opened.get(), server.pings.get(),
+                        openWhenQuiet / CYCLES ) );
+            }
+        }
+    }
+
+    private static long load( final Driver driver, int threads, long millis ) throws InterruptedException
+    {
+        final AtomicBoolean running = new AtomicBoolean( true );
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long count = 0;
+                    while ( running.get() )
+                    {
+                        try ( Session session = driver.session() )
+                        {
+                            session.run( "RETURN 1" ).consume();
+                        }
+                        count++;
+                    }
+                    operations.addAndGet( count );
+                    done.countDown();
+                }
+            } ).start();
+        }
+        Thread.sleep( millis );
+        running.set( false );
+        done.await();
+        return operations.get();
+    }
+
+    /**
+     * Speaks just enough Bolt to accept any message, counting connections and liveness checks.
+     */
+    private static class StubServer implements AutoCloseable, Runnable
+    {
+        private static final byte[] SUCCESS = {0x00, 0x03, (byte) 0xB1, 0x70, (byte) 0xA0, 0x00, 0x00};
+        private static final byte[] PING = "JavaDriver poll".getBytes( StandardCharsets.UTF_8 );
+
+        private final ServerSocket serverSocket = new ServerSocket( 0 );
+        private final AtomicInteger opened = new AtomicInteger();
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger pings = new AtomicInteger();
+
+        StubServer() throws IOException
+        {
+            Thread acceptor = new Thread( this, "stub-server" );
+            acceptor.setDaemon( true );
+            acceptor.start();
+        }
+
+        int port()
+        {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run()
+        {
+            while ( !serverSocket.isClosed() )
+            {
+                try
+                {
+                    final Socket socket = serverSocket.accept();
+                    opened.incrementAndGet();
+                    open.incrementAndGet();
+                    Thread connection = new Thread( new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            serve( socket );
+                        }
+                    } );
+                    connection.setDaemon( true );
+                    connection.start();
+                }
+                catch ( IOException e )
+                {
+                    // closed
+                }
+            }
+        }
+
+        private void serve( Socket socket )
+        {
+            try ( Socket ignore = socket )
+            {
+                socket.setTcpNoDelay( true );
+                DataInputStream in = new DataInputStream( socket.getInputStream() );
+                DataOutputStream out = new DataOutputStream( socket.getOutputStream() );
+                in.readFully( new byte[20] );
+                out.writeInt( 1 );
+                out.flush();
+                while ( true )
+                {
+                    byte[] message = readMessage( in );
+                    if ( contains( message, PING ) )
+                    {
+                        pings.incrementAndGet();
+                    }
+                    Thread.sleep( SERVER_DELAY_MILLIS );
+                    out.write( SUCCESS );
+                    out.flush();
+                }
+            }
+            catch ( IOException | InterruptedException e )
+            {
+                // disconnected
+            }
+            finally
+            {
+                open.decrementAndGet();
+            }
+        }
+
+        private static byte[] readMessage( DataInputStream in ) throws IOException
+        {
+            byte[] message = new byte[0];
+            int size;
+            while ( (size = in.readUnsignedShort()) != 0 )
+            {
+                int offset = message.length;
+                message = Arrays.copyOf( message, offset + size );
+                in.readFully( message, offset, size );
+            }
+            return message;
+        }
+
+        private static boolean contains( byte[] bytes, byte[] part )
+        {
+            outer:
+            for ( int i = 0; i + part.length <= bytes.length; i++ )
+            {
+                for ( int j = 0; j < part.length; j++ )
+                {
+                    if ( bytes[i + j] != part[j] )
+                    {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumer;
+import org.neo4j.driver.internal.util.Supplier;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures acquire and release throughput of {@link BlockingPooledConnectionQueue} from an increasing number of
+ * threads, up to twice the number of available cores, and compares it to a queue built the way the pool used to be:
+ * a {@link LinkedBlockingQueue} of idle connections next to a concurrent set of acquired ones.
+ *
+ * Every thread acquires a connection and releases it straight away, so the numbers reflect the cost of the pool
+ * itself under contention rather than that of any network round trip.
+ */
+public class PooledConnectionQueueBenchmark
+{
+    private static final long WARMUP_MILLIS = 2_000;
+    private static final long MEASUREMENT_MILLIS = 5_000;
+    private static final int POOL_SIZE = 64;
+
+    public static void main( String... args ) throws Throwable
+    {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println( String.format( "%-8s %20s %20s", "threads", "queue ops/s", "baseline ops/s" ) );
+        for ( int threads = 1; threads <= cores * 2; threads *= 2 )
+        {
+            long current = bench( new CurrentQueue(), threads );
+            long baseline = bench( new BaselineQueue(), threads );
+            System.out.println( String.format( "%-8d %,20d %,20d", threads, current, baseline ) );
+        }
+    }
+
+    private static long bench( final Queue queue, int threads ) throws InterruptedException
+    {
+        run( queue, threads, WARMUP_MILLIS );
+        return run( queue, threads, MEASUREMENT_MILLIS ) * 1_000 / MEASUREMENT_MILLIS;
+    }
+
+    private static long run( final Queue queue, int threads, long millis ) throws InterruptedException
+    {
+        final AtomicBoolean running = new AtomicBoolean( true );
+        final AtomicLong operations = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            new Thread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long count = 0;
+                    while ( running.get() )
+                    {
+                        queue.offer( queue.acquire() );
+                        count++;
+                    }
+                    operations.addAndGet( count );
+                    done.countDown();
+                }
+            } ).start();
+        }
+        Thread.sleep( millis );
+        running.set( false );
+        done.await();
+        return operations.get();
+    }
+
+    private static PooledConnection newConnection()
+    {
+        return new PooledConnection( mock( Connection.class ), new Consumer<PooledConnection>()
+        {
+            @Override
+            public void accept( PooledConnection connection )
+            {
+            }
+        }, Clock.SYSTEM );
+    }
+
+    private interface Queue
+    {
+        PooledConnection acquire();
+
+        void offer( PooledConnection connection );
+    }
+
+    private static class CurrentQueue implements Queue
+    {
+        private final BlockingPooledConnectionQueue queue =
+                new BlockingPooledConnectionQueue( POOL_SIZE, POOL_SIZE, TimeUnit.MINUTES.toMillis( 1 ) );
+        private final Supplier<PooledConnection> supplier = new Supplier<PooledConnection>()
+        {
+            @Override
+            public PooledConnection get()
+            {
+                return newConnection();
+            }
+        };
+
+        @Override
+        public PooledConnection acquire()
+        {
+            return queue.acquire( supplier );
+        }
+
+        @Override
+        public void offer( PooledConnection connection )
+        {
+            queue.offer( connection );
+        }
+    }
+
+    private static class BaselineQueue implements Queue
+    {
+        private final BlockingQueue<PooledConnection> queue = new LinkedBlockingQueue<>( POOL_SIZE );
+        private final Set<PooledConnection> acquiredConnections =
+                Collections.newSetFromMap( new ConcurrentHashMap<PooledConnection,Boolean>() );
+        private final Semaphore permits = new Semaphore( POOL_SIZE, true );
+
+        @Override
+        public PooledConnection acquire()
+        {
+            try
+            {
+                if ( !permits.tryAcquire( 0, TimeUnit.MILLISECONDS ) )
+                {
+                    permits.tryAcquire( 1, TimeUnit.MINUTES );
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                throw new IllegalStateException( e );
+            }
+            PooledConnection poll = queue.poll();
+            if ( poll == null )
+            {
+                poll = newConnection();
+            }
+            acquiredConnections.add( poll );
+            return poll;
+        }
+
+        @Override
+        public void offer( PooledConnection connection )
+        {
+            boolean acquired = acquiredConnections.remove( connection );
+            queue.offer( connection );
+            if ( acquired )
+            {
+                permits.release();
+            }
+        }
+    }
+}
@@ -19,25 +19,38 @@
 package org.neo4j.driver.internal.net.pooling;
 
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.driver.internal.spi.Collector;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.util.Function;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class PooledConnectionTest
 {
+    private static final Map<String,Value> NO_PARAMETERS = Collections.emptyMap();
 
     private static final Function<PooledConnection,Boolean>
             VALID_CONNECTION = new Function<PooledConnection,Boolean>()
@@ -215,6 +228,113 @@ public class PooledConnectionTest
         assertThat( flags[0], equalTo( true ) ); // make sure that the dispose is called
     }
 
+    @Test
+    public void shouldQueueResetOnlyWhenTransactionWasLeftOpen() throws Throwable
+    {
+        // Given
+        Connection conn = mock( Connection.class );
+        PooledConnection pooledConnection = new PooledConnection(
+                conn, mock( PooledConnectionReleaseConsumer.class ), mock( Clock.class ) );
+
+        // When
+        pooledConnection.run( "BEGIN", NO_PARAMETERS, Collector.NO_OP );
+        pooledConnection.run( "COMMIT", NO_PARAMETERS, Collector.NO_OP );
+        pooledConnection.resetIfNeeded();
+
+        // Then
+        verify( conn, never() ).reset();
+
+        // When
+        pooledConnection.run( "BEGIN", NO_PARAMETERS, Collector.NO_OP );
+        pooledConnection.resetIfNeeded();
+        pooledConnection.resetIfNeeded();
+
+        // Then
+        verify( conn, times( 1 ) ).reset();
+        verify( conn, never() ).sync();
+        assertFalse( pooledConnection.isResetNeeded() );
+    }
+
+    @Test
+    public void shouldNeedResetAfterFailure() throws Throwable
+    {
+        // Given
+        Connection conn = mock( Connection.class );
+        doThrow( new ClientException( "Neo.ClientError", "a recoverable error" ) ).when( conn ).sync();
+        PooledConnection pooledConnection = new PooledConnection(
+                conn, mock( PooledConnectionReleaseConsumer.class ), mock( Clock.class ) );
+
+        // When
+        try
+        {
+            pooledConnection.sync();
+            fail( "Should have thrown a recoverable error" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+
+        // Then
+        assertTrue( pooledConnection.isResetNeeded() );
+    }
+
+    @Test
+    public void shouldExpireAfterLifetime() throws Throwable
+    {
+        // Given
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 1_000L, 1_500L, 2_000L );
+        PooledConnection pooledConnection = new PooledConnection(
+                mock( Connection.class ), mock( PooledConnectionReleaseConsumer.class ), clock, 1_000 );
+
+        // When/Then
+        assertThat( pooledConnection.lifetimeRemaining(), equalTo( 500L ) );
+        assertTrue( pooledConnection.hasExpired() );
+    }
+
+    @Test
+    public void shouldStayIdleWhenTested() throws Throwable
+    {
+        // Given
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 1_000L, 1_500L, 2_000L, 2_000L );
+        PooledConnection pooledConnection = new PooledConnection(
+                mock( Connection.class ), mock( PooledConnectionReleaseConsumer.class ), clock );
+
+        // When
+        pooledConnection.markTested();
+
+        // Then
+        assertThat( pooledConnection.idleTime(), equalTo( 1_000L ) );
+        assertThat( pooledConnection.untestedTime(), equalTo( 500L ) );
+    }
+
+    @Test
+    public void shouldRecordResponseTimeOfSync() throws Throwable
+    {
+        // Given
+        InternalConnectionPoolMetrics metrics = new InternalConnectionPoolMetrics( null );
+        Connection conn = mock( Connection.class );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                Thread.sleep( 10 );
+                return null;
+            }
+        } ).when( conn ).sync();
+        PooledConnection pooledConnection = new PooledConnection(
+                conn, mock( PooledConnectionReleaseConsumer.class ), Clock.SYSTEM, Long.MAX_VALUE, metrics );
+
+        // When
+        pooledConnection.sync();
+
+        // Then
+        assertThat( metrics.responseTime(), greaterThanOrEqualTo( (double) TimeUnit.MILLISECONDS.toNanos( 10 ) ) );
+    }
+
     @Test
     public void shouldAckFailureOnRecoverableFailure() throws Throwable
     {
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.net.pooling;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.util.Supplier;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SocketConnectionPoolTest
+{
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldDisposeConnectionThatFailsToResetOnAcquire()
+    {
+        // Given
+        PooledConnection broken = mock( PooledConnection.class );
+        doThrow( new ServiceUnavailableException( "oh no" ) ).when( broken ).resetIfNeeded();
+        PooledConnection healthy = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( healthy );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1, 1, 0 );
+        queue.offer( broken );
+
+        // When
+        try
+        {
+            SocketConnectionPool.acquire( queue, supplier );
+            fail( "Expected the reset to fail" );
+        }
+        catch ( ServiceUnavailableException e )
+        {
+            // expected
+        }
+
+        // Then
+        verify( broken ).dispose();
+        assertThat( queue.activeSize(), equalTo( 0 ) );
+        assertThat( SocketConnectionPool.acquire( queue, supplier ), equalTo( healthy ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldDisposeExpiredConnectionOnAcquire()
+    {
+        // Given
+        PooledConnection expired = mock( PooledConnection.class );
+        when( expired.hasExpired() ).thenReturn( true );
+        PooledConnection fresh = mock( PooledConnection.class );
+        Supplier<PooledConnection> supplier = mock( Supplier.class );
+        when( supplier.get() ).thenReturn( fresh );
+        BlockingPooledConnectionQueue queue = new BlockingPooledConnectionQueue( 1, 1, 0 );
+        queue.offer( expired );
+
+        // When
+        PooledConnection acquired = SocketConnectionPool.acquire( queue, supplier );
+
+        // Then
+        verify( expired ).dispose();
+        assertThat( acquired, equalTo( fresh ) );
+        assertThat( queue.activeSize(), equalTo( 1 ) );
+    }
+}
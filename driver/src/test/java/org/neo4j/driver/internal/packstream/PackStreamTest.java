@@ -847,6 +847,37 @@ public class PackStreamTest
 
     private static class MyRandomClass{}
 
+    @Test
+    public void shouldSkipValuesOfAnyType() throws IOException
+    {
+        // Given
+        Machine machine = new Machine();
+        PackStream.Packer packer = machine.packer();
+        StringBuilder longString = new StringBuilder();
+        for ( int i = 0; i < 300; i++ )
+        {
+            longString.append( 'x' );
+        }
+        packer.pack( asList( 1, 1_000_000_000_000L, 1.5, true, null, "", "short", longString.toString() ) );
+        packer.pack( asMap( "a", asList( asMap( "b", 3 ) ) ) );
+        packer.packStructHeader( 2, (byte) 'N' );
+        packer.pack( 42 );
+        packer.pack( new byte[]{1, 2, 3} );
+        packer.pack( "end" );
+        packer.flush();
+
+        PackStream.Unpacker unpacker = newUnpacker( machine.output() );
+
+        // When
+        unpacker.skip();
+        unpacker.skip();
+        unpacker.skip();
+
+        // Then
+        assertThat( unpacker.unpackString(), equalTo( "end" ) );
+    }
+
+
     void assertPeekType( PackType type, Object value ) throws IOException
     {
         // Given
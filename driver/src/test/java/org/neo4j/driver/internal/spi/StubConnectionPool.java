@@ -20,6 +20,7 @@ package org.neo4j.driver.internal.spi;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -35,6 +36,8 @@ import org.neo4j.driver.internal.net.pooling.PooledConnection;
 import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumer;
 import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+import org.neo4j.driver.v1.metrics.Metrics;
 import org.neo4j.driver.v1.util.Function;
 
 import static org.hamcrest.Matchers.any;
@@ -189,6 +192,37 @@ public class StubConnectionPool implements ConnectionPool
         return State.CONNECTED == hosts.get( address );
     }
 
+    @Override
+    public int activeConnections( BoltServerAddress address )
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean hasCapacity( BoltServerAddress address )
+    {
+        return true;
+    }
+
+    @Override
+    public double responseTime( BoltServerAddress address )
+    {
+        return 0;
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return new Metrics()
+        {
+            @Override
+            public Map<String,ConnectionPoolMetrics> connectionPoolMetrics()
+            {
+                return Collections.emptyMap();
+            }
+        };
+    }
+
     @Override
     public void close()
     {
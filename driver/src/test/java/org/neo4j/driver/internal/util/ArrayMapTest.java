@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayMapTest
+{
+    @Test
+    public void shouldLookUpKeysOfSmallMap()
+    {
+        Map<String,Integer> map = ArrayMap.of( new String[]{"b", "a", "c"}, new Integer[]{1, 2, 3} );
+
+        assertThat( map.size(), equalTo( 3 ) );
+        assertThat( map.get( "a" ), equalTo( 2 ) );
+        assertThat( map.get( "b" ), equalTo( 1 ) );
+        assertThat( map.get( "c" ), equalTo( 3 ) );
+        assertThat( map.get( "d" ), nullValue() );
+        assertTrue( map.containsKey( "a" ) );
+        assertFalse( map.containsKey( 1 ) );
+    }
+
+    @Test
+    public void shouldLookUpKeysOfLargeMap()
+    {
+        int size = ArrayMap.LINEAR_SEARCH_LIMIT * 4;
+        String[] keys = new String[size];
+        Integer[] values = new Integer[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            keys[i] = "key" + (size - i);
+            values[i] = size - i;
+        }
+
+        Map<String,Integer> map = ArrayMap.of( keys, values );
+
+        assertThat( map.size(), equalTo( size ) );
+        for ( int i = 1; i <= size; i++ )
+        {
+            assertThat( map.get( "key" + i ), equalTo( i ) );
+        }
+        assertThat( map.get( "key0" ), nullValue() );
+        assertFalse( map.containsKey( "key" + (size + 1) ) );
+    }
+
+    @Test
+    public void shouldKeepLastValueOfDuplicateKey()
+    {
+        Map<String,Integer> small = ArrayMap.of( new String[]{"a", "b", "a"}, new Integer[]{1, 2, 3} );
+        Map<String,Integer> large = ArrayMap.of(
+                new String[]{"a", "b", "c", "d", "e", "f", "g", "h", "i", "a"},
+                new Integer[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10} );
+
+        assertThat( small.size(), equalTo( 2 ) );
+        assertThat( small.get( "a" ), equalTo( 3 ) );
+        assertThat( large.size(), equalTo( 9 ) );
+        assertThat( large.get( "a" ), equalTo( 10 ) );
+        assertThat( large.get( "i" ), equalTo( 9 ) );
+    }
+
+    @Test
+    public void shouldBeEqualToHashMapWithSameEntries()
+    {
+        Map<String,Integer> expected = new HashMap<>();
+        expected.put( "a", 1 );
+        expected.put( "b", 2 );
+
+        Map<String,Integer> map = ArrayMap.of( new String[]{"b", "a"}, new Integer[]{2, 1} );
+
+        assertThat( map, equalTo( expected ) );
+        assertThat( map.hashCode(), equalTo( expected.hashCode() ) );
+        assertThat( map.keySet(), containsInAnyOrder( "a", "b" ) );
+        assertThat( map.values(), containsInAnyOrder( 1, 2 ) );
+        assertThat( ArrayMap.<Integer>empty(), equalTo( (Map<String,Integer>) new HashMap<String,Integer>() ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void shouldBeImmutable()
+    {
+        ArrayMap.of( new String[]{"a"}, new Integer[]{1} ).put( "b", 2 );
+    }
+}